@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.benchmarks;
+
+import com.okta.commons.lang.Classes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Classes#newInstance(Class, Object...)} and {@link Classes#isAvailable(String)}, against a direct constructor
+ * call and {@link Constructor#newInstance(Object...)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClassesBenchmark {
+
+    private final Constructor<StringBuilder> constructor = Classes.getConstructor(StringBuilder.class, String.class);
+
+    private final String value = "okta";
+
+    @Benchmark
+    public StringBuilder direct() {
+        return new StringBuilder(value);
+    }
+
+    @Benchmark
+    public StringBuilder reflective() throws ReflectiveOperationException {
+        return constructor.newInstance(value);
+    }
+
+    @Benchmark
+    public StringBuilder newInstance() {
+        return Classes.newInstance(StringBuilder.class, value);
+    }
+
+    @Benchmark
+    public StringBuilder instantiate() {
+        return Classes.instantiate(constructor, value);
+    }
+
+    @Benchmark
+    public boolean isAvailable() {
+        return Classes.isAvailable("org.springframework.boot.SpringApplication");
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.benchmarks;
+
+import com.okta.commons.http.HttpHeaders;
+import com.okta.commons.http.MediaType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link HttpHeaders} as used per request: building request headers, wrapping and reading response headers.
+ * {@link #readCopiedResponseHeaders} is the baseline of {@link #readResponseHeaders}, the transports copied every
+ * response header into a new {@code HttpHeaders} before they wrapped them in place.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HttpHeadersBenchmark {
+
+    private static final List<MediaType> ACCEPT = Collections.singletonList(MediaType.APPLICATION_JSON);
+
+    private static final String[] RESPONSE_HEADERS = {
+        "Date", "Tue, 01 Sep 2020 12:00:00 GMT",
+        "Content-Type", "application/json;charset=UTF-8",
+        "X-Okta-Request-Id", "X0kx2AnoPyQ8fS0nd3kQvQAAB7k",
+        "X-Rate-Limit-Limit", "600",
+        "X-Rate-Limit-Remaining", "599",
+        "X-Rate-Limit-Reset", "1598961660",
+        "Cache-Control", "no-cache, no-store",
+        "Link", "<https://example.okta.com/api/v1/users?after=00u1&limit=200>; rel=\"next\""
+    };
+
+    @Benchmark
+    public HttpHeaders buildRequestHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(ACCEPT);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.add("User-Agent", "okta-sdk-java/8.0.0 java/1.8.0 Linux/5.4.0");
+        headers.add("Authorization", "SSWS 00abcdefghijklmnopqrstuvwxyz");
+        return headers;
+    }
+
+    @Benchmark
+    public void readResponseHeaders(Blackhole blackhole) {
+        HttpHeaders headers = HttpHeaders.fromNameValuePairs(RESPONSE_HEADERS.length / 2,
+            i -> RESPONSE_HEADERS[i * 2], i -> RESPONSE_HEADERS[i * 2 + 1]);
+        readHeaders(headers, blackhole);
+    }
+
+    @Benchmark
+    public void readCopiedResponseHeaders(Blackhole blackhole) {
+        HttpHeaders headers = new HttpHeaders();
+        for (int i = 0; i < RESPONSE_HEADERS.length; i += 2) {
+            headers.add(RESPONSE_HEADERS[i], RESPONSE_HEADERS[i + 1]);
+        }
+        readHeaders(headers, blackhole);
+    }
+
+    @Benchmark
+    public long readDateHeader() {
+        return HttpHeaders.fromNameValuePairs(RESPONSE_HEADERS.length / 2,
+            i -> RESPONSE_HEADERS[i * 2], i -> RESPONSE_HEADERS[i * 2 + 1]).getDate();
+    }
+
+    @Benchmark
+    public HttpHeaders copyResponseHeaders() {
+        HttpHeaders headers = HttpHeaders.fromNameValuePairs(RESPONSE_HEADERS.length / 2,
+            i -> RESPONSE_HEADERS[i * 2], i -> RESPONSE_HEADERS[i * 2 + 1]);
+        headers.add("X-Okta-Retry-Count", "2");
+        return headers;
+    }
+
+    /**
+     * The headers read of every response: its content type, by the rate limit handling and for error reporting.
+     */
+    private static void readHeaders(HttpHeaders headers, Blackhole blackhole) {
+        blackhole.consume(headers.getContentType());
+        blackhole.consume(headers.getFirst("X-Rate-Limit-Remaining"));
+        blackhole.consume(headers.getOktaRequestId());
+    }
+}
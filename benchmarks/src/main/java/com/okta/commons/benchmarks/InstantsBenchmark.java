@@ -0,0 +1,68 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.benchmarks;
+
+import com.okta.commons.lang.Instants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Instants#convertDateToUTC(long, TimeZone)} and {@link Instants#convertDateToLocalTime(long, TimeZone)} of a
+ * zone with daylight saving time, against {@link TimeZone#getOffset(long)}, and {@link Instants#of(int, int, int)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InstantsBenchmark {
+
+    private final TimeZone timeZone = TimeZone.getTimeZone("America/Los_Angeles");
+
+    private final long time = 1700000000000L;
+
+    @Benchmark
+    public long getOffset() {
+        return time - timeZone.getOffset(time);
+    }
+
+    @Benchmark
+    public long convertDateToUTC() {
+        return Instants.convertDateToUTC(time, timeZone);
+    }
+
+    @Benchmark
+    public long convertDateToLocalTime() {
+        return Instants.convertDateToLocalTime(time, timeZone);
+    }
+
+    @Benchmark
+    public Date of() {
+        return Instants.of(2023, 10, 14);
+    }
+}
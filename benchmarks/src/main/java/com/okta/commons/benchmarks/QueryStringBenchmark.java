@@ -0,0 +1,68 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.benchmarks;
+
+import com.okta.commons.http.QueryString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link QueryString} parsing and encoding of a typical paged search query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryStringBenchmark {
+
+    private static final String QUERY =
+        "search=profile.lastName%20eq%20%22Smith%22%20and%20status%20eq%20%22ACTIVE%22&limit=200&after=00u1abcd2EFGH3ijkl4&expand=classification";
+
+    private QueryString parsed;
+
+    @Setup
+    public void setup() {
+        parsed = QueryString.create(QUERY);
+    }
+
+    @Benchmark
+    public QueryString parse() {
+        return QueryString.create(QUERY);
+    }
+
+    @Benchmark
+    public String encode() {
+        // a fresh copy, so the encoded form is not served from the cache
+        return new QueryString(parsed).toString();
+    }
+
+    @Benchmark
+    public String encodeCanonical() {
+        return new QueryString(parsed).toString(true);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.benchmarks;
+
+import com.okta.commons.http.DefaultRequest;
+import com.okta.commons.http.DefaultResponse;
+import com.okta.commons.http.HttpHeaders;
+import com.okta.commons.http.HttpMethod;
+import com.okta.commons.http.QueryString;
+import com.okta.commons.http.Request;
+import com.okta.commons.http.RequestExecutor;
+import com.okta.commons.http.Response;
+import com.okta.commons.http.RetryRequestExecutor;
+import com.okta.commons.http.config.HttpClientConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead {@link RetryRequestExecutor} adds to a request that succeeds on the first attempt, compared to calling
+ * the transport directly.  The transport is a no-op returning a canned response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RetryRequestExecutorBenchmark {
+
+    private RequestExecutor transport;
+
+    private RequestExecutor retrying;
+
+    @Setup
+    public void setup() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Okta-Request-Id", "X0kx2AnoPyQ8fS0nd3kQvQAAB7k");
+        Response response = DefaultResponse.withHeaders(200, headers, null, 0);
+        transport = request -> response;
+
+        HttpClientConfiguration configuration = new HttpClientConfiguration();
+        configuration.setRetryMaxAttempts(4);
+        configuration.setRetryMaxElapsed(10);
+        retrying = new RetryRequestExecutor(configuration, transport);
+    }
+
+    @Benchmark
+    public Response direct() {
+        return transport.executeRequest(request());
+    }
+
+    @Benchmark
+    public Response withRetries() {
+        return retrying.executeRequest(request());
+    }
+
+    private static Request request() {
+        QueryString query = new QueryString();
+        query.put("limit", "200");
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Accept", "application/json");
+        return new DefaultRequest(HttpMethod.GET, "https://example.okta.com/api/v1/users", query, headers);
+    }
+}
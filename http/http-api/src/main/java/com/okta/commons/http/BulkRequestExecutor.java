@@ -0,0 +1,281 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http;
+
+import com.okta.commons.lang.Assert;
+import com.okta.commons.lang.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Executes batches of independent requests with a bounded number of requests in flight.
+ * <p>
+ * Requests are run through the given {@link RequestExecutor}, typically a {@link RetryRequestExecutor}, so the
+ * configured retry policy applies to each of them.  On top of that, once a response reports the rate limit as
+ * exhausted ({@code X-Rate-Limit-Remaining: 0} or a {@code 429} status), no further request is dispatched until the
+ * {@code X-Rate-Limit-Reset} time, across all batches run by this instance.
+ * <p>
+ * A failed request does not stop the batch, its exception is collected in its {@link Result}.
+ *
+ * @since 2.0.2
+ */
+public class BulkRequestExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkRequestExecutor.class);
+
+    private static final long MIN_RATE_LIMIT_PAUSE_MILLIS = 1000;
+
+    private final RequestExecutor delegate;
+
+    private final int parallelism;
+
+    private final Executor executor;
+
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    /**
+     * Epoch millis before which no request is dispatched.
+     */
+    private final AtomicLong pausedUntil = new AtomicLong();
+
+    /**
+     * Creates a bulk executor running requests on new threads, one per concurrent request, virtual threads if
+     * supported, daemon threads otherwise.
+     *
+     * @param delegate the executor running each request
+     * @param parallelism the maximum number of requests in flight
+     */
+    public BulkRequestExecutor(RequestExecutor delegate, int parallelism) {
+        this(delegate, parallelism, null);
+    }
+
+    /**
+     * Creates a bulk executor.
+     *
+     * @param delegate the executor running each request
+     * @param parallelism the maximum number of requests in flight
+     * @param executor the executor requests are run on, or {@code null} to use new threads
+     */
+    public BulkRequestExecutor(RequestExecutor delegate, int parallelism, Executor executor) {
+        Assert.notNull(delegate, "delegate cannot be null");
+        Assert.isTrue(parallelism > 0, "parallelism must be greater than 0");
+        this.delegate = delegate;
+        this.parallelism = parallelism;
+        this.executor = executor != null ? executor : this::newThread;
+    }
+
+    /**
+     * Executes the given requests, waiting for all of them to complete.
+     *
+     * @param requests the requests to execute
+     * @return the results, in the order of the given requests
+     * @throws HttpException if interrupted while waiting
+     */
+    public List<Result> executeAll(Collection<? extends Request> requests) throws HttpException {
+        return executeAll(requests, result -> { });
+    }
+
+    /**
+     * Executes the given requests, passing each result to the given listener as soon as it completes.  The listener
+     * is invoked on the calling thread, one result at a time.  If the listener throws, no further request is
+     * dispatched and the exception is propagated, requests already in flight complete in the background.
+     *
+     * @param requests the requests to execute
+     * @param listener notified of each result, in completion order
+     * @return the results, in the order of the given requests
+     * @throws HttpException if interrupted while waiting
+     */
+    public List<Result> executeAll(Collection<? extends Request> requests, Consumer<? super Result> listener) throws HttpException {
+        Assert.notNull(requests, "requests cannot be null");
+        Assert.notNull(listener, "listener cannot be null");
+
+        Batch batch = new Batch(requests.toArray(new Request[0]));
+        int size = batch.requests.length;
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+
+        Result[] results = new Result[size];
+        try {
+            startWorkers(batch, Math.min(parallelism, size));
+
+            for (int completed = 0; completed < size; completed++) {
+                Result result = batch.completed.take();
+                results[result.index] = result;
+                listener.accept(result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HttpException("Interrupted while executing bulk requests", e);
+        } finally {
+            batch.cancelled = true;
+        }
+        return Collections.unmodifiableList(Arrays.asList(results));
+    }
+
+    private void startWorkers(Batch batch, int workers) {
+        for (int i = 0; i < workers; i++) {
+            try {
+                executor.execute(batch::run);
+            } catch (RejectedExecutionException e) {
+                if (i == 0) {
+                    // nothing can run in the background, run the whole batch on the calling thread
+                    log.debug("Bulk request worker rejected, running requests on the calling thread");
+                    batch.run();
+                }
+                return;
+            }
+        }
+    }
+
+    private void newThread(Runnable runnable) {
+        VirtualThreads.start("okta-bulk-request-" + threadCount.incrementAndGet(), runnable);
+    }
+
+    private void awaitRateLimit() {
+        long delay;
+        while ((delay = pausedUntil.get() - System.currentTimeMillis()) > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new HttpException("Interrupted while waiting for the rate limit to reset", e);
+            }
+        }
+    }
+
+    private void updateRateLimit(Response response) {
+        HttpHeaders headers = response.getHeaders();
+        String remaining = headers.getFirst("X-Rate-Limit-Remaining");
+        if (response.getHttpStatus() != 429 && !"0".equals(Strings.trimWhitespace(remaining))) {
+            return;
+        }
+
+        long delay = MIN_RATE_LIMIT_PAUSE_MILLIS;
+        String reset = Strings.trimWhitespace(headers.getFirst("X-Rate-Limit-Reset"));
+        long date = headers.getDate();
+        if (reset != null && !reset.isEmpty() && reset.chars().allMatch(Character::isDigit) && date > 0) {
+            // same computation as RetryRequestExecutor, relative to the server's clock
+            delay = Math.max(Long.parseLong(reset) * 1000L - date + 1000, MIN_RATE_LIMIT_PAUSE_MILLIS);
+        }
+        log.debug("Rate limit exhausted, pausing bulk requests for {}ms", delay);
+        pausedUntil.accumulateAndGet(System.currentTimeMillis() + delay, Math::max);
+    }
+
+    private final class Batch {
+
+        private final Request[] requests;
+
+        private final AtomicInteger next = new AtomicInteger();
+
+        private final BlockingQueue<Result> completed = new LinkedBlockingQueue<>();
+
+        private volatile boolean cancelled;
+
+        private Batch(Request[] requests) {
+            this.requests = requests;
+        }
+
+        private void run() {
+            int index;
+            while (!cancelled && (index = next.getAndIncrement()) < requests.length) {
+                Request request = requests[index];
+                Result result;
+                try {
+                    awaitRateLimit();
+                    Response response = delegate.executeRequest(request);
+                    updateRateLimit(response);
+                    result = new Result(index, request, response, null);
+                } catch (RuntimeException e) {
+                    result = new Result(index, request, null, e);
+                } catch (Throwable e) { // NOPMD - every request must produce a result, or executeAll never returns
+                    result = new Result(index, request, null, new HttpException("Unable to execute HTTP request: " + e, e));
+                }
+                completed.add(result);
+            }
+        }
+    }
+
+    /**
+     * The outcome of one request of a batch: either a response (of any status) or the exception the request failed
+     * with.
+     */
+    public static final class Result {
+
+        private final int index;
+
+        private final Request request;
+
+        private final Response response;
+
+        private final RuntimeException exception;
+
+        Result(int index, Request request, Response response, RuntimeException exception) {
+            this.index = index;
+            this.request = request;
+            this.response = response;
+            this.exception = exception;
+        }
+
+        /**
+         * Returns the position of the request in the batch.
+         *
+         * @return the position of the request in the batch
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public Request getRequest() {
+            return request;
+        }
+
+        /**
+         * Returns the response, or {@code null} if the request failed.
+         *
+         * @return the response, or {@code null} if the request failed
+         */
+        public Response getResponse() {
+            return response;
+        }
+
+        /**
+         * Returns the exception the request failed with, or {@code null} if a response was received.  Errors and
+         * checked exceptions thrown by the delegate are wrapped in an {@link HttpException}.
+         *
+         * @return the exception the request failed with, or {@code null}
+         */
+        public RuntimeException getException() {
+            return exception;
+        }
+
+        public boolean isSuccessful() {
+            return exception == null;
+        }
+    }
+}
@@ -16,8 +16,6 @@
  */
 package com.okta.commons.http;
 
-import com.okta.commons.lang.Strings;
-
 import java.io.InputStream;
 import java.net.URI;
 
@@ -47,10 +45,12 @@ public class DefaultRequest extends AbstractHttpMessage implements Request {
     public DefaultRequest(HttpMethod method, String href, QueryString query, HttpHeaders headers, InputStream body, long contentLength) {
         this.method = method;
 
-        String[] split = Strings.split(href, "?");
-        if (split != null) {
-            this.resourceUrl = URI.create(split[0]);
-            this.queryString = QueryString.create(split[1]);
+        int queryStart = href.indexOf('?');
+        if (queryStart >= 0) {
+            this.resourceUrl = URI.create(href.substring(0, queryStart));
+            // parse the query string in place, without splitting the href first
+            this.queryString = new QueryString();
+            QueryString.parse(href, queryStart + 1, href.length(), this.queryString);
             if (query != null && !query.isEmpty()) {
                 this.queryString.putAll(query);
             }
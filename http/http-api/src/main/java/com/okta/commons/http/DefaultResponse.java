@@ -16,6 +16,8 @@
  */
 package com.okta.commons.http;
 
+import com.okta.commons.lang.Assert;
+
 import java.io.InputStream;
 
 /**
@@ -35,6 +37,31 @@ public class DefaultResponse extends AbstractHttpMessage implements Response {
         this.headers.setContentLength(contentLength);
     }
 
+    private DefaultResponse(int httpStatus, HttpHeaders headers, InputStream body) {
+        this.httpStatus = httpStatus;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    /**
+     * Creates a response that uses the given headers as is, rather than copying them.  The {@code Content-Length}
+     * header is set from {@code contentLength} only if the headers do not already contain one.
+     *
+     * @param httpStatus the HTTP status code
+     * @param headers the response headers
+     * @param body the response body, may be {@code null}
+     * @param contentLength the length of the body, or a negative value if unknown
+     * @return the response
+     * @since 2.0.2
+     */
+    public static DefaultResponse withHeaders(int httpStatus, HttpHeaders headers, InputStream body, long contentLength) {
+        Assert.notNull(headers, "headers cannot be null");
+        if (contentLength >= 0 && !headers.containsKey("Content-Length")) {
+            headers.setContentLength(contentLength);
+        }
+        return new DefaultResponse(httpStatus, headers, body);
+    }
+
     @Override
     public int getHttpStatus() {
         return httpStatus;
@@ -0,0 +1,483 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http;
+
+import com.okta.commons.lang.Assert;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * {@link RequestExecutor} decorator injecting faults: latency, socket timeouts, connection resets, error responses
+ * and truncated bodies, to test how callers and {@link RetryRequestExecutor} degrade under partial failure.  Meant
+ * to wrap a transport executor, below any {@code RetryRequestExecutor}, so injected failures look like real ones:
+ * <pre>
+ * RequestExecutor executor = new RetryRequestExecutor(configuration,
+ *     new FaultInjectingRequestExecutor(transport)
+ *         .addFault(Fault.logNormalLatency(Duration.ofMillis(50), Duration.ofMillis(800)), 1.0)
+ *         .addFault(Fault.status(503), 0.05)
+ *         .addFault(Fault.status(429), 0.5, "/api/v1/users.*", Duration.ofMinutes(1), Duration.ofSeconds(10)));
+ * </pre>
+ * For each request, every fault whose path pattern matches and whose schedule is active is injected with its
+ * probability.  Latencies add up, the first socket timeout, connection reset or error status injected replaces the
+ * call to the delegate, the first truncation applies to the delegate's response.
+ *
+ * @since 2.0.2
+ */
+public class FaultInjectingRequestExecutor implements RequestExecutor {
+
+    private final RequestExecutor delegate;
+
+    private final Random random;
+
+    private final LongSupplier nanoClock;
+
+    private final long startNanos;
+
+    private final List<Rule> rules = new CopyOnWriteArrayList<>();
+
+    public FaultInjectingRequestExecutor(RequestExecutor delegate) {
+        this(delegate, new Random(), System::nanoTime);
+    }
+
+    /**
+     * Creates a decorator drawing faults from a seeded random generator, for reproducible runs.
+     *
+     * @param delegate the executor to inject faults in front of
+     * @param seed the random seed
+     */
+    public FaultInjectingRequestExecutor(RequestExecutor delegate, long seed) {
+        this(delegate, new Random(seed), System::nanoTime);
+    }
+
+    FaultInjectingRequestExecutor(RequestExecutor delegate, Random random, LongSupplier nanoClock) {
+        Assert.notNull(delegate, "delegate cannot be null");
+        this.delegate = delegate;
+        this.random = random;
+        this.nanoClock = nanoClock;
+        this.startNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Injects the given fault into requests with the given probability.
+     *
+     * @param fault the fault to inject
+     * @param probability the probability to inject the fault, between 0 and 1
+     * @return this executor
+     */
+    public FaultInjectingRequestExecutor addFault(Fault fault, double probability) {
+        return addFault(fault, probability, null, null, null);
+    }
+
+    /**
+     * Injects the given fault into requests whose URL path matches the given regular expression.
+     *
+     * @param fault the fault to inject
+     * @param probability the probability to inject the fault, between 0 and 1
+     * @param pathPattern a regular expression matching the whole path, or {@code null} to match all requests
+     * @return this executor
+     */
+    public FaultInjectingRequestExecutor addFault(Fault fault, double probability, String pathPattern) {
+        return addFault(fault, probability, pathPattern, null, null);
+    }
+
+    /**
+     * Injects the given fault during the first {@code activeFor} of every {@code period} since this executor was
+     * created, e.g. a 10 second incident every minute.
+     *
+     * @param fault the fault to inject
+     * @param probability the probability to inject the fault, between 0 and 1
+     * @param pathPattern a regular expression matching the whole path, or {@code null} to match all requests
+     * @param period the schedule period, or {@code null} to always inject
+     * @param activeFor how long the fault is injected at the start of each period
+     * @return this executor
+     */
+    public FaultInjectingRequestExecutor addFault(Fault fault,
+                                                  double probability,
+                                                  String pathPattern,
+                                                  Duration period,
+                                                  Duration activeFor) {
+        Assert.notNull(fault, "fault cannot be null");
+        Assert.isTrue(probability >= 0 && probability <= 1, "probability must be between 0 and 1");
+        Assert.isTrue(period == null || activeFor != null, "activeFor is required with a period");
+        rules.add(new Rule(fault,
+                           probability,
+                           pathPattern != null ? Pattern.compile(pathPattern) : null,
+                           period != null ? period.toNanos() : 0,
+                           activeFor != null ? activeFor.toNanos() : 0));
+        return this;
+    }
+
+    @Override
+    public Response executeRequest(Request request) throws HttpException {
+        String path = request.getResourceUrl().getPath();
+        long elapsed = nanoClock.getAsLong() - startNanos;
+
+        long delayNanos = 0;
+        Fault terminal = null;
+        Fault truncation = null;
+        for (Rule rule : rules) {
+            if (!rule.applies(path, elapsed) || !draw(rule.probability)) {
+                continue;
+            }
+            Fault fault = rule.fault;
+            switch (fault.type) {
+                case LATENCY:
+                    delayNanos += fault.latencyNanos(this);
+                    fault.injected.incrementAndGet();
+                    break;
+                case TRUNCATED_BODY:
+                case TRUNCATED_TRANSFER:
+                    truncation = truncation != null ? truncation : fault;
+                    break;
+                default:
+                    terminal = terminal != null ? terminal : fault;
+            }
+        }
+
+        // only the first terminal fault is applied, and it replaces the response a truncation would apply to
+        sleep(delayNanos);
+        if (terminal != null) {
+            terminal.injected.incrementAndGet();
+            return inject(terminal);
+        }
+
+        Response response = delegate.executeRequest(request);
+        if (truncation == null || response.getBody() == null) {
+            return response;
+        }
+        truncation.injected.incrementAndGet();
+        if (truncation.type == Fault.Type.TRUNCATED_TRANSFER) {
+            closeQuietly(response.getBody());
+            throw new HttpException("Unable to execute HTTP request - retryable exception: Connection reset",
+                                    new SocketException("Connection reset (injected)"), true);
+        }
+        return truncate(response, truncation.fraction);
+    }
+
+    private Response inject(Fault fault) {
+        switch (fault.type) {
+            case SOCKET_TIMEOUT:
+                sleep(fault.nanos);
+                throw new HttpException("Unable to execute HTTP request - retryable exception: Read timed out",
+                                        new SocketTimeoutException("Read timed out (injected)"), true);
+            case CONNECTION_RESET:
+                throw new HttpException("Unable to execute HTTP request - retryable exception: Connection reset",
+                                        new SocketException("Connection reset (injected)"), true);
+            default:
+                return errorResponse(fault.status);
+        }
+    }
+
+    private static Response errorResponse(int status) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        long now = System.currentTimeMillis();
+        headers.setDate(now);
+        if (status == 429) {
+            headers.set("X-Rate-Limit-Limit", "600");
+            headers.set("X-Rate-Limit-Remaining", "0");
+            headers.set("X-Rate-Limit-Reset", Long.toString(TimeUnit.MILLISECONDS.toSeconds(now) + 1));
+        }
+        byte[] body = ("{\"errorCode\":\"" + (status == 429 ? "E0000047" : "E0000009")
+                + "\",\"errorSummary\":\"Injected " + status + " response\",\"errorCauses\":[]}").getBytes(StandardCharsets.UTF_8);
+        return DefaultResponse.withHeaders(status, headers, new ByteArrayInputStream(body), body.length);
+    }
+
+    private static Response truncate(Response response, double fraction) {
+        byte[] content;
+        try (InputStream in = response.getBody()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            content = out.toByteArray();
+        } catch (IOException e) {
+            throw new HttpException(e.getMessage(), e);
+        }
+        // keeps the original Content-Length, as a connection dropped mid-body would
+        return DefaultResponse.withHeaders(response.getHttpStatus(),
+                                           response.getHeaders(),
+                                           new TruncatedInputStream(content, (int) (content.length * fraction)),
+                                           content.length);
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException ignored) { // NOPMD
+        }
+    }
+
+    private boolean draw(double probability) {
+        return probability >= 1 || random.nextDouble() < probability;
+    }
+
+    private static void sleep(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HttpException(e.getMessage(), e);
+        }
+    }
+
+    private static final class Rule {
+
+        private final Fault fault;
+
+        private final double probability;
+
+        private final Pattern pathPattern;
+
+        private final long periodNanos;
+
+        private final long activeNanos;
+
+        private Rule(Fault fault, double probability, Pattern pathPattern, long periodNanos, long activeNanos) {
+            this.fault = fault;
+            this.probability = probability;
+            this.pathPattern = pathPattern;
+            this.periodNanos = periodNanos;
+            this.activeNanos = activeNanos;
+        }
+
+        private boolean applies(String path, long elapsedNanos) {
+            return (periodNanos <= 0 || elapsedNanos % periodNanos < activeNanos)
+                && (pathPattern == null || pathPattern.matcher(path).matches());
+        }
+    }
+
+    /**
+     * Returns the first bytes of a body, then fails as a prematurely closed connection would.
+     */
+    private static final class TruncatedInputStream extends InputStream {
+
+        private final byte[] content;
+
+        private final int length;
+
+        private int position;
+
+        private TruncatedInputStream(byte[] content, int length) {
+            this.content = content;
+            this.length = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position >= length) {
+                throw prematureEnd();
+            }
+            return content[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= length) {
+                throw prematureEnd();
+            }
+            int read = Math.min(len, length - position);
+            System.arraycopy(content, position, b, off, read);
+            position += read;
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return length - position;
+        }
+
+        private IOException prematureEnd() {
+            return new IOException("Premature end of Content-Length delimited message body (expected: "
+                    + content.length + "; received: " + length + ") (injected)");
+        }
+    }
+
+    /**
+     * A fault to inject, see the static factory methods.
+     */
+    public static final class Fault {
+
+        /**
+         * z-score of the 99th percentile of a normal distribution.
+         */
+        private static final double Z_99 = 2.3263;
+
+        private enum Type { LATENCY, SOCKET_TIMEOUT, CONNECTION_RESET, STATUS, TRUNCATED_BODY, TRUNCATED_TRANSFER }
+
+        private final Type type;
+
+        private final long nanos;
+
+        private final long maxNanos;
+
+        private final double sigma;
+
+        private final int status;
+
+        private final double fraction;
+
+        private final AtomicLong injected = new AtomicLong();
+
+        private Fault(Type type, long nanos, long maxNanos, double sigma, int status, double fraction) {
+            this.type = type;
+            this.nanos = nanos;
+            this.maxNanos = maxNanos;
+            this.sigma = sigma;
+            this.status = status;
+            this.fraction = fraction;
+        }
+
+        /**
+         * Delays requests by a fixed latency.
+         *
+         * @param latency the delay
+         * @return the fault
+         */
+        public static Fault latency(Duration latency) {
+            return latency(latency, latency);
+        }
+
+        /**
+         * Delays requests by a latency uniformly distributed between {@code min} and {@code max}.
+         *
+         * @param min the minimum delay
+         * @param max the maximum delay
+         * @return the fault
+         */
+        public static Fault latency(Duration min, Duration max) {
+            Assert.isTrue(min.compareTo(max) <= 0, "min cannot be greater than max");
+            return new Fault(Type.LATENCY, min.toNanos(), max.toNanos(), 0, 0, 0);
+        }
+
+        /**
+         * Delays requests by a log-normally distributed latency, the usual shape of service latencies with a long
+         * tail.
+         *
+         * @param median the median delay
+         * @param p99 the 99th percentile delay
+         * @return the fault
+         */
+        public static Fault logNormalLatency(Duration median, Duration p99) {
+            Assert.isTrue(!median.isNegative() && !median.isZero(), "median must be positive");
+            Assert.isTrue(p99.compareTo(median) >= 0, "p99 cannot be less than the median");
+            double sigma = Math.log((double) p99.toNanos() / median.toNanos()) / Z_99;
+            return new Fault(Type.LATENCY, median.toNanos(), 0, sigma, 0, 0);
+        }
+
+        /**
+         * Fails requests with a retryable socket timeout after the given delay, without calling the delegate.
+         *
+         * @param after how long the request hangs before timing out
+         * @return the fault
+         */
+        public static Fault socketTimeout(Duration after) {
+            return new Fault(Type.SOCKET_TIMEOUT, after.toNanos(), 0, 0, 0, 0);
+        }
+
+        /**
+         * Fails requests with a retryable connection reset, without calling the delegate.
+         *
+         * @return the fault
+         */
+        public static Fault connectionReset() {
+            return new Fault(Type.CONNECTION_RESET, 0, 0, 0, 0, 0);
+        }
+
+        /**
+         * Answers requests with an Okta error response of the given status, e.g. {@code 429}, {@code 503} or
+         * {@code 504}, without calling the delegate.  {@code 429} responses carry rate limit headers resetting within
+         * a second.
+         *
+         * @param status the HTTP status
+         * @return the fault
+         */
+        public static Fault status(int status) {
+            Assert.isTrue(status >= 400 && status < 600, "status must be an HTTP error status");
+            return new Fault(Type.STATUS, 0, 0, 0, status, 0);
+        }
+
+        /**
+         * Cuts the delegate's response body after the given fraction of its length, reading past it fails.
+         * <p>
+         * The failure is an {@link IOException} thrown to whoever reads the body, after
+         * {@link FaultInjectingRequestExecutor#executeRequest(Request)} returned, so {@link RetryRequestExecutor} never sees it.  This is how a
+         * streamed body fails; the bundled transports buffer bodies, a connection dropped mid-body fails the request
+         * itself, see {@link #truncatedTransfer()}.
+         *
+         * @param fraction the fraction of the body kept, between 0 and 1
+         * @return the fault
+         */
+        public static Fault truncatedBody(double fraction) {
+            Assert.isTrue(fraction >= 0 && fraction < 1, "fraction must be between 0 and 1 (exclusive)");
+            return new Fault(Type.TRUNCATED_BODY, 0, 0, 0, 0, fraction);
+        }
+
+        /**
+         * Calls the delegate, then fails the request with a retryable connection reset instead of returning its
+         * response, as a transport buffering the body does when the connection drops mid-body.  Unlike
+         * {@link #connectionReset()}, the request reaches the delegate, e.g. to test retries of requests that are
+         * not idempotent.
+         *
+         * @return the fault
+         */
+        public static Fault truncatedTransfer() {
+            return new Fault(Type.TRUNCATED_TRANSFER, 0, 0, 0, 0, 0);
+        }
+
+        /**
+         * Returns how many times this fault was applied to a request.  A fault that is drawn but superseded, e.g. by
+         * an earlier terminal fault, is not counted.
+         *
+         * @return the number of injections
+         */
+        public long getInjectedCount() {
+            return injected.get();
+        }
+
+        private long latencyNanos(FaultInjectingRequestExecutor executor) {
+            if (sigma > 0) {
+                return (long) (nanos * Math.exp(sigma * executor.random.nextGaussian()));
+            }
+            if (maxNanos > nanos) {
+                return nanos + (long) (executor.random.nextDouble() * (maxNanos - nanos));
+            }
+            return nanos;
+        }
+    }
+}
@@ -36,6 +36,8 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -95,8 +97,18 @@ public class HttpHeaders implements MultiValueMap<String, String> {
 
     private final static TimeZone GMT = TimeZone.getTimeZone("GMT");
 
-    private final Map<String, List<String>> headers;
+    /**
+     * The headers, either a modifiable map or a {@link NameValueHeaderMap} view replaced with a copy on the first
+     * modification, see {@link #writableHeaders()}.
+     */
+    private Map<String, List<String>> headers;
 
+    /**
+     * One journal per active {@link #mark()}, innermost last, modifications are recorded while it is not empty.  Each
+     * journal holds the values headers had when marked, for headers modified since then ({@code null} for headers
+     * that did not exist), and is lazily created on the first modification.
+     */
+    private List<Map<String, List<String>>> marks;
 
     /**
      * Private constructor that can create read-only {@code HttpHeader} instances.
@@ -132,6 +144,24 @@ public class HttpHeaders implements MultiValueMap<String, String> {
         return new HttpHeaders(headers, true);
     }
 
+    /**
+     * Returns {@code HttpHeaders} backed by headers an HTTP client holds as indexed name/value pairs, e.g.
+     * {@code okhttp3.Headers} or an Apache {@code Header[]}.  Reads are served from the pairs in place, they are
+     * copied only when the returned headers are first modified (or their {@link #keySet()}, {@link #values()} or
+     * {@link #entrySet()} views are accessed).  Lists returned by {@link #get(Object)} before that are read-only.
+     *
+     * @param size the number of name/value pairs
+     * @param names returns the name of the pair at the given index
+     * @param values returns the value of the pair at the given index
+     * @return headers backed by the given name/value pairs
+     * @since 2.0.2
+     */
+    public static HttpHeaders fromNameValuePairs(int size, IntFunction<String> names, IntFunction<String> values) {
+        Assert.notNull(names, "'names' must not be null");
+        Assert.notNull(values, "'values' must not be null");
+        return new HttpHeaders(new NameValueHeaderMap(size, names, values), false);
+    }
+
     /**
      * Set the list of acceptable {@linkplain MediaType media types}, as specified by the {@code Accept} header.
      *
@@ -179,19 +209,13 @@ public class HttpHeaders implements MultiValueMap<String, String> {
         List<Charset> result = new ArrayList<Charset>();
         String value = getFirst(ACCEPT_CHARSET);
         if (value != null) {
-            String[] tokens = value.split(",\\s*");
-            for (String token : tokens) {
-                int paramIdx = token.indexOf(';');
-                String charsetName;
-                if (paramIdx == -1) {
-                    charsetName = token;
-                } else {
-                    charsetName = token.substring(0, paramIdx);
-                }
+            Strings.forEachToken(value, ",", true, true, (source, start, end) -> {
+                int paramIdx = value.indexOf(';', start);
+                String charsetName = value.substring(start, paramIdx == -1 || paramIdx > end ? end : paramIdx);
                 if (!charsetName.equals("*")) {
                     result.add(Charset.forName(charsetName));
                 }
-            }
+            });
         }
         return result;
     }
@@ -214,12 +238,10 @@ public class HttpHeaders implements MultiValueMap<String, String> {
     public Set<HttpMethod> getAllow() {
         String value = getFirst(ALLOW);
         if (value != null) {
-            List<HttpMethod> allowedMethod = new ArrayList<HttpMethod>(5);
-            String[] tokens = value.split(",\\s*");
-            for (String token : tokens) {
-                allowedMethod.add(HttpMethod.valueOf(token));
-            }
-            return EnumSet.copyOf(allowedMethod);
+            Set<HttpMethod> allowedMethods = EnumSet.noneOf(HttpMethod.class);
+            Strings.forEachToken(value, ",", true, true,
+                (source, start, end) -> allowedMethods.add(HttpMethod.valueOf(value.substring(start, end))));
+            return allowedMethods;
         } else {
             return EnumSet.noneOf(HttpMethod.class);
         }
@@ -431,8 +453,7 @@ public class HttpHeaders implements MultiValueMap<String, String> {
 
         String value = getFirst(IF_NONE_MATCH);
         if (value != null) {
-            String[] tokens = value.split(",\\s*");
-            Collections.addAll(result, tokens);
+            Strings.forEachToken(value, ",", true, true, (source, start, end) -> result.add(value.substring(start, end)));
         }
         return result;
     }
@@ -579,10 +600,14 @@ public class HttpHeaders implements MultiValueMap<String, String> {
      * @see #set(String, String)
      */
     public void add(String headerName, String headerValue) {
-        List<String> headerValues = headers.get(headerName);
+        List<String> headerValues = writableHeaders().get(headerName);
         if (headerValues == null) {
             headerValues = new LinkedList<String>();
-            this.headers.put(headerName, headerValues);
+            put(headerName, headerValues);
+        } else if (isMarkedValue(headerName, headerValues)) {
+            // never modify a list that reset() will restore
+            headerValues = new LinkedList<String>(headerValues);
+            put(headerName, headerValues);
         }
         headerValues.add(headerValue);
     }
@@ -599,7 +624,7 @@ public class HttpHeaders implements MultiValueMap<String, String> {
     public void set(String headerName, String headerValue) {
         List<String> headerValues = new LinkedList<String>();
         headerValues.add(headerValue);
-        headers.put(headerName, headerValues);
+        put(headerName, headerValues);
     }
 
     public void setAll(Map<String, String> values) {
@@ -616,6 +641,25 @@ public class HttpHeaders implements MultiValueMap<String, String> {
         return singleValueMap;
     }
 
+    /**
+     * Performs the given action for each header value, a header with several values is passed to the action once per
+     * value.  Unlike {@link #toSingleValueMap()} this creates no intermediate collections.
+     *
+     * @param action the action to perform
+     * @since 2.0.2
+     */
+    public void forEachValue(BiConsumer<? super String, ? super String> action) {
+        if (this.headers instanceof NameValueHeaderMap) {
+            ((NameValueHeaderMap) this.headers).forEachPair(action);
+        } else {
+            for (Map.Entry<String, List<String>> entry : this.headers.entrySet()) {
+                for (String value : entry.getValue()) {
+                    action.accept(entry.getKey(), value);
+                }
+            }
+        }
+    }
+
     public Map<String, List<String>> getXHeaders() {
         return this.headers.entrySet().stream()
                 .filter(e -> e.getKey().toLowerCase(Locale.ENGLISH).startsWith("x-"))
@@ -648,31 +692,144 @@ public class HttpHeaders implements MultiValueMap<String, String> {
     }
 
     public List<String> put(String key, List<String> value) {
-        return this.headers.put(key, value);
+        Map<String, List<String>> map = writableHeaders();
+        recordModification(key);
+        return map.put(key, value);
     }
 
     public List<String> remove(Object key) {
-        return this.headers.remove(key);
+        Map<String, List<String>> map = writableHeaders();
+        if (key instanceof String) {
+            recordModification((String) key);
+        }
+        return map.remove(key);
     }
 
     public void putAll(Map<? extends String, ? extends List<String>> m) {
-        this.headers.putAll(m);
+        Map<String, List<String>> map = writableHeaders();
+        if (isMarked()) {
+            m.keySet().forEach(this::recordModification);
+        }
+        map.putAll(m);
     }
 
     public void clear() {
-        this.headers.clear();
+        if (this.headers instanceof NameValueHeaderMap && !isMarked()) {
+            // nothing to copy
+            this.headers = new LinkedCaseInsensitiveMap<>(8, Locale.ENGLISH);
+            return;
+        }
+        Map<String, List<String>> map = writableHeaders();
+        if (isMarked()) {
+            map.keySet().forEach(this::recordModification);
+        }
+        map.clear();
+    }
+
+    /**
+     * Returns the modifiable headers map, replacing a {@link NameValueHeaderMap} view with a copy first.
+     */
+    private Map<String, List<String>> writableHeaders() {
+        if (this.headers instanceof NameValueHeaderMap) {
+            this.headers = ((NameValueHeaderMap) this.headers).copy();
+        }
+        return this.headers;
+    }
+
+    // Mark / reset
+
+    /**
+     * Marks the current state of these headers, subsequent calls to {@link #reset()} restore it.  Rather than copying
+     * all headers, only the previous values of headers modified after this call are retained.
+     * <p>
+     * Marks nest: while marked, {@code mark()} pushes a new mark, and {@link #unmark()} returns to the previous one,
+     * e.g. when a retrying executor delegates to another one.
+     * <p>
+     * Modifications made through the {@link #keySet()}, {@link #values()} and {@link #entrySet()} views, or to the
+     * value lists returned by {@link #get(Object)}, are not tracked.
+     */
+    void mark() {
+        if (marks == null) {
+            marks = new ArrayList<>(2);
+        }
+        marks.add(null);
+    }
+
+    /**
+     * Restores the state these headers had when {@link #mark()} was last called, the mark is kept so that this
+     * method may be called again after further modifications.  Does nothing if these headers are not marked.
+     */
+    void reset() {
+        int innermost = marks != null ? marks.size() - 1 : -1;
+        Map<String, List<String>> markedValues = innermost >= 0 ? marks.get(innermost) : null;
+        if (markedValues != null) {
+            // outer marks recorded the same headers when they were modified, restoring them needs no recording
+            for (Map.Entry<String, List<String>> entry : markedValues.entrySet()) {
+                if (entry.getValue() == null) {
+                    this.headers.remove(entry.getKey());
+                } else {
+                    this.headers.put(entry.getKey(), entry.getValue());
+                }
+            }
+            marks.set(innermost, null);
+        }
+    }
+
+    /**
+     * Discards the innermost mark, if any.  Modifications are no longer tracked once no mark is left.
+     */
+    void unmark() {
+        if (isMarked()) {
+            marks.remove(marks.size() - 1);
+        }
+    }
+
+    private boolean isMarked() {
+        return marks != null && !marks.isEmpty();
+    }
+
+    private void recordModification(String headerName) {
+        if (marks != null) {
+            for (int i = 0; i < marks.size(); i++) {
+                Map<String, List<String>> markedValues = marks.get(i);
+                if (markedValues == null) {
+                    markedValues = new LinkedCaseInsensitiveMap<>(4, Locale.ENGLISH);
+                    marks.set(i, markedValues);
+                }
+                if (!markedValues.containsKey(headerName)) {
+                    markedValues.put(headerName, this.headers.get(headerName));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether the given value list is, or will be on its next modification, retained by a mark, in which case
+     * it must not be modified in place.
+     */
+    private boolean isMarkedValue(String headerName, List<String> headerValues) {
+        if (marks != null) {
+            for (Map<String, List<String>> markedValues : marks) {
+                if (markedValues == null
+                    || !markedValues.containsKey(headerName)
+                    || markedValues.get(headerName) == headerValues) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
     public Set<String> keySet() {
-        return this.headers.keySet();
+        return writableHeaders().keySet();
     }
 
     public Collection<List<String>> values() {
-        return this.headers.values();
+        return writableHeaders().values();
     }
 
     public Set<Map.Entry<String, List<String>>> entrySet() {
-        return this.headers.entrySet();
+        return writableHeaders().entrySet();
     }
 
     @Override
@@ -49,6 +49,10 @@ public class MediaType extends MimeType implements Serializable {
 
     private static final long serialVersionUID = 2069937152339670231L;
 
+    private static final int CACHE_SIZE = 64;
+
+    private static final MimeTypeCache<MediaType> CACHE = new MimeTypeCache<>(CACHE_SIZE, MediaType::parse);
+
     /**
      * Public constant media type that includes all media ranges (i.e. "&#42;/&#42;").
      */
@@ -308,29 +312,29 @@ public class MediaType extends MimeType implements Serializable {
 
 
     static {
-        ALL = valueOf(ALL_VALUE);
-        APPLICATION_ATOM_XML = valueOf(APPLICATION_ATOM_XML_VALUE);
-        APPLICATION_FORM_URLENCODED = valueOf(APPLICATION_FORM_URLENCODED_VALUE);
-        APPLICATION_JSON = valueOf(APPLICATION_JSON_VALUE);
-        APPLICATION_JSON_UTF8 = valueOf(APPLICATION_JSON_UTF8_VALUE);
-        APPLICATION_OCTET_STREAM = valueOf(APPLICATION_OCTET_STREAM_VALUE);
-        APPLICATION_PDF = valueOf(APPLICATION_PDF_VALUE);
-        APPLICATION_PROBLEM_JSON = valueOf(APPLICATION_PROBLEM_JSON_VALUE);
-        APPLICATION_PROBLEM_JSON_UTF8 = valueOf(APPLICATION_PROBLEM_JSON_UTF8_VALUE);
-        APPLICATION_PROBLEM_XML = valueOf(APPLICATION_PROBLEM_XML_VALUE);
-        APPLICATION_RSS_XML = valueOf(APPLICATION_RSS_XML_VALUE);
-        APPLICATION_STREAM_JSON = valueOf(APPLICATION_STREAM_JSON_VALUE);
-        APPLICATION_XHTML_XML = valueOf(APPLICATION_XHTML_XML_VALUE);
-        APPLICATION_XML = valueOf(APPLICATION_XML_VALUE);
-        IMAGE_GIF = valueOf(IMAGE_GIF_VALUE);
-        IMAGE_JPEG = valueOf(IMAGE_JPEG_VALUE);
-        IMAGE_PNG = valueOf(IMAGE_PNG_VALUE);
-        MULTIPART_FORM_DATA = valueOf(MULTIPART_FORM_DATA_VALUE);
-        TEXT_EVENT_STREAM = valueOf(TEXT_EVENT_STREAM_VALUE);
-        TEXT_HTML = valueOf(TEXT_HTML_VALUE);
-        TEXT_MARKDOWN = valueOf(TEXT_MARKDOWN_VALUE);
-        TEXT_PLAIN = valueOf(TEXT_PLAIN_VALUE);
-        TEXT_XML = valueOf(TEXT_XML_VALUE);
+        ALL = CACHE.register(valueOf(ALL_VALUE));
+        APPLICATION_ATOM_XML = CACHE.register(valueOf(APPLICATION_ATOM_XML_VALUE));
+        APPLICATION_FORM_URLENCODED = CACHE.register(valueOf(APPLICATION_FORM_URLENCODED_VALUE));
+        APPLICATION_JSON = CACHE.register(valueOf(APPLICATION_JSON_VALUE));
+        APPLICATION_JSON_UTF8 = CACHE.register(valueOf(APPLICATION_JSON_UTF8_VALUE));
+        APPLICATION_OCTET_STREAM = CACHE.register(valueOf(APPLICATION_OCTET_STREAM_VALUE));
+        APPLICATION_PDF = CACHE.register(valueOf(APPLICATION_PDF_VALUE));
+        APPLICATION_PROBLEM_JSON = CACHE.register(valueOf(APPLICATION_PROBLEM_JSON_VALUE));
+        APPLICATION_PROBLEM_JSON_UTF8 = CACHE.register(valueOf(APPLICATION_PROBLEM_JSON_UTF8_VALUE));
+        APPLICATION_PROBLEM_XML = CACHE.register(valueOf(APPLICATION_PROBLEM_XML_VALUE));
+        APPLICATION_RSS_XML = CACHE.register(valueOf(APPLICATION_RSS_XML_VALUE));
+        APPLICATION_STREAM_JSON = CACHE.register(valueOf(APPLICATION_STREAM_JSON_VALUE));
+        APPLICATION_XHTML_XML = CACHE.register(valueOf(APPLICATION_XHTML_XML_VALUE));
+        APPLICATION_XML = CACHE.register(valueOf(APPLICATION_XML_VALUE));
+        IMAGE_GIF = CACHE.register(valueOf(IMAGE_GIF_VALUE));
+        IMAGE_JPEG = CACHE.register(valueOf(IMAGE_JPEG_VALUE));
+        IMAGE_PNG = CACHE.register(valueOf(IMAGE_PNG_VALUE));
+        MULTIPART_FORM_DATA = CACHE.register(valueOf(MULTIPART_FORM_DATA_VALUE));
+        TEXT_EVENT_STREAM = CACHE.register(valueOf(TEXT_EVENT_STREAM_VALUE));
+        TEXT_HTML = CACHE.register(valueOf(TEXT_HTML_VALUE));
+        TEXT_MARKDOWN = CACHE.register(valueOf(TEXT_MARKDOWN_VALUE));
+        TEXT_PLAIN = CACHE.register(valueOf(TEXT_PLAIN_VALUE));
+        TEXT_XML = CACHE.register(valueOf(TEXT_XML_VALUE));
     }
 
 
@@ -495,14 +499,20 @@ public class MediaType extends MimeType implements Serializable {
 
     /**
      * Parse the given String into a single {@code MediaType}.
+     * <p>Recently parsed values are cached, the returned instance may be shared, e.g. parsing
+     * {@code "application/json"} returns {@link #APPLICATION_JSON}.
      * @param mediaType the string to parse
      * @return the media type
      * @throws InvalidMediaTypeException if the media type value cannot be parsed
      */
     public static MediaType parseMediaType(String mediaType) {
+        return CACHE.get(mediaType);
+    }
+
+    private static MediaType parse(String mediaType) {
         MimeType type;
         try {
-            type = MimeTypeUtils.parseMimeType(mediaType);
+            type = MimeTypeUtils.parseMimeTypeInternal(mediaType);
         }
         catch (InvalidMimeTypeException ex) {
             throw new InvalidMediaTypeException(ex);
@@ -526,11 +536,9 @@ public class MediaType extends MimeType implements Serializable {
         if (!Strings.hasLength(mediaTypes)) {
             return Collections.emptyList();
         }
-        String[] tokens = Strings.tokenizeToStringArray(mediaTypes, ",");
-        List<MediaType> result = new ArrayList<>(tokens.length);
-        for (String token : tokens) {
-            result.add(parseMediaType(token));
-        }
+        List<MediaType> result = new ArrayList<>();
+        Strings.forEachToken(mediaTypes, ",", true, true,
+            (source, start, end) -> result.add(parseMediaType(mediaTypes.substring(start, end))));
         return result;
     }
 
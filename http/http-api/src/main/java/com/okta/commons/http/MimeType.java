@@ -22,6 +22,7 @@ import com.okta.commons.lang.Objects;
 
 import java.io.Serializable;
 import java.nio.charset.Charset;
+import java.util.AbstractMap;
 import java.util.BitSet;
 import java.util.Collections;
 import java.util.Comparator;
@@ -30,6 +31,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeSet;
 
 /**
@@ -105,6 +107,10 @@ public class MimeType implements Comparable<MimeType>, Serializable {
 
     private final Map<String, String> parameters;
 
+    private transient volatile String toStringValue;
+
+    private transient int hashValue;
+
 
     /**
      * Create a new {@code MimeType} for the given primary type.
@@ -176,7 +182,16 @@ public class MimeType implements Comparable<MimeType>, Serializable {
         checkToken(subtype);
         this.type = type.toLowerCase(Locale.ENGLISH);
         this.subtype = subtype.toLowerCase(Locale.ENGLISH);
-        if (!com.okta.commons.lang.Collections.isEmpty(parameters)) {
+        if (com.okta.commons.lang.Collections.isEmpty(parameters)) {
+            this.parameters = Collections.emptyMap();
+        }
+        else if (parameters.size() == 1) {
+            // the common single parameter case (i.e. charset) does not need a full map
+            Map.Entry<String, String> entry = parameters.entrySet().iterator().next();
+            checkParameters(entry.getKey(), entry.getValue());
+            this.parameters = new SingletonParameterMap(entry.getKey(), entry.getValue());
+        }
+        else {
             Map<String, String> map = new LinkedCaseInsensitiveMap<>(parameters.size(), Locale.ENGLISH);
             for (Map.Entry<String, String> entry : parameters.entrySet()) {
                 String attribute = entry.getKey();
@@ -186,9 +201,6 @@ public class MimeType implements Comparable<MimeType>, Serializable {
             }
             this.parameters = Collections.unmodifiableMap(map);
         }
-        else {
-            this.parameters = Collections.emptyMap();
-        }
     }
 
     /**
@@ -444,17 +456,26 @@ public class MimeType implements Comparable<MimeType>, Serializable {
 
     @Override
     public int hashCode() {
-        int result = this.type.hashCode();
-        result = 31 * result + this.subtype.hashCode();
-        result = 31 * result + this.parameters.hashCode();
+        int result = this.hashValue;
+        if (result == 0) {
+            result = this.type.hashCode();
+            result = 31 * result + this.subtype.hashCode();
+            result = 31 * result + this.parameters.hashCode();
+            this.hashValue = result;
+        }
         return result;
     }
 
     @Override
     public String toString() {
-        StringBuilder builder = new StringBuilder();
-        appendTo(builder);
-        return builder.toString();
+        String value = this.toStringValue;
+        if (value == null) {
+            StringBuilder builder = new StringBuilder();
+            appendTo(builder);
+            value = builder.toString();
+            this.toStringValue = value;
+        }
+        return value;
     }
 
     protected void appendTo(StringBuilder builder) {
@@ -538,6 +559,48 @@ public class MimeType implements Comparable<MimeType>, Serializable {
     }
 
 
+    /**
+     * Read-only, case-insensitive map holding a single parameter.
+     */
+    private static final class SingletonParameterMap extends AbstractMap<String, String> implements Serializable {
+
+        private static final long serialVersionUID = -3417213962452478816L;
+
+        private final String attribute;
+
+        private final String value;
+
+        private SingletonParameterMap(String attribute, String value) {
+            this.attribute = attribute;
+            this.value = value;
+        }
+
+        @Override
+        public int size() {
+            return 1;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return false;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && this.attribute.equalsIgnoreCase((String) key);
+        }
+
+        @Override
+        public String get(Object key) {
+            return containsKey(key) ? this.value : null;
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return Collections.singleton(new SimpleImmutableEntry<>(this.attribute, this.value));
+        }
+    }
+
     public static class SpecificityComparator<T extends MimeType> implements Comparator<T>, Serializable {
 
         @Override
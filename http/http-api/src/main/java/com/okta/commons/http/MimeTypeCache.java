@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of parsed {@link MimeType} values, keyed by the raw header value.
+ * <p>
+ * Registered (canonical) instances, e.g. {@link MediaType#APPLICATION_JSON}, are returned for any value that parses
+ * to an equal type, other values are cached until the cache is full, at which point it is cleared. Values that fail
+ * to parse are never cached.
+ *
+ * @param <T> the type of values held in this cache
+ * @since 2.0.2
+ */
+final class MimeTypeCache<T extends MimeType> {
+
+    private final int maxSize;
+
+    private final Function<String, T> parser;
+
+    private final Map<String, T> cache;
+
+    private final Map<String, T> canonical = new ConcurrentHashMap<>();
+
+    MimeTypeCache(int maxSize, Function<String, T> parser) {
+        this.maxSize = maxSize;
+        this.parser = parser;
+        this.cache = new ConcurrentHashMap<>(maxSize);
+    }
+
+    T get(String value) {
+        if (value == null) {
+            return parser.apply(null);
+        }
+
+        T result = cache.get(value);
+        if (result == null) {
+            result = canonicalize(parser.apply(value));
+            if (cache.size() >= maxSize) {
+                cache.clear();
+            }
+            cache.put(value, result);
+        }
+        return result;
+    }
+
+    /**
+     * Registers the given instance as the canonical value returned for its string representation.
+     *
+     * @param type the canonical instance
+     * @return the given instance
+     */
+    T register(T type) {
+        canonical.put(type.toString(), type);
+        return type;
+    }
+
+    private T canonicalize(T type) {
+        T known = canonical.get(type.toString());
+        return type.equals(known) ? known : type;
+    }
+}
@@ -50,6 +50,11 @@ public final class MimeTypeUtils {
 
     private static final Random RND = new SecureRandom();
 
+    private static final int CACHE_SIZE = 64;
+
+    private static final MimeTypeCache<MimeType> CACHE =
+            new MimeTypeCache<>(CACHE_SIZE, MimeTypeUtils::parseMimeTypeInternal);
+
     /**
      * Comparator used by {@link #sortBySpecificity(List)}.
      */
@@ -157,27 +162,33 @@ public final class MimeTypeUtils {
 
 
     static {
-        ALL = MimeType.valueOf(ALL_VALUE);
-        APPLICATION_JSON = MimeType.valueOf(APPLICATION_JSON_VALUE);
-        APPLICATION_OCTET_STREAM = MimeType.valueOf(APPLICATION_OCTET_STREAM_VALUE);
-        APPLICATION_XML = MimeType.valueOf(APPLICATION_XML_VALUE);
-        IMAGE_GIF = MimeType.valueOf(IMAGE_GIF_VALUE);
-        IMAGE_JPEG = MimeType.valueOf(IMAGE_JPEG_VALUE);
-        IMAGE_PNG = MimeType.valueOf(IMAGE_PNG_VALUE);
-        TEXT_HTML = MimeType.valueOf(TEXT_HTML_VALUE);
-        TEXT_PLAIN = MimeType.valueOf(TEXT_PLAIN_VALUE);
-        TEXT_XML = MimeType.valueOf(TEXT_XML_VALUE);
+        ALL = CACHE.register(MimeType.valueOf(ALL_VALUE));
+        APPLICATION_JSON = CACHE.register(MimeType.valueOf(APPLICATION_JSON_VALUE));
+        APPLICATION_OCTET_STREAM = CACHE.register(MimeType.valueOf(APPLICATION_OCTET_STREAM_VALUE));
+        APPLICATION_XML = CACHE.register(MimeType.valueOf(APPLICATION_XML_VALUE));
+        IMAGE_GIF = CACHE.register(MimeType.valueOf(IMAGE_GIF_VALUE));
+        IMAGE_JPEG = CACHE.register(MimeType.valueOf(IMAGE_JPEG_VALUE));
+        IMAGE_PNG = CACHE.register(MimeType.valueOf(IMAGE_PNG_VALUE));
+        TEXT_HTML = CACHE.register(MimeType.valueOf(TEXT_HTML_VALUE));
+        TEXT_PLAIN = CACHE.register(MimeType.valueOf(TEXT_PLAIN_VALUE));
+        TEXT_XML = CACHE.register(MimeType.valueOf(TEXT_XML_VALUE));
     }
 
     private MimeTypeUtils() {}
 
     /**
      * Parse the given String into a single {@code MimeType}.
+     * <p>Recently parsed values are cached, the returned instance may be shared, e.g. parsing
+     * {@code "application/json"} returns {@link #APPLICATION_JSON}.
      * @param mimeType the string to parse
      * @return the mime type
      * @throws InvalidMimeTypeException if the string cannot be parsed
      */
     public static MimeType parseMimeType(String mimeType) {
+        return CACHE.get(mimeType);
+    }
+
+    static MimeType parseMimeTypeInternal(String mimeType) {
         if (!Strings.hasLength(mimeType)) {
             throw new InvalidMimeTypeException(mimeType, "'mimeType' must not be empty");
         }
@@ -258,11 +269,9 @@ public final class MimeTypeUtils {
         if (!Strings.hasLength(mimeTypes)) {
             return Collections.emptyList();
         }
-        String[] tokens = Strings.tokenizeToStringArray(mimeTypes, ",");
-        List<MimeType> result = new ArrayList<>(tokens.length);
-        for (String token : tokens) {
-            result.add(parseMimeType(token));
-        }
+        List<MimeType> result = new ArrayList<>();
+        Strings.forEachToken(mimeTypes, ",", true, true,
+            (source, start, end) -> result.add(parseMimeType(mimeTypes.substring(start, end))));
         return result;
     }
 
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Read-only, case-insensitive view over the indexed name/value pairs an HTTP client exposes its headers as (e.g.
+ * {@code okhttp3.Headers} or an Apache {@code Header[]}).  Single header lookups scan the pairs in place, the pairs
+ * are only grouped by name when the view is iterated.
+ *
+ * @since 2.0.2
+ */
+final class NameValueHeaderMap extends AbstractMap<String, List<String>> {
+
+    private final int size;
+
+    private final IntFunction<String> names;
+
+    private final IntFunction<String> values;
+
+    private Map<String, List<String>> grouped;
+
+    NameValueHeaderMap(int size, IntFunction<String> names, IntFunction<String> values) {
+        this.size = size;
+        this.names = names;
+        this.values = values;
+    }
+
+    @Override
+    public List<String> get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        if (grouped != null) {
+            return grouped.get(key);
+        }
+
+        String name = (String) key;
+        String first = null;
+        List<String> result = null;
+        for (int i = 0; i < size; i++) {
+            if (name.equalsIgnoreCase(names.apply(i))) {
+                String value = values.apply(i);
+                if (result != null) {
+                    result.add(value);
+                } else if (first != null) {
+                    result = new ArrayList<>(4);
+                    result.add(first);
+                    result.add(value);
+                } else {
+                    first = value;
+                }
+            }
+        }
+
+        if (result != null) {
+            return Collections.unmodifiableList(result);
+        }
+        return first != null ? Collections.singletonList(first) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (key instanceof String) {
+            for (int i = 0; i < size; i++) {
+                if (((String) key).equalsIgnoreCase(names.apply(i))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return grouped().size();
+    }
+
+    @Override
+    public Set<Entry<String, List<String>>> entrySet() {
+        return grouped().entrySet();
+    }
+
+    /**
+     * Performs the given action for each name/value pair, in the order the pairs are held.
+     *
+     * @param action the action to perform
+     */
+    void forEachPair(BiConsumer<? super String, ? super String> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(names.apply(i), values.apply(i));
+        }
+    }
+
+    /**
+     * Returns a modifiable copy of these headers, in the form {@link HttpHeaders} holds them.
+     *
+     * @return a modifiable copy of these headers
+     */
+    Map<String, List<String>> copy() {
+        Map<String, List<String>> copy = new LinkedCaseInsensitiveMap<>(Math.max(size, 8), Locale.ENGLISH);
+        forEachPair((name, value) -> {
+            List<String> headerValues = copy.get(name);
+            if (headerValues == null) {
+                headerValues = new LinkedList<>();
+                copy.put(name, headerValues);
+            }
+            headerValues.add(value);
+        });
+        return copy;
+    }
+
+    private Map<String, List<String>> grouped() {
+        if (grouped == null) {
+            Map<String, List<String>> map = copy();
+            map.replaceAll((name, headerValues) -> Collections.unmodifiableList(headerValues));
+            grouped = Collections.unmodifiableMap(map);
+        }
+        return grouped;
+    }
+}
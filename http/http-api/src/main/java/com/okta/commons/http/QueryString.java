@@ -16,14 +16,29 @@
  */
 package com.okta.commons.http;
 
-import com.okta.commons.lang.Collections;
 import com.okta.commons.lang.Strings;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * @since 0.5.0
@@ -32,12 +47,37 @@ public class QueryString extends TreeMap<String,String> {
 
     private static final long serialVersionUID = 42L;
 
+    /**
+     * Placeholder recorded for parameters that did not exist when marked.
+     */
+    private static final Object ABSENT = new Object();
+
+    /**
+     * One journal per active {@link #mark()}, innermost last, modifications are recorded while it is not empty.  Each
+     * journal holds the values parameters had when marked, for parameters modified since then, and is lazily created
+     * on the first modification.
+     */
+    private transient List<Map<String, Object>> marks;
+
+    /**
+     * Cached results of {@link #toString(boolean)}, discarded whenever this query string is modified.
+     */
+    private transient String encoded;
+
+    private transient String canonicalEncoded;
+
+    /**
+     * All values of parameters that were {@link #add(String, String) added} more than once, in order.  The map itself
+     * holds the last value of each of these parameters.
+     */
+    private Map<String, List<String>> multiValues;
+
     public QueryString(){}
 
     public QueryString(Map<String,?> source) {
         super();
 
-        if (!Collections.isEmpty(source)) {
+        if (source != null && !source.isEmpty()) {
             for (Map.Entry<String,?> entry : source.entrySet()) {
                 put(entry.getKey(), getFormattedValue(entry.getValue()));
             }
@@ -46,11 +86,319 @@ public class QueryString extends TreeMap<String,String> {
 
     public String put(String key, Object value) {
         if (value != null) {
-            return super.put(key, getFormattedValue(value));
+            return put(key, getFormattedValue(value));
         }
         return null;
     }
 
+    /**
+     * Adds a value to the given parameter, keeping any existing values, e.g. to represent {@code ?type=a&type=b}.
+     * The map operations of this class see the last value added, {@link #getAll(String)} returns all of them.
+     *
+     * @param key the parameter name
+     * @param value the value to add, may be {@code null}
+     * @since 2.0.2
+     */
+    public void add(String key, String value) {
+        beforeModification(key);
+        if (!containsKey(key)) {
+            removeMultiValues(key);
+            super.put(key, value);
+            return;
+        }
+
+        String current = get(key);
+        List<String> values = getMultiValues(key, current);
+        if (values == null) {
+            values = new ArrayList<>(4);
+            values.add(current);
+            putMultiValues(key, values);
+        }
+        values.add(value);
+        super.put(key, value);
+    }
+
+    /**
+     * Returns all values of the given parameter, in the order they were added.
+     *
+     * @param key the parameter name
+     * @return an unmodifiable list of the parameter's values, empty if the parameter does not exist
+     * @since 2.0.2
+     */
+    public List<String> getAll(String key) {
+        if (!containsKey(key)) {
+            return Collections.emptyList();
+        }
+        String value = get(key);
+        List<String> values = getMultiValues(key, value);
+        return values != null
+            ? Collections.unmodifiableList(values)
+            : Collections.singletonList(value);
+    }
+
+    /**
+     * Performs the given action for every parameter value, in key order, including each value of parameters that
+     * have more than one.
+     *
+     * @param action the action to perform for each parameter name and value
+     * @since 2.0.2
+     */
+    public void forEachParameter(BiConsumer<? super String, ? super String> action) {
+        for (Map.Entry<String, String> entry : super.entrySet()) {
+            List<String> values = getMultiValues(entry.getKey(), entry.getValue());
+            if (values == null) {
+                action.accept(entry.getKey(), entry.getValue());
+            } else {
+                for (String value : values) {
+                    action.accept(entry.getKey(), value);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String put(String key, String value) {
+        beforeModification(key);
+        removeMultiValues(key);
+        return super.put(key, value);
+    }
+
+    /**
+     * Replaces the given parameters, when {@code map} is a {@code QueryString} parameters with more than one value
+     * keep all of them.
+     */
+    @Override
+    public void putAll(Map<? extends String, ? extends String> map) {
+        for (String key : map.keySet()) {
+            beforeModification(key);
+            removeMultiValues(key);
+        }
+        super.putAll(map);
+
+        if (map instanceof QueryString && ((QueryString) map).multiValues != null) {
+            QueryString source = (QueryString) map;
+            for (Map.Entry<String, List<String>> entry : source.multiValues.entrySet()) {
+                if (source.getMultiValues(entry.getKey(), source.get(entry.getKey())) != null) {
+                    putMultiValues(entry.getKey(), new ArrayList<>(entry.getValue()));
+                }
+            }
+        }
+    }
+
+    @Override
+    public String remove(Object key) {
+        beforeModification(key);
+        removeMultiValues(key);
+        return super.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        super.keySet().forEach(this::beforeModification);
+        multiValues = null;
+        super.clear();
+    }
+
+    @Override
+    public Map.Entry<String, String> pollFirstEntry() {
+        if (!isEmpty()) {
+            beforeModification(firstKey());
+            removeMultiValues(firstKey());
+        }
+        return super.pollFirstEntry();
+    }
+
+    @Override
+    public Map.Entry<String, String> pollLastEntry() {
+        if (!isEmpty()) {
+            beforeModification(lastKey());
+            removeMultiValues(lastKey());
+        }
+        return super.pollLastEntry();
+    }
+
+    @Override
+    public String putIfAbsent(String key, String value) {
+        beforeModification(key);
+        return super.putIfAbsent(key, value);
+    }
+
+    @Override
+    public String computeIfAbsent(String key, Function<? super String, ? extends String> mappingFunction) {
+        beforeModification(key);
+        return super.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public String computeIfPresent(String key, BiFunction<? super String, ? super String, ? extends String> remappingFunction) {
+        beforeModification(key);
+        return super.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public String compute(String key, BiFunction<? super String, ? super String, ? extends String> remappingFunction) {
+        beforeModification(key);
+        return super.compute(key, remappingFunction);
+    }
+
+    @Override
+    public String merge(String key, String value, BiFunction<? super String, ? super String, ? extends String> remappingFunction) {
+        beforeModification(key);
+        return super.merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public String replace(String key, String value) {
+        beforeModification(key);
+        return super.replace(key, value);
+    }
+
+    @Override
+    public boolean replace(String key, String oldValue, String newValue) {
+        beforeModification(key);
+        return super.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super String, ? super String, ? extends String> function) {
+        super.keySet().forEach(this::beforeModification);
+        super.replaceAll(function);
+    }
+
+    /**
+     * Removing parameters or setting values through the returned view modifies this query string like
+     * {@link #remove(Object)} and {@link #put(String, String)} do.
+     */
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        return new EntrySetView();
+    }
+
+    /**
+     * Removing parameters through the returned view modifies this query string like {@link #remove(Object)} does.
+     */
+    @Override
+    public Set<String> keySet() {
+        return new KeySetView();
+    }
+
+    /**
+     * Removing parameters through the returned view modifies this query string like {@link #remove(Object)} does.
+     */
+    @Override
+    public Collection<String> values() {
+        return new ValuesView();
+    }
+
+    /**
+     * Returns a read-only view, modify this query string through its own methods or {@link #keySet()}.
+     */
+    @Override
+    public NavigableSet<String> navigableKeySet() {
+        return Collections.unmodifiableNavigableSet(super.navigableKeySet());
+    }
+
+    /**
+     * Returns a read-only view, modify this query string through its own methods or {@link #keySet()}.
+     */
+    @Override
+    public NavigableSet<String> descendingKeySet() {
+        return Collections.unmodifiableNavigableSet(super.descendingKeySet());
+    }
+
+    /**
+     * Returns a read-only view, modify this query string through its own methods.
+     */
+    @Override
+    public NavigableMap<String, String> descendingMap() {
+        return Collections.unmodifiableNavigableMap(super.descendingMap());
+    }
+
+    /**
+     * Returns a read-only view, modify this query string through its own methods.
+     */
+    @Override
+    public NavigableMap<String, String> headMap(String toKey, boolean inclusive) {
+        return Collections.unmodifiableNavigableMap(super.headMap(toKey, inclusive));
+    }
+
+    /**
+     * Returns a read-only view, modify this query string through its own methods.
+     */
+    @Override
+    public SortedMap<String, String> headMap(String toKey) {
+        return headMap(toKey, false);
+    }
+
+    /**
+     * Returns a read-only view, modify this query string through its own methods.
+     */
+    @Override
+    public NavigableMap<String, String> tailMap(String fromKey, boolean inclusive) {
+        return Collections.unmodifiableNavigableMap(super.tailMap(fromKey, inclusive));
+    }
+
+    /**
+     * Returns a read-only view, modify this query string through its own methods.
+     */
+    @Override
+    public SortedMap<String, String> tailMap(String fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    /**
+     * Returns a read-only view, modify this query string through its own methods.
+     */
+    @Override
+    public NavigableMap<String, String> subMap(String fromKey, boolean fromInclusive, String toKey, boolean toInclusive) {
+        return Collections.unmodifiableNavigableMap(super.subMap(fromKey, fromInclusive, toKey, toInclusive));
+    }
+
+    /**
+     * Returns a read-only view, modify this query string through its own methods.
+     */
+    @Override
+    public SortedMap<String, String> subMap(String fromKey, String toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public Object clone() {
+        QueryString clone = (QueryString) super.clone();
+        clone.marks = null;
+        if (multiValues != null) {
+            clone.multiValues = new HashMap<>();
+            multiValues.forEach((key, values) -> clone.multiValues.put(key, new ArrayList<>(values)));
+        }
+        return clone;
+    }
+
+    /**
+     * Returns the values of a parameter that was added more than once, or {@code null}.  The list is only valid while
+     * its last value is the parameter's current value, which no longer holds once the parameter is replaced through
+     * the map views.
+     */
+    private List<String> getMultiValues(Object key, String currentValue) {
+        if (multiValues == null) {
+            return null;
+        }
+        List<String> values = multiValues.get(key);
+        return values != null && values.get(values.size() - 1) == currentValue ? values : null;
+    }
+
+    private void putMultiValues(String key, List<String> values) {
+        if (multiValues == null) {
+            multiValues = new HashMap<>();
+        }
+        multiValues.put(key, values);
+    }
+
+    private void removeMultiValues(Object key) {
+        if (multiValues != null) {
+            multiValues.remove(key);
+        }
+    }
+
     private String getFormattedValue(Object value) {
         String result = null;
 
@@ -65,6 +413,101 @@ public class QueryString extends TreeMap<String,String> {
         return result;
     }
 
+    /**
+     * Marks the current state of this query string, subsequent calls to {@link #reset()} restore it.  Rather than
+     * copying all parameters, only the previous values of parameters modified after this call are retained.
+     * <p>
+     * Marks nest: while marked, {@code mark()} pushes a new mark, and {@link #unmark()} returns to the previous one,
+     * e.g. when a retrying executor delegates to another one.
+     * <p>
+     * Modifications made through the {@link #entrySet()}, {@link #keySet()} and {@link #values()} views are tracked,
+     * the navigable and sorted views are read-only.
+     */
+    void mark() {
+        if (marks == null) {
+            marks = new ArrayList<>(2);
+        }
+        marks.add(null);
+    }
+
+    /**
+     * Restores the state this query string had when {@link #mark()} was last called, the mark is kept so that this
+     * method may be called again after further modifications.  Does nothing if this query string is not marked.
+     */
+    void reset() {
+        int innermost = marks != null ? marks.size() - 1 : -1;
+        Map<String, Object> markedValues = innermost >= 0 ? marks.get(innermost) : null;
+        if (markedValues != null) {
+            // outer marks recorded the same parameters when they were modified, restoring them needs no recording
+            clearEncoded();
+            for (Map.Entry<String, Object> entry : markedValues.entrySet()) {
+                String key = entry.getKey();
+                Object value = entry.getValue();
+                removeMultiValues(key);
+                if (value == ABSENT) {
+                    super.remove(key);
+                } else if (value instanceof List) {
+                    @SuppressWarnings("unchecked")
+                    List<String> values = (List<String>) value;
+                    putMultiValues(key, values);
+                    super.put(key, values.get(values.size() - 1));
+                } else {
+                    super.put(key, (String) value);
+                }
+            }
+            marks.set(innermost, null);
+        }
+    }
+
+    /**
+     * Discards the innermost mark, if any.  Modifications are no longer tracked once no mark is left.
+     */
+    void unmark() {
+        if (marks != null && !marks.isEmpty()) {
+            marks.remove(marks.size() - 1);
+        }
+    }
+
+    private void beforeModification(Object key) {
+        clearEncoded();
+        if (marks != null && key instanceof String) {
+            for (int i = 0; i < marks.size(); i++) {
+                Map<String, Object> markedValues = marks.get(i);
+                if (markedValues == null) {
+                    markedValues = new HashMap<>();
+                    marks.set(i, markedValues);
+                }
+                if (!markedValues.containsKey(key)) {
+                    // a copy per mark, restored lists are modified in place afterwards
+                    markedValues.put((String) key, getMarkedValue(key));
+                }
+            }
+        }
+    }
+
+    private Object getMarkedValue(Object key) {
+        if (!containsKey(key)) {
+            return ABSENT;
+        }
+        String value = get(key);
+        List<String> values = getMultiValues(key, value);
+        return values != null ? new ArrayList<>(values) : value;
+    }
+
+    private void clearEncoded() {
+        this.encoded = null;
+        this.canonicalEncoded = null;
+    }
+
+    /**
+     * Called before a parameter is removed or its value set through a view entry, the same bookkeeping as
+     * {@link #put(String, String)} and {@link #remove(Object)}.
+     */
+    private void beforeViewModification(String key) {
+        beforeModification(key);
+        removeMultiValues(key);
+    }
+
     public String toString() {
         return toString(false);
     }
@@ -78,21 +521,31 @@ public class QueryString extends TreeMap<String,String> {
      * @return the canonical query string
      */
     public String toString(boolean canonical) {
+        String result = canonical ? canonicalEncoded : encoded;
+        if (result == null) {
+            result = encode(canonical);
+            if (canonical) {
+                canonicalEncoded = result;
+            } else {
+                encoded = result;
+            }
+        }
+        return result;
+    }
+
+    private String encode(boolean canonical) {
         if (isEmpty()) {
             return "";
         }
-        StringBuilder sb = new StringBuilder();
-
-        for (Map.Entry<String,String> entry : entrySet()) {
-            String key = RequestUtils.encodeUrl(entry.getKey(), false, canonical);
-            String value = RequestUtils.encodeUrl(entry.getValue(), false, canonical);
+        StringBuilder sb = new StringBuilder(size() * 24);
 
+        forEachParameter((key, value) -> {
             if (sb.length() > 0) {
                 sb.append('&');
             }
-
-            sb.append(key).append("=").append(value);
-        }
+            RequestUtils.encodeUrl(key, false, canonical, sb).append('=');
+            RequestUtils.encodeUrl(value, false, canonical, sb);
+        });
 
         return sb.toString();
     }
@@ -103,33 +556,52 @@ public class QueryString extends TreeMap<String,String> {
         }
 
         QueryString queryString = new QueryString();
-
-        // only returns null if string is null
-        String[] tokens = Strings.tokenizeToStringArray(query, "&", false, false);
-        for( String token : tokens) {
-            applyKeyValuePair(queryString, token);
-        }
-
+        parse(query, 0, query.length(), queryString);
         return queryString;
     }
 
-    private static void applyKeyValuePair(QueryString qs, String kv) {
+    /**
+     * Parses the {@code key=value} pairs found in {@code source} between {@code start} (inclusive) and {@code end}
+     * (exclusive), adding them to {@code target}.  Repeated keys keep all of their values, empty pairs are skipped
+     * and keys without an equals sign get a {@code null} value.
+     */
+    static void parse(String source, int start, int end, QueryString target) {
+        int pairStart = start;
+        int separator = -1;
 
-        String[] pair = Strings.split(kv, "=");
+        for (int i = start; i <= end; i++) {
+            char c = i < end ? source.charAt(i) : '&';
+            if (c == '=' && separator < 0) {
+                separator = i;
+            } else if (c == '&') {
+                if (i > pairStart) {
+                    if (separator < 0) {
+                        //no equals sign, it's just a key:
+                        target.add(source.substring(pairStart, i), null);
+                    } else {
+                        target.add(decode(source, pairStart, separator), decode(source, separator + 1, i));
+                    }
+                }
+                pairStart = i + 1;
+                separator = -1;
+            }
+        }
+    }
 
-        if (pair != null) {
-            String key = pair[0];
-            String value = pair[1] != null ? pair[1] : "";
-            try {
-                qs.put(URLDecoder.decode(key, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
-            } catch (UnsupportedEncodingException e) {
-                // should never happen
-                qs.put(key, value);
+    private static String decode(String source, int start, int end) {
+        String value = source.substring(start, end);
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (c == '%' || c == '+') {
+                try {
+                    return URLDecoder.decode(value, "UTF-8");
+                } catch (UnsupportedEncodingException e) {
+                    // should never happen
+                    return value;
+                }
             }
-        } else {
-            //no equals sign, it's just a key:
-            qs.put(kv, null);
         }
+        return value;
     }
 
     /**
@@ -147,4 +619,182 @@ public class QueryString extends TreeMap<String,String> {
         return sb.toString();
     }
 
+    /**
+     * Iterates the parameters in key order, as elements derived from each map entry, removals going through
+     * {@link #beforeViewModification(String)}.
+     */
+    private abstract class ViewIterator<E> implements Iterator<E> {
+
+        private final Iterator<Map.Entry<String, String>> entries = QueryString.super.entrySet().iterator();
+
+        private Map.Entry<String, String> last;
+
+        abstract E element(Map.Entry<String, String> entry);
+
+        @Override
+        public boolean hasNext() {
+            return entries.hasNext();
+        }
+
+        @Override
+        public E next() {
+            last = entries.next();
+            return element(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last != null) {
+                beforeViewModification(last.getKey());
+                last = null;
+            }
+            entries.remove();
+        }
+    }
+
+    private final class EntrySetView extends AbstractSet<Map.Entry<String, String>> {
+
+        @Override
+        public Iterator<Map.Entry<String, String>> iterator() {
+            return new ViewIterator<Map.Entry<String, String>>() {
+                @Override
+                Map.Entry<String, String> element(Map.Entry<String, String> entry) {
+                    return new ViewEntry(entry);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return QueryString.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            return containsKey(entry.getKey()) && Objects.equals(get(entry.getKey()), entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!contains(o)) {
+                return false;
+            }
+            QueryString.this.remove(((Map.Entry<?, ?>) o).getKey());
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            QueryString.this.clear();
+        }
+    }
+
+    private final class ViewEntry implements Map.Entry<String, String> {
+
+        private final Map.Entry<String, String> entry;
+
+        private ViewEntry(Map.Entry<String, String> entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public String getKey() {
+            return entry.getKey();
+        }
+
+        @Override
+        public String getValue() {
+            return entry.getValue();
+        }
+
+        @Override
+        public String setValue(String value) {
+            beforeViewModification(entry.getKey());
+            return entry.setValue(value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return entry.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return entry.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return entry.toString();
+        }
+    }
+
+    private final class KeySetView extends AbstractSet<String> {
+
+        @Override
+        public Iterator<String> iterator() {
+            return new ViewIterator<String>() {
+                @Override
+                String element(Map.Entry<String, String> entry) {
+                    return entry.getKey();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return QueryString.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!containsKey(o)) {
+                return false;
+            }
+            QueryString.this.remove(o);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            QueryString.this.clear();
+        }
+    }
+
+    private final class ValuesView extends AbstractCollection<String> {
+
+        @Override
+        public Iterator<String> iterator() {
+            return new ViewIterator<String>() {
+                @Override
+                String element(Map.Entry<String, String> entry) {
+                    return entry.getValue();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return QueryString.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsValue(o);
+        }
+
+        @Override
+        public void clear() {
+            QueryString.this.clear();
+        }
+    }
 }
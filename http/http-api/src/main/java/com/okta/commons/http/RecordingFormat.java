@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary format of the files written by {@link RecordingRequestExecutor} and read by
+ * {@link ReplayingRequestExecutor}: a header ({@code int} magic, {@code int} version) followed by records, each
+ * prefixed by its {@code int} length:
+ * <pre>
+ * long    duration, in nanoseconds
+ * string  method
+ * string  URL, with its query string
+ * headers request headers
+ * bytes   request body
+ * int     status, or -1 if the request failed
+ * headers response headers            | string  failure message
+ * bytes   response body               | boolean retryable
+ * </pre>
+ * Strings and byte arrays are prefixed by their {@code int} length, {@code -1} for {@code null}, strings are UTF-8.
+ * Headers are an {@code int} count followed by name/value string pairs.
+ *
+ * @since 2.0.2
+ */
+final class RecordingFormat {
+
+    static final int MAGIC = 0x4F4B5252; // "OKRR"
+
+    static final int VERSION = 1;
+
+    static final int HEADER_LENGTH = 8;
+
+    static final int FAILED = -1;
+
+    private RecordingFormat() {}
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value != null ? value.getBytes(StandardCharsets.UTF_8) : null);
+    }
+
+    static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(value.length);
+            out.write(value);
+        }
+    }
+
+    static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(copy(buffer, length), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns a read-only view of the next byte array, without copying it.
+     */
+    static ByteBuffer readBytes(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        ByteBuffer value = buffer.slice();
+        value.limit(length);
+        buffer.position(buffer.position() + length);
+        return value.asReadOnlyBuffer();
+    }
+
+    static void skipBytes(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length > 0) {
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    static HttpHeaders readHeaders(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        HttpHeaders headers = new HttpHeaders();
+        for (int i = 0; i < count; i++) {
+            headers.add(readString(buffer), readString(buffer));
+        }
+        return headers;
+    }
+
+    static void skipHeaders(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        for (int i = 0; i < count * 2; i++) {
+            skipBytes(buffer);
+        }
+    }
+
+    private static byte[] copy(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
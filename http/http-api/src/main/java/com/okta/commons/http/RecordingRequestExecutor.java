@@ -0,0 +1,278 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http;
+
+import com.okta.commons.lang.Assert;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link RequestExecutor} decorator recording the requests it executes, their responses (or failures) and how long
+ * they took, to a file that {@link ReplayingRequestExecutor} serves back, e.g. to load test against production-like
+ * traffic without calling Okta:
+ * <pre>
+ * try (RecordingRequestExecutor recorder = new RecordingRequestExecutor(transport, Paths.get("okta.rec"))) {
+ *     // run the scenario with the recorder as the request executor
+ * }
+ * </pre>
+ * Records are appended to the file, an existing recording is extended.  The values of the {@code Authorization},
+ * {@code Proxy-Authorization}, {@code Cookie} and {@code Set-Cookie} headers are replaced with {@value #REDACTED}
+ * unless other headers are given, request and response bodies can be rewritten before they are written with a body
+ * redactor.  Request bodies are only recorded if their stream supports {@link InputStream#reset() reset}, response
+ * bodies are read fully, the caller gets them from memory.
+ *
+ * @since 2.0.2
+ */
+public class RecordingRequestExecutor implements RequestExecutor, Closeable, Flushable {
+
+    /**
+     * The value recorded in place of redacted header values.
+     */
+    public static final String REDACTED = "REDACTED";
+
+    private static final Collection<String> DEFAULT_REDACTED_HEADERS =
+            Arrays.asList("Authorization", "Proxy-Authorization", "Cookie", "Set-Cookie");
+
+    private final RequestExecutor delegate;
+
+    private final Set<String> redactedHeaders = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    private final UnaryOperator<byte[]> bodyRedactor;
+
+    private final DataOutputStream out;
+
+    // not synchronized, so virtual threads are not pinned while writing
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Creates a recorder redacting the default headers.
+     *
+     * @param delegate the executor to record
+     * @param file the file to append records to
+     * @throws IOException if the file cannot be opened or is not a recording
+     */
+    public RecordingRequestExecutor(RequestExecutor delegate, Path file) throws IOException {
+        this(delegate, file, DEFAULT_REDACTED_HEADERS, UnaryOperator.identity());
+    }
+
+    /**
+     * Creates a recorder redacting the given headers and rewriting bodies with {@code bodyRedactor}.
+     *
+     * @param delegate the executor to record
+     * @param file the file to append records to
+     * @param redactedHeaders the (case insensitive) names of the headers whose values are redacted
+     * @param bodyRedactor returns the bytes to record for a request or response body, called with the body's bytes
+     * @throws IOException if the file cannot be opened or is not a recording
+     */
+    public RecordingRequestExecutor(RequestExecutor delegate,
+                                    Path file,
+                                    Collection<String> redactedHeaders,
+                                    UnaryOperator<byte[]> bodyRedactor) throws IOException {
+        Assert.notNull(delegate, "delegate cannot be null");
+        Assert.notNull(file, "file cannot be null");
+        Assert.notNull(redactedHeaders, "redactedHeaders cannot be null");
+        Assert.notNull(bodyRedactor, "bodyRedactor cannot be null");
+        this.delegate = delegate;
+        this.redactedHeaders.addAll(redactedHeaders);
+        this.bodyRedactor = bodyRedactor;
+
+        boolean empty = !Files.exists(file) || Files.size(file) == 0;
+        if (!empty) {
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+                if (in.readInt() != RecordingFormat.MAGIC || in.readInt() != RecordingFormat.VERSION) {
+                    throw new IOException("Not a recording, or of an unsupported version: " + file);
+                }
+            }
+        }
+        this.out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+        if (empty) {
+            out.writeInt(RecordingFormat.MAGIC);
+            out.writeInt(RecordingFormat.VERSION);
+        }
+    }
+
+    @Override
+    public Response executeRequest(Request request) throws HttpException {
+        byte[] requestBody = readRequestBody(request);
+        long start = System.nanoTime();
+
+        Response response;
+        byte[] responseBody;
+        try {
+            response = delegate.executeRequest(request);
+            responseBody = readFully(response.getBody());
+        } catch (HttpException e) {
+            record(request, requestBody, System.nanoTime() - start, null, null, e);
+            throw e;
+        }
+        long duration = System.nanoTime() - start;
+
+        record(request, requestBody, duration, response, responseBody, null);
+        InputStream body = responseBody != null ? new ByteArrayInputStream(responseBody) : null;
+        return DefaultResponse.withHeaders(response.getHttpStatus(),
+                                           response.getHeaders(),
+                                           body,
+                                           responseBody != null ? responseBody.length : 0);
+    }
+
+    /**
+     * Writes buffered records to the file.
+     *
+     * @throws IOException if the records cannot be written
+     */
+    @Override
+    public void flush() throws IOException {
+        lock.lock();
+        try {
+            out.flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            out.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(Request request,
+                        byte[] requestBody,
+                        long durationNanos,
+                        Response response,
+                        byte[] responseBody,
+                        HttpException failure) {
+        // encoded outside of the lock, only the copy to the file is serialized
+        ByteArrayOutputStream record = new ByteArrayOutputStream(256 + length(requestBody) + length(responseBody));
+        try {
+            DataOutputStream recordOut = new DataOutputStream(record);
+            recordOut.writeLong(durationNanos);
+            RecordingFormat.writeString(recordOut, request.getMethod().name());
+            RecordingFormat.writeString(recordOut, key(request));
+            writeHeaders(recordOut, request.getHeaders());
+            RecordingFormat.writeBytes(recordOut, redact(requestBody));
+            if (failure != null) {
+                recordOut.writeInt(RecordingFormat.FAILED);
+                RecordingFormat.writeString(recordOut, failure.getMessage());
+                recordOut.writeBoolean(failure.isRetryable());
+            } else {
+                recordOut.writeInt(response.getHttpStatus());
+                writeHeaders(recordOut, response.getHeaders());
+                RecordingFormat.writeBytes(recordOut, redact(responseBody));
+            }
+
+            lock.lock();
+            try {
+                out.writeInt(record.size());
+                record.writeTo(out);
+            } finally {
+                lock.unlock();
+            }
+        } catch (IOException e) {
+            throw new HttpException("Unable to record request: " + e.getMessage(), e);
+        }
+    }
+
+    private void writeHeaders(DataOutputStream recordOut, HttpHeaders headers) throws IOException {
+        int count = 0;
+        ByteArrayOutputStream pairs = new ByteArrayOutputStream();
+        DataOutputStream pairsOut = new DataOutputStream(pairs);
+        if (headers != null) {
+            for (String name : headers.keySet()) {
+                for (String value : headers.get(name)) {
+                    RecordingFormat.writeString(pairsOut, name);
+                    RecordingFormat.writeString(pairsOut, redactedHeaders.contains(name) ? REDACTED : value);
+                    count++;
+                }
+            }
+        }
+        recordOut.writeInt(count);
+        pairs.writeTo(recordOut);
+    }
+
+    private byte[] redact(byte[] body) {
+        return body != null ? bodyRedactor.apply(body) : null;
+    }
+
+    /**
+     * Returns the URL requests are matched on when replayed: the resource URL with its query string.
+     */
+    static String key(Request request) {
+        return QueryString.buildHref(request.getResourceUrl().toString(), request.getQueryString());
+    }
+
+    private static byte[] readRequestBody(Request request) {
+        InputStream body = request.getBody();
+        if (body == null || !body.markSupported()) {
+            return null;
+        }
+        try {
+            body.mark(Integer.MAX_VALUE);
+            byte[] bytes = readAll(body);
+            body.reset();
+            return bytes;
+        } catch (IOException e) {
+            throw new HttpException("Unable to read request body: " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] readFully(InputStream body) {
+        if (body == null) {
+            return null;
+        }
+        try (InputStream in = body) {
+            return readAll(in);
+        } catch (IOException e) {
+            throw new HttpException("Unable to read response body: " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes != null ? bytes.length : 0;
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http;
+
+import com.okta.commons.lang.Assert;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link RequestExecutor} serving the responses recorded by {@link RecordingRequestExecutor}, without any network
+ * access.
+ * <p>
+ * Requests are matched on their method and URL (including the query string), headers and bodies are ignored.  When a
+ * request was recorded several times, its recorded responses are served in order, starting over once all were served.
+ * Requests that were not recorded fail with an {@link HttpException}, recorded failures are thrown again, with the
+ * recorded message and retryable flag.
+ * <p>
+ * Each response is served after its recorded duration multiplied by the time scale: {@code 1} replays the original
+ * latencies, {@code 0.1} compresses them tenfold and {@code 0} serves responses as fast as possible.
+ * <p>
+ * The recording is memory mapped, response bodies are read straight from the mapping rather than copied, so a replay
+ * does not need the recording to fit in the heap.  A record truncated by an interrupted recording is ignored.
+ *
+ * @since 2.0.2
+ */
+public class ReplayingRequestExecutor implements RequestExecutor, Closeable {
+
+    private static final int MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+
+    private final FileChannel channel;
+
+    private final double timeScale;
+
+    private final Map<String, Recorded> recordings;
+
+    /**
+     * Creates an executor serving the recorded responses as fast as possible.
+     *
+     * @param file the recording
+     * @throws IOException if the recording cannot be read
+     */
+    public ReplayingRequestExecutor(Path file) throws IOException {
+        this(file, 0);
+    }
+
+    /**
+     * Creates an executor serving the recorded responses after their recorded duration multiplied by
+     * {@code timeScale}.
+     *
+     * @param file the recording
+     * @param timeScale the factor applied to recorded durations, {@code 0} to not wait
+     * @throws IOException if the recording cannot be read
+     */
+    public ReplayingRequestExecutor(Path file, double timeScale) throws IOException {
+        Assert.notNull(file, "file cannot be null");
+        Assert.isTrue(timeScale >= 0, "timeScale cannot be negative");
+        this.timeScale = timeScale;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            this.recordings = index(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of recorded requests.
+     *
+     * @return the number of records in the recording
+     */
+    public int size() {
+        int size = 0;
+        for (Recorded recorded : recordings.values()) {
+            size += recorded.records.size();
+        }
+        return size;
+    }
+
+    @Override
+    public Response executeRequest(Request request) throws HttpException {
+        String key = request.getMethod().name() + ' ' + RecordingRequestExecutor.key(request);
+        Recorded recorded = recordings.get(key);
+        if (recorded == null) {
+            throw new HttpException("No recorded response for " + key);
+        }
+
+        ByteBuffer record = recorded.next();
+        long durationNanos = record.getLong();
+        RecordingFormat.skipBytes(record); // method
+        RecordingFormat.skipBytes(record); // URL
+        RecordingFormat.skipHeaders(record);
+        RecordingFormat.skipBytes(record); // request body
+
+        int status = record.getInt();
+        sleep((long) (durationNanos * timeScale));
+        if (status == RecordingFormat.FAILED) {
+            String message = RecordingFormat.readString(record);
+            throw new HttpException(message, null, record.get() != 0);
+        }
+
+        HttpHeaders headers = RecordingFormat.readHeaders(record);
+        ByteBuffer body = RecordingFormat.readBytes(record);
+        return DefaultResponse.withHeaders(status,
+                                           headers,
+                                           body != null ? new ByteBufferInputStream(body) : null,
+                                           body != null ? body.remaining() : 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        // mappings are released when garbage collected, there is no portable way to unmap them earlier
+        channel.close();
+    }
+
+    private static Map<String, Recorded> index(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long segmentStart = 0;
+        ByteBuffer segment = map(channel, segmentStart, size);
+        if (segment.remaining() < RecordingFormat.HEADER_LENGTH
+                || segment.getInt() != RecordingFormat.MAGIC
+                || segment.getInt() != RecordingFormat.VERSION) {
+            throw new IOException("Not a recording, or of an unsupported version");
+        }
+
+        Map<String, Recorded> recordings = new HashMap<>();
+        while (true) {
+            int position = segment.position();
+            int remaining = segment.remaining();
+            int length = remaining >= Integer.BYTES ? segment.getInt(position) : -1;
+            if (length < 0 || remaining - Integer.BYTES < length) {
+                // the record does not fit: it is truncated, or continues past the end of this segment
+                long recordStart = segmentStart + position;
+                if (segmentStart + segment.limit() >= size || recordStart == segmentStart) {
+                    break;
+                }
+                segmentStart = recordStart;
+                segment = map(channel, segmentStart, size);
+                continue;
+            }
+
+            ByteBuffer record = segment.duplicate();
+            record.position(position + Integer.BYTES).limit(position + Integer.BYTES + length);
+            record = record.slice();
+            segment.position(position + Integer.BYTES + length);
+
+            ByteBuffer header = record.duplicate();
+            header.getLong(); // duration
+            String key = RecordingFormat.readString(header) + ' ' + RecordingFormat.readString(header);
+            recordings.computeIfAbsent(key, k -> new Recorded()).records.add(record.asReadOnlyBuffer());
+        }
+        return Collections.unmodifiableMap(recordings);
+    }
+
+    private static ByteBuffer map(FileChannel channel, long start, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, MAX_SEGMENT_SIZE));
+    }
+
+    private static void sleep(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HttpException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The records of one request, served in turn.
+     */
+    private static final class Recorded {
+
+        private final List<ByteBuffer> records = new ArrayList<>(1);
+
+        private final AtomicInteger cursor = new AtomicInteger();
+
+        private ByteBuffer next() {
+            int index = Math.floorMod(cursor.getAndIncrement(), records.size());
+            return records.get(index).duplicate();
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -16,7 +16,6 @@
  */
 package com.okta.commons.http;
 
-import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.time.ZoneOffset;
@@ -32,6 +31,29 @@ public final class RequestUtils {
     private static final DateTimeFormatter DATE_TIME_FORMATTER =
         DateTimeFormatter.ISO_DATE_TIME.withZone(ZoneOffset.UTC);
 
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * ASCII characters {@link URLEncoder} never encodes: {@code a-z}, {@code A-Z}, {@code 0-9}, {@code .}, {@code -}
+     * and {@code _} ({@code *} is handled separately as it is encoded in canonical form).
+     */
+    private static final boolean[] UNRESERVED = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            UNRESERVED[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            UNRESERVED[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            UNRESERVED[c] = true;
+        }
+        UNRESERVED['.'] = true;
+        UNRESERVED['-'] = true;
+        UNRESERVED['_'] = true;
+    }
+
     private RequestUtils() {}
 
     /**
@@ -50,30 +72,107 @@ public final class RequestUtils {
                 || (port == 443 && scheme.equals("https"));
     }
 
+    /**
+     * Percent-encodes the given value the same way {@link URLEncoder#encode(String, String)} does with UTF-8.
+     * When {@code canonical} is {@code true}, spaces are encoded as {@code %20}, {@code *} as {@code %2A} and
+     * {@code ~} is left as is, when {@code path} is also {@code true}, {@code /} is left as is too.
+     *
+     * @param value the value to encode, may be {@code null}
+     * @param path whether the value is a URL path
+     * @param canonical whether the value should be canonically encoded
+     * @return the encoded value, or an empty string if {@code value} is {@code null} or empty
+     */
     public static String encodeUrl(String value, boolean path, boolean canonical) {
-        if (value == null || value.equals("")) {
+        if (value == null || value.isEmpty()) {
             return "";
         }
 
-        String encoded;
+        int length = value.length();
+        int start = 0;
+        while (start < length && isUnchanged(value.charAt(start), path, canonical)) {
+            start++;
+        }
+
+        // fast path, nothing needs to be encoded
+        if (start == length) {
+            return value;
+        }
+
+        StringBuilder sb = new StringBuilder(length + 16);
+        sb.append(value, 0, start);
+        encode(value, start, path, canonical, sb);
+        return sb.toString();
+    }
 
-        try {
-            encoded = URLEncoder.encode(value, "UTF-8");
-        } catch (UnsupportedEncodingException ex) {
-            throw new IllegalStateException("Unable to UTF-8 encode url string component [" + value + "]", ex);
+    /**
+     * Percent-encodes the given value as {@link #encodeUrl(String, boolean, boolean)} does, appending the result to
+     * the given {@code StringBuilder} rather than creating a new {@code String}.
+     *
+     * @param value the value to encode, may be {@code null}
+     * @param path whether the value is a URL path
+     * @param canonical whether the value should be canonically encoded
+     * @param sb the builder to append the encoded value to
+     * @return the given {@code StringBuilder}
+     * @since 2.0.2
+     */
+    public static StringBuilder encodeUrl(CharSequence value, boolean path, boolean canonical, StringBuilder sb) {
+        if (value != null) {
+            encode(value, 0, path, canonical, sb);
         }
+        return sb;
+    }
 
-        if (canonical) {
-            encoded = encoded.replace("+", "%20")
-                    .replace("*", "%2A")
-                    .replace("%7E", "~"); //yes, this is reversed (compared to the 2 above it) intentionally
+    @SuppressWarnings("PMD.UselessParentheses")
+    private static void encode(CharSequence value, int start, boolean path, boolean canonical, StringBuilder sb) {
+        int length = value.length();
+        for (int i = start; i < length; i++) {
+            char c = value.charAt(i);
 
-            if (path) {
-                encoded = encoded.replace("%2F", "/");
+            if (isUnchanged(c, path, canonical)) {
+                sb.append(c);
+            } else if (c == ' ') {
+                sb.append(canonical ? "%20" : "+");
+            } else if (c < 0x80) {
+                appendEscaped(c, sb);
+            } else if (c < 0x800) {
+                appendEscaped(0xC0 | (c >> 6), sb);
+                appendEscaped(0x80 | (c & 0x3F), sb);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                appendEscaped(0xF0 | (codePoint >> 18), sb);
+                appendEscaped(0x80 | ((codePoint >> 12) & 0x3F), sb);
+                appendEscaped(0x80 | ((codePoint >> 6) & 0x3F), sb);
+                appendEscaped(0x80 | (codePoint & 0x3F), sb);
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogates are replaced with '?', as String.getBytes() does
+                appendEscaped('?', sb);
+            } else {
+                appendEscaped(0xE0 | (c >> 12), sb);
+                appendEscaped(0x80 | ((c >> 6) & 0x3F), sb);
+                appendEscaped(0x80 | (c & 0x3F), sb);
             }
         }
+    }
 
-        return encoded;
+    private static boolean isUnchanged(char c, boolean path, boolean canonical) {
+        if (c < 0x80 && UNRESERVED[c]) {
+            return true;
+        }
+        switch (c) {
+            case '*':
+                return !canonical;
+            case '~':
+                return canonical;
+            case '/':
+                return canonical && path;
+            default:
+                return false;
+        }
+    }
+
+    @SuppressWarnings("PMD.UselessParentheses")
+    private static void appendEscaped(int b, StringBuilder sb) {
+        sb.append('%').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
     }
 
     /**
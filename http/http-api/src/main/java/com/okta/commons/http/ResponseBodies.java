@@ -0,0 +1,206 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads response bodies fully before the connection is released, optionally into pooled buffers (see
+ * {@link ResponseBufferPool}) and spilling bodies larger than a threshold to a temporary file.
+ * <p>
+ * A spilled body is read back through a {@code FileChannel}, the file is deleted when the body's stream is closed,
+ * so callers should always close {@link Response#getBody()}.
+ *
+ * @since 2.0.2
+ */
+public final class ResponseBodies {
+
+    private static final int COPY_BUFFER_SIZE = 8 * 1024;
+
+    private static final int MAX_IN_MEMORY_SIZE = Integer.MAX_VALUE - 8;
+
+    private static final String SPILL_FILE_PREFIX = "okta-response-";
+
+    /**
+     * Allocates a new array for every body, without retaining any.
+     */
+    private static final ResponseBufferPool UNPOOLED = new ResponseBufferPool(1024, 0);
+
+    private ResponseBodies() {}
+
+    /**
+     * Reads {@code source} fully, keeping up to {@code spillThreshold} bytes in memory and spilling larger bodies to a
+     * temporary file.  {@code source} is not closed.
+     *
+     * @param source the stream to read
+     * @param contentLength the expected number of bytes, or a negative value if unknown
+     * @param pool the pool to read in memory bodies into, or {@code null} to allocate new arrays
+     * @param spillThreshold the largest body kept in memory, or a negative value to never spill bodies to disk
+     * @return a stream over the bytes read
+     * @throws IOException if {@code source} cannot be read or the temporary file cannot be written
+     */
+    public static InputStream read(InputStream source, long contentLength, ResponseBufferPool pool, long spillThreshold)
+            throws IOException {
+
+        ResponseBufferPool bufferPool = pool != null ? pool : UNPOOLED;
+
+        if (spillThreshold < 0 || spillThreshold >= MAX_IN_MEMORY_SIZE) {
+            return bufferPool.read(source, contentLength);
+        }
+
+        if (contentLength > spillThreshold) {
+            // known to be too large, skip reading into memory
+            return spill(null, -1, source, bufferPool);
+        }
+
+        ResponseBufferPool.PooledInputStream head = bufferPool.read(source, contentLength, (int) spillThreshold);
+        if (head.length() < spillThreshold) {
+            return head;
+        }
+
+        int next = source.read();
+        if (next < 0) {
+            return head;
+        }
+
+        try {
+            return spill(head, next, source, bufferPool);
+        } finally {
+            head.close();
+        }
+    }
+
+    /**
+     * Writes the bytes read so far (if any), the following byte (if not negative) and the rest of {@code source} to
+     * a temporary file, returning a stream over it.
+     */
+    private static InputStream spill(ResponseBufferPool.PooledInputStream head,
+                                     int next,
+                                     InputStream source,
+                                     ResponseBufferPool bufferPool) throws IOException {
+
+        Path file = Files.createTempFile(SPILL_FILE_PREFIX, ".tmp");
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(file,
+                                       StandardOpenOption.READ,
+                                       StandardOpenOption.WRITE,
+                                       StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        byte[] buffer = bufferPool.acquire(COPY_BUFFER_SIZE);
+        try {
+            if (head != null) {
+                writeFully(channel, ByteBuffer.wrap(head.buffer(), 0, head.length()));
+            }
+            if (next >= 0) {
+                writeFully(channel, ByteBuffer.wrap(new byte[] {(byte) next}));
+            }
+            int read;
+            while ((read = source.read(buffer)) >= 0) {
+                writeFully(channel, ByteBuffer.wrap(buffer, 0, read));
+            }
+            channel.position(0);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        } finally {
+            bufferPool.release(buffer);
+        }
+        return new FileChannelInputStream(channel);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * {@code InputStream} reading a {@code FileChannel} from its current position, closing the channel when closed.
+     */
+    private static final class FileChannelInputStream extends InputStream {
+
+        private final FileChannel channel;
+
+        private final byte[] single = new byte[1];
+
+        private long mark;
+
+        private FileChannelInputStream(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            return channel.read(ByteBuffer.wrap(bytes, offset, length));
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long position = channel.position();
+            long skipped = Math.max(0, Math.min(n, channel.size() - position));
+            channel.position(position + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return channel.isOpen() ? (int) Math.min(channel.size() - channel.position(), Integer.MAX_VALUE) : 0;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public void mark(int readLimit) {
+            try {
+                this.mark = channel.position();
+            } catch (IOException e) {
+                this.mark = 0;
+            }
+        }
+
+        @Override
+        public void reset() throws IOException {
+            channel.position(mark);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http;
+
+import com.okta.commons.lang.Assert;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Pool of the byte arrays response bodies are read into, set with
+ * {@link com.okta.commons.http.config.HttpClientConfiguration#setResponseBufferPool(ResponseBufferPool)}.
+ * <p>
+ * Buffers are pooled in power of two size classes, from 1 KiB up to a maximum size, and striped by thread to limit
+ * contention.  A body of known length is read into a single buffer of the matching size class, a body of unknown
+ * length (e.g. chunked or gzip encoded) into buffers of increasing size, each replaced buffer going straight back to
+ * the pool.  The buffer is returned to the pool when the body's {@code InputStream} is closed, bodies that are never
+ * closed are simply garbage collected.
+ *
+ * @since 2.0.2
+ */
+public final class ResponseBufferPool {
+
+    private static final int MIN_BUFFER_SHIFT = 10; // 1 KiB
+
+    private static final int DEFAULT_MAX_BUFFER_SIZE = 1024 * 1024;
+
+    private static final int DEFAULT_BUFFERS_PER_SIZE = 4;
+
+    private static final int UNKNOWN_LENGTH_BUFFER_SIZE = 8 * 1024;
+
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final int maxBufferSize;
+
+    private final int sizeClasses;
+
+    private final int buffersPerSize;
+
+    private final int stripeMask;
+
+    /**
+     * Slots for every stripe, size class and buffer, in that order; an empty slot is {@code null}.
+     */
+    private final AtomicReferenceArray<byte[]> slots;
+
+    /**
+     * Creates a pool holding up to 4 buffers of each size class per stripe, for buffers of up to 1 MiB.
+     */
+    public ResponseBufferPool() {
+        this(DEFAULT_MAX_BUFFER_SIZE, DEFAULT_BUFFERS_PER_SIZE);
+    }
+
+    /**
+     * Creates a pool for buffers of up to {@code maxBufferSize} bytes (rounded up to a power of two), holding up to
+     * {@code buffersPerSize} buffers of each size class per stripe.  Bodies larger than {@code maxBufferSize} are
+     * still read, into buffers that are not pooled.
+     *
+     * @param maxBufferSize the size of the largest pooled buffer, at least 1 KiB
+     * @param buffersPerSize the number of buffers of each size class pooled per stripe, {@code 0} to never retain
+     *                       buffers
+     */
+    public ResponseBufferPool(int maxBufferSize, int buffersPerSize) {
+        Assert.isTrue(maxBufferSize >= 1 << MIN_BUFFER_SHIFT && maxBufferSize <= 1 << 30,
+                      "maxBufferSize must be between 1 KiB and 1 GiB");
+        Assert.isTrue(buffersPerSize >= 0, "buffersPerSize must not be negative");
+
+        this.sizeClasses = sizeClass(maxBufferSize) + 1;
+        this.maxBufferSize = 1 << (sizeClasses - 1 + MIN_BUFFER_SHIFT);
+        this.buffersPerSize = buffersPerSize;
+
+        int stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+        this.stripeMask = stripes - 1;
+        this.slots = new AtomicReferenceArray<>(stripes * sizeClasses * buffersPerSize);
+    }
+
+    /**
+     * Reads {@code source} fully into a pooled buffer, the buffer is returned to this pool when the returned stream is
+     * closed.  {@code source} is not closed.
+     *
+     * @param source the stream to read
+     * @param contentLength the expected number of bytes, or a negative value if unknown
+     * @return a stream over the bytes read
+     * @throws IOException if {@code source} cannot be read
+     */
+    public InputStream read(InputStream source, long contentLength) throws IOException {
+        return read(source, contentLength, MAX_ARRAY_SIZE);
+    }
+
+    /**
+     * Reads {@code source} into a pooled buffer until either the end of the stream or {@code limit} bytes are read.
+     */
+    PooledInputStream read(InputStream source, long contentLength, int limit) throws IOException {
+        int initialSize = contentLength >= 0 && contentLength <= limit
+                ? Math.max((int) contentLength, 1)
+                : Math.min(UNKNOWN_LENGTH_BUFFER_SIZE, Math.max(limit, 1));
+
+        byte[] buffer = acquire(initialSize);
+        int count = 0;
+        try {
+            while (count < limit) {
+                if (count == buffer.length) {
+                    // probe before growing, a body filling its buffer exactly is common when the length is known
+                    int next = source.read();
+                    if (next < 0) {
+                        break;
+                    }
+                    buffer = grow(buffer, count);
+                    buffer[count++] = (byte) next;
+                }
+                int read = source.read(buffer, count, Math.min(buffer.length, limit) - count);
+                if (read < 0) {
+                    break;
+                }
+                count += read;
+            }
+        } catch (IOException | RuntimeException e) {
+            release(buffer);
+            throw e;
+        }
+        return new PooledInputStream(this, buffer, count);
+    }
+
+    private byte[] grow(byte[] buffer, int count) throws IOException {
+        if (buffer.length >= MAX_ARRAY_SIZE) {
+            throw new IOException("Response body is too large to be buffered");
+        }
+        byte[] grown = acquire((int) Math.min((long) buffer.length * 2, MAX_ARRAY_SIZE));
+        System.arraycopy(buffer, 0, grown, 0, count);
+        release(buffer);
+        return grown;
+    }
+
+    /**
+     * Returns a buffer of at least {@code minSize} bytes, from the pool if one is available.
+     */
+    byte[] acquire(int minSize) {
+        if (minSize > maxBufferSize) {
+            return new byte[minSize];
+        }
+        int sizeClass = sizeClass(minSize);
+        int offset = slotOffset(sizeClass);
+        for (int i = offset; i < offset + buffersPerSize; i++) {
+            byte[] buffer = slots.get(i);
+            if (buffer != null && slots.compareAndSet(i, buffer, null)) {
+                return buffer;
+            }
+        }
+        return new byte[1 << (sizeClass + MIN_BUFFER_SHIFT)];
+    }
+
+    /**
+     * Returns a buffer to the pool, buffers not obtained from {@link #acquire(int)} or beyond the pool's capacity are
+     * dropped.
+     */
+    void release(byte[] buffer) {
+        int length = buffer.length;
+        if (length > maxBufferSize || length < 1 << MIN_BUFFER_SHIFT || Integer.bitCount(length) != 1) {
+            return;
+        }
+        int offset = slotOffset(sizeClass(length));
+        for (int i = offset; i < offset + buffersPerSize; i++) {
+            if (slots.get(i) == null && slots.compareAndSet(i, null, buffer)) {
+                return;
+            }
+        }
+    }
+
+    private int slotOffset(int sizeClass) {
+        int stripe = (int) Thread.currentThread().getId() & stripeMask;
+        return (stripe * sizeClasses + sizeClass) * buffersPerSize;
+    }
+
+    private static int sizeClass(int size) {
+        return Math.max(0, Integer.SIZE - Integer.numberOfLeadingZeros(size - 1) - MIN_BUFFER_SHIFT);
+    }
+
+    /**
+     * {@code ByteArrayInputStream} over a pooled buffer, returning it to the pool when closed.
+     */
+    static final class PooledInputStream extends ByteArrayInputStream {
+
+        private final ResponseBufferPool pool;
+
+        private PooledInputStream(ResponseBufferPool pool, byte[] buffer, int count) {
+            super(buffer, 0, count);
+            this.pool = pool;
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+
+        int length() {
+            return count;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (buf != EMPTY) {
+                pool.release(buf);
+                buf = EMPTY;
+                count = 0;
+                pos = 0;
+                mark = 0;
+            }
+        }
+    }
+}
@@ -57,32 +57,42 @@ public final class RetryRequestExecutor implements RequestExecutor {
         }
     }
 
-    @SuppressWarnings("PMD.CloseResource")
     @Override
     public Response executeRequest(Request request) throws HttpException {
 
         Assert.notNull(request, "Request argument cannot be null.");
 
+        // Mark the original request params and headers so that we can permute them in the
+        // loop and start over with the original every time. Only modified values are retained,
+        // so nothing is copied unless the request actually changes.
+        QueryString query = request.getQueryString();
+        HttpHeaders headers = request.getHeaders();
+        query.mark();
+        headers.mark();
+
+        try {
+            return executeWithRetries(request, query, headers);
+        } finally {
+            query.unmark();
+            headers.unmark();
+        }
+    }
+
+    @SuppressWarnings("PMD.CloseResource")
+    private Response executeWithRetries(Request request, QueryString query, HttpHeaders headers) throws HttpException {
+
         int retryCount = 0;
         Response response = null;
         String requestId = null;
         Timer timer = new Timer();
 
-        // Make a copy of the original request params and headers so that we can
-        // permute them in the loop and start over with the original every time.
-        QueryString originalQuery = new QueryString();
-        originalQuery.putAll(request.getQueryString());
-
-        HttpHeaders originalHeaders = new HttpHeaders();
-        originalHeaders.putAll(request.getHeaders());
-
         while (true) {
 
             try {
 
                 if (retryCount > 0) {
-                    request.setQueryString(originalQuery);
-                    request.setHeaders(originalHeaders);
+                    query.reset();
+                    headers.reset();
 
                     // remember the request-id header if we need to retry
                     if (requestId == null) {
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Starts virtual threads (Java 21+) from code compiled for Java 8, falling back to daemon platform threads on older
+ * runtimes.
+ * <p>
+ * None of the request executors hold a monitor while blocking (the retry back-off in {@link RetryRequestExecutor}
+ * sleeps outside of any {@code synchronized} section), so their calls do not pin the carrier thread when made from a
+ * virtual thread.
+ *
+ * @since 2.0.2
+ */
+final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL;
+
+    private static final Method BUILDER_NAME;
+
+    private static final Method BUILDER_UNSTARTED;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method unstarted = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            name = builder.getMethod("name", String.class);
+            unstarted = builder.getMethod("unstarted", Runnable.class);
+
+            // Java 19 and 20 only support virtual threads as a preview feature, fails unless enabled
+            ofVirtual.invoke(null);
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_UNSTARTED = unstarted;
+    }
+
+    private VirtualThreads() {}
+
+    /**
+     * Returns {@code true} if the runtime supports virtual threads.
+     *
+     * @return {@code true} if the runtime supports virtual threads
+     */
+    static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Starts the given task on a new virtual thread if supported, on a new daemon platform thread otherwise.
+     *
+     * @param name the name of the thread
+     * @param task the task to run
+     * @return the started thread
+     */
+    static Thread start(String name, Runnable task) {
+        Thread thread;
+        if (isSupported()) {
+            thread = (Thread) invoke(BUILDER_UNSTARTED, invoke(BUILDER_NAME, invoke(OF_VIRTUAL, null), name), task);
+        } else {
+            thread = new Thread(task, name);
+            thread.setDaemon(true);
+        }
+        thread.start();
+        return thread;
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
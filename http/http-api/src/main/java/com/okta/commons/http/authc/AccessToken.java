@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http.authc;
+
+import com.okta.commons.lang.Assert;
+
+import java.time.Instant;
+
+/**
+ * An OAuth 2.0 access token and the time it expires at, see {@link BearerTokenAuthenticator}.
+ *
+ * @since 2.0.2
+ */
+public final class AccessToken {
+
+    private static final String BEARER = "Bearer";
+
+    private final String value;
+
+    private final Instant expiresAt;
+
+    private final String authorizationHeader;
+
+    /**
+     * Creates a bearer token.
+     *
+     * @param value the access token
+     * @param expiresAt the time the token expires at
+     */
+    public AccessToken(String value, Instant expiresAt) {
+        this(BEARER, value, expiresAt);
+    }
+
+    /**
+     * Creates a token of the given type, e.g. {@code DPoP}.
+     *
+     * @param tokenType the token type, used as the {@code Authorization} header's scheme
+     * @param value the access token
+     * @param expiresAt the time the token expires at
+     */
+    public AccessToken(String tokenType, String value, Instant expiresAt) {
+        Assert.hasText(tokenType, "tokenType cannot be empty");
+        Assert.hasText(value, "value cannot be empty");
+        Assert.notNull(expiresAt, "expiresAt cannot be null");
+        this.value = value;
+        this.expiresAt = expiresAt;
+        this.authorizationHeader = tokenType + " " + value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Returns the {@code Authorization} header value for this token, e.g. {@code Bearer <token>}.
+     *
+     * @return the {@code Authorization} header value
+     */
+    public String getAuthorizationHeader() {
+        return authorizationHeader;
+    }
+
+    @Override
+    public String toString() {
+        // never log the token itself
+        return "AccessToken{expiresAt=" + expiresAt + '}';
+    }
+}
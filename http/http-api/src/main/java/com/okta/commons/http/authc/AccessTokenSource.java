@@ -0,0 +1,34 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http.authc;
+
+/**
+ * Obtains new access tokens for a {@link BearerTokenAuthenticator}, typically by calling an authorization server's
+ * token endpoint.
+ *
+ * @since 2.0.2
+ */
+@FunctionalInterface
+public interface AccessTokenSource {
+
+    /**
+     * Obtains a new access token.  Calls are never concurrent for a given {@link BearerTokenAuthenticator}.
+     *
+     * @return a new access token
+     * @throws RequestAuthenticationException if no token can be obtained
+     */
+    AccessToken fetchAccessToken() throws RequestAuthenticationException;
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http.authc;
+
+import com.okta.commons.http.HttpException;
+import com.okta.commons.http.Request;
+import com.okta.commons.http.RequestExecutor;
+import com.okta.commons.http.Response;
+import com.okta.commons.lang.Assert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link RequestAuthenticator} adding an OAuth 2.0 access token to requests, as an {@code Authorization} header.
+ * <p>
+ * The token is obtained from an {@link AccessTokenSource} and cached until it expires:
+ * <ul>
+ *     <li>once a token is within the refresh window of its expiry, a new token is fetched in the background while
+ *     requests keep using the current one.  The window is capped to half the lifetime of each token, so that
+ *     short-lived tokens are not refreshed on every request</li>
+ *     <li>requests only wait for a token when there is no valid one, i.e. on the first request or when background
+ *     refreshes failed</li>
+ *     <li>after a failed background refresh, the next one is delayed, by 1 second then twice as long after each
+ *     consecutive failure up to a minute, so that requests do not hit an unavailable token endpoint one after
+ *     another</li>
+ *     <li>concurrent refreshes are coalesced, the source is only ever called by one thread at a time</li>
+ * </ul>
+ * A request rejected with a {@code 401} can be retried once with a new token by wrapping the request executor with
+ * {@link #withUnauthorizedRetry(RequestExecutor)}.
+ * <p>
+ * Tokens of the client credentials grant, with {@code private_key_jwt} client authentication, are obtained with a
+ * {@link PrivateKeyJwtAccessTokenSource}.
+ *
+ * @since 2.0.2
+ */
+public class BearerTokenAuthenticator implements RequestAuthenticator {
+
+    private static final Logger log = LoggerFactory.getLogger(BearerTokenAuthenticator.class);
+
+    private static final Duration DEFAULT_REFRESH_WINDOW = Duration.ofMinutes(1);
+
+    private static final int UNAUTHORIZED = 401;
+
+    private static final Duration MIN_RETRY_DELAY = Duration.ofSeconds(1);
+
+    private static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(1);
+
+    /**
+     * Runs background refreshes on a new daemon thread, refreshes happen about once per token lifetime.
+     */
+    private static final Executor NEW_THREAD_EXECUTOR = runnable -> {
+        Thread thread = new Thread(runnable, "okta-access-token-refresh");
+        thread.setDaemon(true);
+        thread.start();
+    };
+
+    private final AccessTokenSource accessTokenSource;
+
+    private final Duration refreshWindow;
+
+    private final Executor refreshExecutor;
+
+    private final Clock clock;
+
+    private volatile AccessToken accessToken;
+
+    /**
+     * When {@link #accessToken} enters its refresh window, always written before {@code accessToken}.
+     */
+    private volatile Instant refreshAt;
+
+    /**
+     * Refreshes that failed in a row, only written by the refresh in progress.
+     */
+    private volatile int failedRefreshes;
+
+    private final AtomicReference<CompletableFuture<AccessToken>> pendingRefresh = new AtomicReference<>();
+
+    /**
+     * Creates an authenticator refreshing tokens a minute before they expire.
+     *
+     * @param accessTokenSource the source of new access tokens
+     */
+    public BearerTokenAuthenticator(AccessTokenSource accessTokenSource) {
+        this(accessTokenSource, DEFAULT_REFRESH_WINDOW, NEW_THREAD_EXECUTOR);
+    }
+
+    /**
+     * Creates an authenticator refreshing tokens {@code refreshWindow} before they expire, on the given executor.
+     *
+     * @param accessTokenSource the source of new access tokens
+     * @param refreshWindow how long before a token expires a new one is fetched, at most half the lifetime of the token
+     * @param refreshExecutor the executor background refreshes run on
+     */
+    public BearerTokenAuthenticator(AccessTokenSource accessTokenSource, Duration refreshWindow, Executor refreshExecutor) {
+        this(accessTokenSource, refreshWindow, refreshExecutor, Clock.systemUTC());
+    }
+
+    BearerTokenAuthenticator(AccessTokenSource accessTokenSource, Duration refreshWindow, Executor refreshExecutor, Clock clock) {
+        Assert.notNull(accessTokenSource, "accessTokenSource cannot be null");
+        Assert.notNull(refreshWindow, "refreshWindow cannot be null");
+        Assert.isTrue(!refreshWindow.isNegative(), "refreshWindow cannot be negative");
+        Assert.notNull(refreshExecutor, "refreshExecutor cannot be null");
+        this.accessTokenSource = accessTokenSource;
+        this.refreshWindow = refreshWindow;
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
+    }
+
+    @Override
+    public void authenticate(Request request) throws RequestAuthenticationException {
+        request.getHeaders().set(AUTHORIZATION_HEADER, getAccessToken().getAuthorizationHeader());
+    }
+
+    /**
+     * Returns the current access token, waiting for a new one only if there is no valid token.
+     *
+     * @return a valid access token
+     * @throws RequestAuthenticationException if no valid token can be obtained
+     */
+    public AccessToken getAccessToken() throws RequestAuthenticationException {
+        AccessToken current = this.accessToken;
+        Instant now = clock.instant();
+
+        if (current == null || !now.isBefore(current.getExpiresAt())) {
+            return await(refresh(current, Runnable::run));
+        }
+        if (!now.isBefore(refreshAt)) {
+            refresh(current, refreshExecutor);
+        }
+        return current;
+    }
+
+    /**
+     * Discards the token that produced the given {@code Authorization} header, e.g. after a {@code 401} response,
+     * and waits for a new one.  When several requests are rejected with the same token, only one new token is
+     * fetched.
+     *
+     * @param rejectedAuthorizationHeader the {@code Authorization} header that was rejected
+     * @return {@code true} if a different token is now available
+     * @throws RequestAuthenticationException if no new token can be obtained
+     */
+    public boolean forceRefresh(String rejectedAuthorizationHeader) throws RequestAuthenticationException {
+        AccessToken current = this.accessToken;
+        if (current != null && !current.getAuthorizationHeader().equals(rejectedAuthorizationHeader)) {
+            // already replaced
+            return true;
+        }
+        AccessToken refreshed = await(refresh(current, Runnable::run));
+        return !refreshed.getAuthorizationHeader().equals(rejectedAuthorizationHeader);
+    }
+
+    /**
+     * Returns an executor that, when {@code delegate} returns a {@code 401} response, refreshes the access token
+     * (see {@link #forceRefresh(String)}) and executes the request once more.  {@code delegate} must authenticate
+     * requests with this authenticator.
+     *
+     * @param delegate the executor to wrap
+     * @return an executor retrying unauthorized requests once
+     */
+    public RequestExecutor withUnauthorizedRetry(RequestExecutor delegate) {
+        Assert.notNull(delegate, "delegate cannot be null");
+        return request -> {
+            Response response = delegate.executeRequest(request);
+            if (response.getHttpStatus() != UNAUTHORIZED) {
+                return response;
+            }
+
+            String rejected = request.getHeaders().getFirst(AUTHORIZATION_HEADER);
+            if (rejected == null || !forceRefresh(rejected)) {
+                return response;
+            }
+
+            closeQuietly(response.getBody());
+            InputStream content = request.getBody();
+            if (content != null && content.markSupported()) {
+                try {
+                    content.reset();
+                } catch (IOException e) {
+                    throw new HttpException("Unable to reset request body: " + e.getMessage(), e);
+                }
+            }
+            return delegate.executeRequest(request);
+        };
+    }
+
+    /**
+     * Returns the refresh in progress, or starts one on the given executor unless {@code stale} was replaced already.
+     */
+    private CompletableFuture<AccessToken> refresh(AccessToken stale, Executor executor) {
+        while (true) {
+            CompletableFuture<AccessToken> pending = pendingRefresh.get();
+            if (pending != null) {
+                return pending;
+            }
+
+            AccessToken current = this.accessToken;
+            if (current != stale) {
+                return CompletableFuture.completedFuture(current);
+            }
+
+            CompletableFuture<AccessToken> refresh = new CompletableFuture<>();
+            if (pendingRefresh.compareAndSet(null, refresh)) {
+                try {
+                    executor.execute(() -> fetch(refresh));
+                } catch (RejectedExecutionException e) {
+                    pendingRefresh.set(null);
+                    refresh.completeExceptionally(e);
+                }
+                return refresh;
+            }
+        }
+    }
+
+    private void fetch(CompletableFuture<AccessToken> refresh) {
+        try {
+            AccessToken fetched = accessTokenSource.fetchAccessToken();
+            Assert.notNull(fetched, "AccessTokenSource returned a null token");
+            this.refreshAt = fetched.getExpiresAt().minus(refreshWindow(fetched));
+            this.accessToken = fetched;
+            failedRefreshes = 0;
+            pendingRefresh.set(null);
+            refresh.complete(fetched);
+        } catch (Throwable e) {
+            Duration retryDelay = retryDelay(++failedRefreshes);
+            log.warn("Unable to refresh access token, retrying in {}: {}", retryDelay, e.getMessage());
+            Instant retryAt = clock.instant().plus(retryDelay);
+            Instant scheduled = this.refreshAt;
+            if (scheduled == null || scheduled.isBefore(retryAt)) {
+                this.refreshAt = retryAt;
+            }
+            pendingRefresh.set(null);
+            refresh.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Returns the refresh window of a token that was just fetched, capped to half its lifetime: a window as long as
+     * the lifetime would schedule a new refresh on every request.
+     */
+    private Duration refreshWindow(AccessToken fetched) {
+        Duration halfLifetime = Duration.between(clock.instant(), fetched.getExpiresAt()).dividedBy(2);
+        if (refreshWindow.compareTo(halfLifetime) <= 0) {
+            return refreshWindow;
+        }
+        log.debug("Refresh window {} exceeds half the lifetime of the access token, refreshing {} before expiry",
+                  refreshWindow, halfLifetime);
+        return halfLifetime.isNegative() ? Duration.ZERO : halfLifetime;
+    }
+
+    /**
+     * Returns how long after the given number of consecutive failures the token is refreshed again in the
+     * background.  Requests without a valid token still wait for a new one right away.
+     */
+    private static Duration retryDelay(int failures) {
+        Duration delay = MIN_RETRY_DELAY.multipliedBy(1L << Math.min(failures - 1, 16));
+        return delay.compareTo(MAX_RETRY_DELAY) < 0 ? delay : MAX_RETRY_DELAY;
+    }
+
+    private static AccessToken await(CompletableFuture<AccessToken> refresh) {
+        try {
+            return refresh.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RequestAuthenticationException) {
+                throw (RequestAuthenticationException) cause;
+            }
+            throw new RequestAuthenticationException("Unable to obtain access token: " + cause.getMessage(), cause);
+        }
+    }
+
+    private static void closeQuietly(InputStream inputStream) {
+        if (inputStream != null) {
+            try {
+                inputStream.close();
+            } catch (IOException ignored) { // NOPMD
+            }
+        }
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http.authc;
+
+import com.okta.commons.http.DefaultRequest;
+import com.okta.commons.http.HttpHeaders;
+import com.okta.commons.http.HttpMethod;
+import com.okta.commons.http.MediaType;
+import com.okta.commons.http.Request;
+import com.okta.commons.http.RequestExecutor;
+import com.okta.commons.http.RequestUtils;
+import com.okta.commons.http.Response;
+import com.okta.commons.lang.Assert;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.PrivateKey;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link AccessTokenSource} obtaining tokens with the OAuth 2.0 client credentials grant, the client authenticating
+ * with a {@code private_key_jwt} assertion from a {@link PrivateKeyJwtAssertionSource}.  Typically used as the source
+ * of a {@link BearerTokenAuthenticator}:
+ * <pre>
+ * RequestAuthenticator authenticator = new BearerTokenAuthenticator(
+ *         new PrivateKeyJwtAccessTokenSource(tokenRequestExecutor, tokenUrl, clientId, privateKey, keyId, scopes));
+ * </pre>
+ * The given {@link RequestExecutor} sends the token requests as they are, it must not authenticate them with the
+ * authenticator using this source, e.g. a transport configured with a
+ * {@link DisabledAuthenticator}.
+ *
+ * @since 2.0.2
+ */
+public class PrivateKeyJwtAccessTokenSource implements AccessTokenSource, Closeable {
+
+    private static final String BEARER = "Bearer";
+
+    private final RequestExecutor requestExecutor;
+
+    private final String tokenUrl;
+
+    private final PrivateKeyJwtAssertionSource assertionSource;
+
+    private final String scope;
+
+    private final Clock clock;
+
+    /**
+     * Creates a source signing single use assertions valid for 5 minutes with the given key.
+     *
+     * @param requestExecutor the executor sending token requests, without authenticating them
+     * @param tokenUrl the token endpoint URL, e.g. {@code https://example.okta.com/oauth2/v1/token}
+     * @param clientId the OAuth client id
+     * @param privateKey the RSA or EC private key of the client
+     * @param keyId the {@code kid} of the key, or {@code null}
+     * @param scopes the scopes to request, may be empty
+     */
+    public PrivateKeyJwtAccessTokenSource(RequestExecutor requestExecutor,
+                                          String tokenUrl,
+                                          String clientId,
+                                          PrivateKey privateKey,
+                                          String keyId,
+                                          Collection<String> scopes) {
+        this(requestExecutor, tokenUrl, new PrivateKeyJwtAssertionSource(clientId, tokenUrl, privateKey, keyId), scopes);
+    }
+
+    /**
+     * Creates a source authenticating with the assertions of the given source, whose audience must be
+     * {@code tokenUrl}.
+     *
+     * @param requestExecutor the executor sending token requests, without authenticating them
+     * @param tokenUrl the token endpoint URL, e.g. {@code https://example.okta.com/oauth2/v1/token}
+     * @param assertionSource the source of client assertions, closed along with this source
+     * @param scopes the scopes to request, may be empty
+     */
+    public PrivateKeyJwtAccessTokenSource(RequestExecutor requestExecutor,
+                                          String tokenUrl,
+                                          PrivateKeyJwtAssertionSource assertionSource,
+                                          Collection<String> scopes) {
+        this(requestExecutor, tokenUrl, assertionSource, scopes, Clock.systemUTC());
+    }
+
+    PrivateKeyJwtAccessTokenSource(RequestExecutor requestExecutor,
+                                   String tokenUrl,
+                                   PrivateKeyJwtAssertionSource assertionSource,
+                                   Collection<String> scopes,
+                                   Clock clock) {
+        Assert.notNull(requestExecutor, "requestExecutor cannot be null");
+        Assert.hasText(tokenUrl, "tokenUrl cannot be empty");
+        Assert.notNull(assertionSource, "assertionSource cannot be null");
+        this.requestExecutor = requestExecutor;
+        this.tokenUrl = tokenUrl;
+        this.assertionSource = assertionSource;
+        this.scope = scopes != null ? String.join(" ", scopes) : "";
+        this.clock = clock;
+    }
+
+    @Override
+    public AccessToken fetchAccessToken() throws RequestAuthenticationException {
+        StringBuilder form = new StringBuilder("grant_type=client_credentials");
+        if (!scope.isEmpty()) {
+            form.append("&scope=").append(RequestUtils.encodeUrl(scope, false, false));
+        }
+        form.append("&client_assertion_type=")
+            .append(RequestUtils.encodeUrl(PrivateKeyJwtAssertionSource.CLIENT_ASSERTION_TYPE, false, false))
+            .append("&client_assertion=")
+            .append(RequestUtils.encodeUrl(assertionSource.getClientAssertion(), false, false));
+        byte[] body = form.toString().getBytes(StandardCharsets.UTF_8);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+        Request request = new DefaultRequest(HttpMethod.POST, tokenUrl, null, headers, new ByteArrayInputStream(body), body.length);
+
+        Instant requestedAt = clock.instant();
+        Response response = requestExecutor.executeRequest(request);
+        Map<String, String> members = readJsonMembers(readBody(response));
+
+        if (response.getHttpStatus() != 200) {
+            String error = members.get("error_description") != null ? members.get("error_description") : members.get("error");
+            throw new RequestAuthenticationException("Token request failed with status " + response.getHttpStatus()
+                    + (error != null ? ": " + error : ""));
+        }
+        String accessToken = members.get("access_token");
+        String expiresIn = members.get("expires_in");
+        if (accessToken == null || expiresIn == null) {
+            throw new RequestAuthenticationException("Token response has no access_token or expires_in");
+        }
+        try {
+            return new AccessToken(BEARER, accessToken, requestedAt.plusSeconds(Long.parseLong(expiresIn)));
+        } catch (NumberFormatException e) {
+            throw new RequestAuthenticationException("Invalid expires_in in token response: " + expiresIn, e);
+        }
+    }
+
+    /**
+     * Closes the {@link PrivateKeyJwtAssertionSource}, releasing its signing key.
+     */
+    @Override
+    public void close() {
+        assertionSource.close();
+    }
+
+    private static String readBody(Response response) {
+        InputStream in = response.getBody();
+        if (in == null) {
+            return "";
+        }
+        try (InputStream body = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RequestAuthenticationException("Unable to read token response: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the string, number and literal members of a JSON object, strings unescaped, other values as they
+     * appear.  Nested objects and arrays are skipped, anything that is not a JSON object yields no members.
+     */
+    static Map<String, String> readJsonMembers(String json) {
+        Map<String, String> members = new HashMap<>();
+        JsonReader reader = new JsonReader(json);
+        if (!reader.consume('{')) {
+            return members;
+        }
+        while (reader.peek() == '"') {
+            String name = reader.readString();
+            if (!reader.consume(':')) {
+                break;
+            }
+            char next = reader.peek();
+            if (next == '"') {
+                members.put(name, reader.readString());
+            } else if (next == '{' || next == '[') {
+                reader.skipNested();
+            } else {
+                members.put(name, reader.readLiteral());
+            }
+            if (!reader.consume(',')) {
+                break;
+            }
+        }
+        return members;
+    }
+
+    private static final class JsonReader {
+
+        private final String json;
+
+        private int position;
+
+        private JsonReader(String json) {
+            this.json = json;
+        }
+
+        private char peek() {
+            while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+                position++;
+            }
+            return position < json.length() ? json.charAt(position) : 0;
+        }
+
+        private boolean consume(char expected) {
+            if (peek() != expected) {
+                return false;
+            }
+            position++;
+            return true;
+        }
+
+        private String readString() {
+            StringBuilder value = new StringBuilder();
+            position++; // opening quote
+            while (position < json.length()) {
+                char c = json.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\' || position >= json.length()) {
+                    value.append(c);
+                    continue;
+                }
+                char escaped = json.charAt(position++);
+                switch (escaped) {
+                    case 'b': value.append('\b'); break;
+                    case 'f': value.append('\f'); break;
+                    case 'n': value.append('\n'); break;
+                    case 'r': value.append('\r'); break;
+                    case 't': value.append('\t'); break;
+                    case 'u':
+                        if (position + 4 <= json.length()) {
+                            value.append((char) Integer.parseInt(json.substring(position, position + 4), 16));
+                            position += 4;
+                        }
+                        break;
+                    default: value.append(escaped);
+                }
+            }
+            return value.toString();
+        }
+
+        private String readLiteral() {
+            int start = position;
+            while (position < json.length() && ",}] \t\r\n".indexOf(json.charAt(position)) < 0) {
+                position++;
+            }
+            return json.substring(start, position);
+        }
+
+        private void skipNested() {
+            int depth = 0;
+            while (position < json.length()) {
+                char c = json.charAt(position);
+                if (c == '"') {
+                    readString();
+                    continue;
+                }
+                position++;
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if ((c == '}' || c == ']') && --depth == 0) {
+                    return;
+                }
+            }
+        }
+    }
+}
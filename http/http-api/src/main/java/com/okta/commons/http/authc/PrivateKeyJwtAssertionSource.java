@@ -0,0 +1,376 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http.authc;
+
+import com.okta.commons.lang.Assert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.interfaces.ECPrivateKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Creates signed JWT client assertions for the OAuth 2.0 {@code private_key_jwt} client authentication method
+ * (RFC 7523), to be sent as the {@code client_assertion} parameter of token requests, typically by a
+ * {@link PrivateKeyJwtAccessTokenSource}.
+ * <p>
+ * Signing is kept off the request path: the next assertion is signed in the background as soon as the current one
+ * is handed out, the caller only signs inline if none is ready (e.g. the first call or a burst of calls).  The
+ * private key is used as is, the JWT header and the constant claims are encoded once, and a few initialized
+ * {@link Signature} objects are pooled and shared by the signing threads.  {@link #close()} releases them.
+ * <p>
+ * By default every assertion is handed out once, as authorization servers such as Okta reject a reused {@code jti}.
+ * For servers accepting an assertion until it expires, {@code singleUse} can be disabled, the same assertion is then
+ * returned until it is close to expiring, its replacement being signed in the background.
+ * <p>
+ * RSA keys are signed with {@code RS256}, EC keys with {@code ES256}, {@code ES384} or {@code ES512} depending on
+ * their curve.
+ *
+ * @since 2.0.2
+ */
+public class PrivateKeyJwtAssertionSource implements Closeable {
+
+    /**
+     * The {@code client_assertion_type} parameter value to send along with assertions.
+     */
+    public static final String CLIENT_ASSERTION_TYPE = "urn:ietf:params:oauth:client-assertion-type:jwt-bearer";
+
+    private static final Logger log = LoggerFactory.getLogger(PrivateKeyJwtAssertionSource.class);
+
+    private static final Duration DEFAULT_LIFETIME = Duration.ofMinutes(5);
+
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    private static final int MAX_IDLE_SIGNATURES = 4;
+
+    private final String encodedHeader;
+
+    private final String claimsPrefix;
+
+    private final Duration lifetime;
+
+    /**
+     * An assertion with less than this remaining is never handed out.
+     */
+    private final Duration minRemaining;
+
+    private final boolean singleUse;
+
+    private final int ecSignatureSize;
+
+    private final String jcaAlgorithm;
+
+    private final PrivateKey privateKey;
+
+    /**
+     * Initialized signatures not in use, more are created when several threads sign at once.
+     */
+    private final BlockingQueue<Signature> idleSignatures = new ArrayBlockingQueue<>(MAX_IDLE_SIGNATURES);
+
+    private final Executor signingExecutor;
+
+    private final Clock clock;
+
+    private final AtomicReference<Assertion> ready = new AtomicReference<>();
+
+    private final AtomicBoolean signing = new AtomicBoolean();
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a source of single use assertions valid for 5 minutes.
+     *
+     * @param clientId the OAuth client id, used as issuer and subject
+     * @param audience the token endpoint URL
+     * @param privateKey the RSA or EC private key to sign with
+     * @param keyId the {@code kid} of the key, or {@code null}
+     */
+    public PrivateKeyJwtAssertionSource(String clientId, String audience, PrivateKey privateKey, String keyId) {
+        this(clientId, audience, privateKey, keyId, DEFAULT_LIFETIME, true, DefaultSigningExecutor.INSTANCE);
+    }
+
+    /**
+     * Creates a source of assertions.
+     *
+     * @param clientId the OAuth client id, used as issuer and subject
+     * @param audience the token endpoint URL
+     * @param privateKey the RSA or EC private key to sign with
+     * @param keyId the {@code kid} of the key, or {@code null}
+     * @param lifetime how long assertions are valid for
+     * @param singleUse whether each assertion is handed out only once
+     * @param signingExecutor the executor assertions are signed ahead of time on
+     */
+    public PrivateKeyJwtAssertionSource(String clientId,
+                                        String audience,
+                                        PrivateKey privateKey,
+                                        String keyId,
+                                        Duration lifetime,
+                                        boolean singleUse,
+                                        Executor signingExecutor) {
+        this(clientId, audience, privateKey, keyId, lifetime, singleUse, signingExecutor, Clock.systemUTC());
+    }
+
+    PrivateKeyJwtAssertionSource(String clientId,
+                                 String audience,
+                                 PrivateKey privateKey,
+                                 String keyId,
+                                 Duration lifetime,
+                                 boolean singleUse,
+                                 Executor signingExecutor,
+                                 Clock clock) {
+        Assert.hasText(clientId, "clientId cannot be empty");
+        Assert.hasText(audience, "audience cannot be empty");
+        Assert.notNull(privateKey, "privateKey cannot be null");
+        Assert.notNull(lifetime, "lifetime cannot be null");
+        Assert.isTrue(lifetime.getSeconds() >= 10, "lifetime must be at least 10 seconds");
+        Assert.notNull(signingExecutor, "signingExecutor cannot be null");
+
+        String algorithm;
+        String jcaAlgorithm;
+        if (privateKey instanceof ECPrivateKey) {
+            int fieldSize = ((ECPrivateKey) privateKey).getParams().getCurve().getField().getFieldSize();
+            int hashSize = fieldSize > 384 ? 512 : fieldSize > 256 ? 384 : 256;
+            algorithm = "ES" + hashSize;
+            jcaAlgorithm = "SHA" + hashSize + "withECDSA";
+            this.ecSignatureSize = (fieldSize + 7) / 8;
+        } else {
+            Assert.isTrue("RSA".equals(privateKey.getAlgorithm()), "privateKey must be an RSA or EC key");
+            algorithm = "RS256";
+            jcaAlgorithm = "SHA256withRSA";
+            this.ecSignatureSize = 0;
+        }
+
+        StringBuilder header = new StringBuilder("{\"alg\":\"").append(algorithm).append("\",\"typ\":\"JWT\"");
+        if (keyId != null) {
+            appendJsonString(header.append(",\"kid\":"), keyId);
+        }
+        this.encodedHeader = base64Url(header.append('}').toString());
+
+        StringBuilder claims = new StringBuilder();
+        appendJsonString(claims.append("{\"iss\":"), clientId);
+        appendJsonString(claims.append(",\"sub\":"), clientId);
+        appendJsonString(claims.append(",\"aud\":"), audience);
+        this.claimsPrefix = claims.toString();
+
+        this.lifetime = lifetime;
+        this.minRemaining = lifetime.dividedBy(10);
+        this.singleUse = singleUse;
+        this.signingExecutor = signingExecutor;
+        this.clock = clock;
+        this.jcaAlgorithm = jcaAlgorithm;
+        this.privateKey = privateKey;
+        // fail fast on unusable keys
+        try {
+            idleSignatures.add(newSignature());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Unable to sign with the given private key: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns a signed client assertion.
+     *
+     * @return a signed client assertion
+     * @throws RequestAuthenticationException if the assertion cannot be signed
+     */
+    public String getClientAssertion() throws RequestAuthenticationException {
+        Assert.state(!closed, "PrivateKeyJwtAssertionSource is closed");
+        Instant now = clock.instant();
+        Assertion assertion = singleUse ? ready.getAndSet(null) : ready.get();
+
+        if (assertion == null || !now.isBefore(assertion.staleAt)) {
+            assertion = sign(now);
+            if (!singleUse) {
+                ready.set(assertion);
+            }
+        }
+
+        // prepare the next one, for single use assertions right away, otherwise half way through its lifetime
+        if (singleUse || !now.isBefore(assertion.renewAt)) {
+            signAhead();
+        }
+        return assertion.value;
+    }
+
+    /**
+     * Discards the assertion signed ahead of time and the pooled {@link Signature} objects, which hold the
+     * initialized private key.  No assertion can be obtained afterwards.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        ready.set(null);
+        idleSignatures.clear();
+    }
+
+    private void signAhead() {
+        if (!signing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            signingExecutor.execute(() -> {
+                try {
+                    if (closed) {
+                        return;
+                    }
+                    Assertion next = sign(clock.instant());
+                    if (singleUse) {
+                        ready.compareAndSet(null, next);
+                    } else {
+                        ready.set(next);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Unable to sign client assertion: {}", e.getMessage());
+                } finally {
+                    signing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            signing.set(false);
+        }
+    }
+
+    private Assertion sign(Instant now) {
+        long issuedAt = now.getEpochSecond();
+        long expiresAt = issuedAt + lifetime.getSeconds();
+
+        StringBuilder claims = new StringBuilder(claimsPrefix.length() + 80).append(claimsPrefix)
+                .append(",\"iat\":").append(issuedAt)
+                .append(",\"exp\":").append(expiresAt)
+                .append(",\"jti\":\"").append(UUID.randomUUID()).append("\"}");
+
+        String signingInput = encodedHeader + '.' + base64Url(claims.toString());
+        byte[] signed;
+        try {
+            Signature signature = idleSignatures.poll();
+            if (signature == null) {
+                signature = newSignature();
+            }
+            signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+            signed = signature.sign();
+            // sign() resets the signature for reuse, one that failed is dropped
+            if (!closed && idleSignatures.offer(signature) && closed) {
+                // closed concurrently
+                idleSignatures.clear();
+            }
+        } catch (GeneralSecurityException e) {
+            throw new RequestAuthenticationException("Unable to sign client assertion: " + e.getMessage(), e);
+        }
+        if (ecSignatureSize > 0) {
+            signed = derToConcatenated(signed, ecSignatureSize);
+        }
+
+        Instant expiry = Instant.ofEpochSecond(expiresAt);
+        return new Assertion(signingInput + '.' + BASE64_URL.encodeToString(signed),
+                             expiry.minus(minRemaining),
+                             Instant.ofEpochSecond(issuedAt).plus(lifetime.dividedBy(2)));
+    }
+
+    private Signature newSignature() throws GeneralSecurityException {
+        Signature signature = Signature.getInstance(jcaAlgorithm);
+        signature.initSign(privateKey);
+        return signature;
+    }
+
+    /**
+     * Converts a DER encoded ECDSA signature to the fixed size {@code R || S} form JWS uses.
+     */
+    static byte[] derToConcatenated(byte[] der, int size) {
+        // SEQUENCE, length (one or two bytes), INTEGER r, INTEGER s
+        int offset = (der[1] & 0x80) != 0 ? 2 + (der[1] & 0x7F) : 2;
+        int rLength = der[offset + 1];
+        int rOffset = offset + 2;
+        int sLength = der[rOffset + rLength + 1];
+        int sOffset = rOffset + rLength + 2;
+
+        byte[] concatenated = new byte[size * 2];
+        copyUnsigned(der, rOffset, rLength, concatenated, 0, size);
+        copyUnsigned(der, sOffset, sLength, concatenated, size, size);
+        return concatenated;
+    }
+
+    private static void copyUnsigned(byte[] source, int offset, int length, byte[] target, int targetOffset, int size) {
+        // drop the sign padding, left pad to the fixed size
+        while (length > size && source[offset] == 0) {
+            offset++;
+            length--;
+        }
+        System.arraycopy(source, offset, target, targetOffset + size - length, length);
+    }
+
+    private static String base64Url(String value) {
+        return BASE64_URL.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void appendJsonString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    private static final class Assertion {
+
+        private final String value;
+
+        private final Instant staleAt;
+
+        private final Instant renewAt;
+
+        private Assertion(String value, Instant staleAt, Instant renewAt) {
+            this.value = value;
+            this.staleAt = staleAt;
+            this.renewAt = renewAt;
+        }
+    }
+
+    /**
+     * Shared daemon thread signing assertions ahead of time, created on first use.
+     */
+    private static final class DefaultSigningExecutor {
+
+        private static final ExecutorService INSTANCE = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "okta-client-assertion-signer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -16,6 +16,7 @@
  */
 package com.okta.commons.http.config;
 
+import com.okta.commons.http.ResponseBufferPool;
 import com.okta.commons.http.authc.RequestAuthenticator;
 import nl.altindag.ssl.SSLFactory;
 
@@ -40,6 +41,8 @@ public class HttpClientConfiguration {
     private int retryMaxElapsed = 0;
     private int retryMaxAttempts = 0;
     private SSLFactory sslFactory;
+    private ResponseBufferPool responseBufferPool;
+    private long responseBodySpillThreshold = -1;
     private final Map<String, String> requestExecutorParams = new HashMap<>();
 
     public RequestAuthenticator getRequestAuthenticator() {
@@ -155,6 +158,55 @@ public class HttpClientConfiguration {
         this.sslFactory = sslFactory;
     }
 
+    /**
+     * Returns the pool response bodies are read into, or {@code null} (the default) if each body is read into a newly
+     * allocated array.
+     *
+     * @return the response buffer pool, or {@code null}
+     * @since 2.0.2
+     */
+    public ResponseBufferPool getResponseBufferPool() {
+        return responseBufferPool;
+    }
+
+    /**
+     * Sets the pool response bodies are read into, a body's buffer is returned to the pool when
+     * {@link com.okta.commons.http.Response#getBody() its stream} is closed.
+     *
+     * @param responseBufferPool the pool to use, or {@code null} to disable pooling
+     * @return this configuration
+     * @since 2.0.2
+     */
+    public HttpClientConfiguration setResponseBufferPool(ResponseBufferPool responseBufferPool) {
+        this.responseBufferPool = responseBufferPool;
+        return this;
+    }
+
+    /**
+     * Returns the size, in bytes, above which response bodies are spilled to a temporary file rather than kept in
+     * memory, a negative value (the default) if bodies are always kept in memory.
+     *
+     * @return the spill threshold in bytes, or a negative value
+     * @since 2.0.2
+     */
+    public long getResponseBodySpillThreshold() {
+        return responseBodySpillThreshold;
+    }
+
+    /**
+     * Sets the size, in bytes, above which response bodies are spilled to a temporary file rather than kept in memory.
+     * Spilled bodies are still read fully before the connection is released, the file is deleted when
+     * {@link com.okta.commons.http.Response#getBody() the body's stream} is closed.
+     *
+     * @param responseBodySpillThreshold the spill threshold in bytes, or a negative value to disable spilling
+     * @return this configuration
+     * @since 2.0.2
+     */
+    public HttpClientConfiguration setResponseBodySpillThreshold(long responseBodySpillThreshold) {
+        this.responseBodySpillThreshold = responseBodySpillThreshold;
+        return this;
+    }
+
     public void setRequestExecutorParams(Map<String, String> map) {
         this.requestExecutorParams.putAll(map);
     }
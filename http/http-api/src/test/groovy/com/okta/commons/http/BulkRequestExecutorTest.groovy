@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http
+
+import org.testng.annotations.Test
+
+import java.util.concurrent.Executor
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.atomic.AtomicInteger
+
+import static org.testng.Assert.assertEquals
+import static org.testng.Assert.assertFalse
+import static org.testng.Assert.assertNull
+import static org.testng.Assert.assertSame
+import static org.testng.Assert.assertTrue
+
+class BulkRequestExecutorTest {
+
+    @Test
+    void testResultsAreOrderedAndParallelismIsBounded() {
+        def inFlight = new AtomicInteger()
+        def maxInFlight = new AtomicInteger()
+        def delegate = { Request request ->
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math.&max)
+            Thread.sleep(new Random().nextInt(5))
+            inFlight.decrementAndGet()
+            return response(200)
+        } as RequestExecutor
+
+        def requests = (0..<100).collect { new DefaultRequest(HttpMethod.GET, "https://example.com/${it}") }
+        def streamed = []
+        def callerThread = Thread.currentThread()
+
+        def results = new BulkRequestExecutor(delegate, 4).executeAll(requests, {
+            assertSame Thread.currentThread(), callerThread
+            streamed.add(it.index)
+        })
+
+        assertEquals results.size(), 100
+        results.eachWithIndex { result, i ->
+            assertEquals result.index, i
+            assertSame result.request, requests[i]
+            assertTrue result.successful
+            assertEquals result.response.httpStatus, 200
+        }
+        assertEquals streamed.sort(), (0..<100).toList()
+        assertTrue maxInFlight.get() <= 4
+        assertTrue maxInFlight.get() > 1
+    }
+
+    @Test(timeOut = 10000L)
+    void testErrorsAreCollected() {
+        def delegate = { Request request ->
+            if (request.resourceUrl.path == "/1") {
+                throw new StackOverflowError("deep")
+            }
+            if (request.resourceUrl.path == "/2") {
+                throw new IOException("sneaky")
+            }
+            return response(200)
+        } as RequestExecutor
+
+        def requests = (0..<4).collect { new DefaultRequest(HttpMethod.GET, "https://example.com/${it}") }
+        def results = new BulkRequestExecutor(delegate, 1).executeAll(requests)
+
+        assertEquals results.size(), 4
+        assertTrue results[0].successful
+        assertFalse results[1].successful
+        assertTrue results[1].exception instanceof HttpException
+        assertTrue results[1].exception.cause instanceof StackOverflowError
+        assertFalse results[2].successful
+        assertTrue results[2].exception.cause instanceof IOException
+        assertTrue results[3].successful
+    }
+
+    @Test
+    void testFailuresAreCollected() {
+        def delegate = { Request request ->
+            if (request.resourceUrl.path == "/1") {
+                throw new HttpException("boom")
+            }
+            return response(500)
+        } as RequestExecutor
+
+        def requests = (0..<3).collect { new DefaultRequest(HttpMethod.GET, "https://example.com/${it}") }
+        def results = new BulkRequestExecutor(delegate, 2).executeAll(requests)
+
+        assertTrue results[0].successful
+        assertEquals results[0].response.httpStatus, 500
+        assertFalse results[1].successful
+        assertNull results[1].response
+        assertEquals results[1].exception.message, "boom"
+        assertTrue results[2].successful
+    }
+
+    @Test
+    void testRateLimitPausesDispatch() {
+        def times = Collections.synchronizedList([])
+        def delegate = { Request request ->
+            times.add(System.currentTimeMillis())
+            def response = response(200)
+            if (times.size() == 1) {
+                long now = System.currentTimeMillis()
+                response.headers.setDate(now)
+                response.headers.set("X-Rate-Limit-Remaining", "0")
+                response.headers.set("X-Rate-Limit-Reset", String.valueOf((now / 1000) as long))
+            }
+            return response
+        } as RequestExecutor
+
+        def requests = (0..<2).collect { new DefaultRequest(HttpMethod.GET, "https://example.com/${it}") }
+        new BulkRequestExecutor(delegate, 1).executeAll(requests)
+
+        assertTrue times[1] - times[0] >= 900
+    }
+
+    @Test
+    void testRejectedWorkersRunOnCallingThread() {
+        def executor = { throw new RejectedExecutionException() } as Executor
+        def threads = []
+        def delegate = { Request request ->
+            threads.add(Thread.currentThread())
+            return response(200)
+        } as RequestExecutor
+
+        def requests = (0..<3).collect { new DefaultRequest(HttpMethod.GET, "https://example.com/${it}") }
+        def results = new BulkRequestExecutor(delegate, 2, executor).executeAll(requests)
+
+        assertEquals results.size(), 3
+        assertEquals threads, [Thread.currentThread()] * 3
+    }
+
+    @Test
+    void testEmptyBatch() {
+        def delegate = { throw new IllegalStateException() } as RequestExecutor
+        assertTrue new BulkRequestExecutor(delegate, 2).executeAll([]).isEmpty()
+    }
+
+    private static Response response(int status) {
+        return DefaultResponse.withHeaders(status, new HttpHeaders(), null, 0)
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http
+
+import com.okta.commons.http.FaultInjectingRequestExecutor.Fault
+import org.testng.Assert
+import org.testng.annotations.BeforeMethod
+import org.testng.annotations.Test
+
+import java.nio.charset.StandardCharsets
+import java.time.Duration
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+import static org.testng.Assert.assertEquals
+import static org.testng.Assert.assertTrue
+
+class FaultInjectingRequestExecutorTest {
+
+    private AtomicInteger calls
+
+    private RequestExecutor delegate
+
+    @BeforeMethod
+    void setup() {
+        calls = new AtomicInteger()
+        delegate = { Request request ->
+            calls.incrementAndGet()
+            byte[] body = "0123456789".getBytes(StandardCharsets.UTF_8)
+            return new DefaultResponse(200, MediaType.APPLICATION_JSON, new ByteArrayInputStream(body), body.length)
+        } as RequestExecutor
+    }
+
+    @Test
+    void testErrorStatus() {
+        def fault = Fault.status(503)
+        def executor = new FaultInjectingRequestExecutor(delegate).addFault(fault, 1.0)
+
+        def response = executor.executeRequest(request("/api/v1/users"))
+
+        assertEquals response.httpStatus, 503
+        assertTrue response.body.getText("UTF-8").contains("\"errorSummary\":\"Injected 503 response\"")
+        assertEquals calls.get(), 0
+        assertEquals fault.injectedCount, 1L
+    }
+
+    @Test
+    void testRateLimitedStatus() {
+        def executor = new FaultInjectingRequestExecutor(delegate).addFault(Fault.status(429), 1.0)
+
+        def response = executor.executeRequest(request("/api/v1/users"))
+
+        assertEquals response.httpStatus, 429
+        assertEquals response.headers.getFirst("X-Rate-Limit-Remaining"), "0"
+        assertTrue response.headers.getDate() > 0
+        assertEquals response.headers.getFirst("X-Rate-Limit-Reset") as long, TimeUnit.MILLISECONDS.toSeconds(response.headers.getDate()) + 1
+    }
+
+    @Test
+    void testConnectionReset() {
+        def executor = new FaultInjectingRequestExecutor(delegate).addFault(Fault.connectionReset(), 1.0)
+
+        def e = expect(HttpException, { executor.executeRequest(request("/api/v1/users")) })
+
+        assertTrue e.retryable
+        assertTrue e.cause instanceof SocketException
+        assertEquals calls.get(), 0
+    }
+
+    @Test
+    void testSocketTimeout() {
+        def executor = new FaultInjectingRequestExecutor(delegate).addFault(Fault.socketTimeout(Duration.ofMillis(20)), 1.0)
+
+        long start = System.nanoTime()
+        def e = expect(HttpException, { executor.executeRequest(request("/api/v1/users")) })
+
+        assertTrue System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20)
+        assertTrue e.retryable
+        assertTrue e.cause instanceof SocketTimeoutException
+    }
+
+    @Test
+    void testFixedLatency() {
+        def executor = new FaultInjectingRequestExecutor(delegate).addFault(Fault.latency(Duration.ofMillis(20)), 1.0)
+
+        long start = System.nanoTime()
+        assertEquals executor.executeRequest(request("/api/v1/users")).httpStatus, 200
+        assertTrue System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20)
+    }
+
+    @Test
+    void testLogNormalLatencyDistribution() {
+        def fault = Fault.logNormalLatency(Duration.ofMillis(50), Duration.ofMillis(800))
+        def executor = new FaultInjectingRequestExecutor(delegate, 42)
+
+        def samples = (1..20_000).collect { fault.latencyNanos(executor) }.sort()
+
+        assertApproximately samples[10_000], TimeUnit.MILLISECONDS.toNanos(50), 0.05
+        assertApproximately samples[19_800], TimeUnit.MILLISECONDS.toNanos(800), 0.15
+    }
+
+    @Test
+    void testProbability() {
+        def fault = Fault.status(503)
+        def executor = new FaultInjectingRequestExecutor(delegate, 42).addFault(fault, 0.2)
+
+        1000.times { executor.executeRequest(request("/api/v1/users")) }
+
+        assertTrue fault.injectedCount > 150 && fault.injectedCount < 250, "injected ${fault.injectedCount} times"
+        assertEquals calls.get() + fault.injectedCount, 1000L
+    }
+
+    @Test
+    void testPathPattern() {
+        def executor = new FaultInjectingRequestExecutor(delegate).addFault(Fault.status(504), 1.0, "/api/v1/users(/.*)?")
+
+        assertEquals executor.executeRequest(request("/api/v1/users")).httpStatus, 504
+        assertEquals executor.executeRequest(request("/api/v1/users/00u1")).httpStatus, 504
+        assertEquals executor.executeRequest(request("/api/v1/groups")).httpStatus, 200
+    }
+
+    @Test
+    void testSchedule() {
+        def clock = new AtomicLong()
+        def executor = new FaultInjectingRequestExecutor(delegate, new Random(), clock.&get)
+                .addFault(Fault.status(503), 1.0, null, Duration.ofMinutes(1), Duration.ofSeconds(10))
+
+        def statusAt = { int seconds ->
+            clock.set(TimeUnit.SECONDS.toNanos(seconds))
+            return executor.executeRequest(request("/api/v1/users")).httpStatus
+        }
+
+        assertEquals statusAt(5), 503
+        assertEquals statusAt(15), 200
+        assertEquals statusAt(59), 200
+        assertEquals statusAt(65), 503
+    }
+
+    @Test
+    void testTruncatedBody() {
+        def executor = new FaultInjectingRequestExecutor(delegate).addFault(Fault.truncatedBody(0.5), 1.0)
+
+        def response = executor.executeRequest(request("/api/v1/users"))
+        assertEquals response.httpStatus, 200
+        assertEquals response.headers.getContentLength(), 10L
+
+        byte[] buffer = new byte[20]
+        def body = response.body
+        assertEquals body.read(buffer), 5
+        assertEquals new String(buffer, 0, 5, StandardCharsets.UTF_8), "01234"
+        expect(IOException, { body.read(buffer) })
+        assertEquals calls.get(), 1
+    }
+
+    @Test
+    void testTruncatedTransfer() {
+        def closed = new AtomicInteger()
+        def fault = Fault.truncatedTransfer()
+        def executor = new FaultInjectingRequestExecutor({ Request request ->
+            calls.incrementAndGet()
+            def body = new ByteArrayInputStream("0123456789".getBytes(StandardCharsets.UTF_8)) {
+                @Override
+                void close() {
+                    closed.incrementAndGet()
+                }
+            }
+            return new DefaultResponse(200, MediaType.APPLICATION_JSON, body, 10)
+        } as RequestExecutor).addFault(fault, 1.0)
+
+        def e = expect(HttpException, { executor.executeRequest(request("/api/v1/users")) })
+
+        assertTrue e.retryable
+        assertTrue e.cause instanceof SocketException
+        assertEquals calls.get(), 1
+        assertEquals closed.get(), 1
+        assertEquals fault.injectedCount, 1L
+    }
+
+    @Test
+    void testOnlyFirstTruncationIsCounted() {
+        def first = Fault.truncatedBody(0.5)
+        def second = Fault.truncatedBody(0.2)
+        def executor = new FaultInjectingRequestExecutor(delegate)
+                .addFault(first, 1.0)
+                .addFault(second, 1.0)
+
+        assertEquals executor.executeRequest(request("/api/v1/users")).body.read(new byte[20]), 5
+        assertEquals first.injectedCount, 1L
+        assertEquals second.injectedCount, 0L
+    }
+
+    @Test
+    void testFirstTerminalFaultWins() {
+        def latency = Fault.latency(Duration.ofMillis(1))
+        def status = Fault.status(503)
+        def reset = Fault.connectionReset()
+        def truncation = Fault.truncatedBody(0.5)
+        def executor = new FaultInjectingRequestExecutor(delegate)
+                .addFault(latency, 1.0)
+                .addFault(status, 1.0)
+                .addFault(reset, 1.0)
+                .addFault(truncation, 1.0)
+
+        assertEquals executor.executeRequest(request("/api/v1/users")).httpStatus, 503
+        // only the faults that were applied are counted
+        assertEquals latency.injectedCount, 1L
+        assertEquals status.injectedCount, 1L
+        assertEquals reset.injectedCount, 0L
+        assertEquals truncation.injectedCount, 0L
+    }
+
+    private static Request request(String path) {
+        return new DefaultRequest(HttpMethod.GET, "https://example.com${path}")
+    }
+
+    private static void assertApproximately(long actual, long expected, double tolerance) {
+        assertTrue Math.abs(actual - expected) <= expected * tolerance, "${actual} is not within ${tolerance} of ${expected}"
+    }
+
+    static <T extends Throwable> T expect(Class<T> catchMe, Closure closure) {
+        try {
+            closure.call()
+            Assert.fail("Expected ${catchMe.getName()} to be thrown.")
+        } catch(e) {
+            if (!e.class.isAssignableFrom(catchMe)) {
+                throw e
+            }
+            return e
+        }
+    }
+}
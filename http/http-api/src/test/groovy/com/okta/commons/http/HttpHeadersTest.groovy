@@ -22,6 +22,7 @@ import org.testng.annotations.BeforeMethod
 import org.testng.annotations.Test
 
 import java.nio.charset.Charset
+import java.nio.charset.StandardCharsets
 import java.text.SimpleDateFormat
 
 import static org.hamcrest.MatcherAssert.assertThat
@@ -105,6 +106,18 @@ class HttpHeadersTest {
         assertTrue allowedMethods.contains(HttpMethod.POST)
     }
 
+    @Test
+    void testCommaSeparatedValuesAreTrimmed() {
+
+        httpHeaders.set("Allow", " GET ,POST,, DELETE")
+        httpHeaders.set("Accept-Charset", "utf-8 , iso-8859-1;q=0.5, *")
+        httpHeaders.set("If-None-Match", "\"a\" ,\"b\"")
+
+        assertEquals httpHeaders.getAllow(), EnumSet.of(HttpMethod.GET, HttpMethod.POST, HttpMethod.DELETE)
+        assertEquals httpHeaders.getAcceptCharset(), [StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1]
+        assertEquals httpHeaders.getIfNoneMatch(), ["\"a\"", "\"b\""]
+    }
+
     @Test
     void testCacheControl() {
 
@@ -442,4 +455,86 @@ class HttpHeadersTest {
         assertThat httpHeaders.getXHeaders().get("X-HEADER1"), equalTo(["value1", "value2"])
         assertThat httpHeaders.getXHeaders().get("X-HeADeR2"), equalTo(["single-value"])
     }
-}
\ No newline at end of file
+
+    @Test
+    void testMarkAndReset() {
+
+        httpHeaders.add("Accept", "application/json")
+        httpHeaders.add("X-Okta-Test", "one")
+        httpHeaders.mark()
+
+        httpHeaders.add("X-Okta-Test", "two")
+        httpHeaders.set("Authorization", "SSWS token")
+        httpHeaders.remove("Accept")
+        assertEquals httpHeaders.get("X-Okta-Test"), ["one", "two"]
+
+        httpHeaders.reset()
+        assertEquals httpHeaders.get("X-Okta-Test"), ["one"]
+        assertEquals httpHeaders.get("Accept"), ["application/json"]
+        assertNull httpHeaders.get("Authorization")
+
+        // the mark is kept until unmark() is called
+        httpHeaders.clear()
+        httpHeaders.reset()
+        assertThat httpHeaders.keySet(), containsInAnyOrder("Accept", "X-Okta-Test")
+
+        httpHeaders.unmark()
+        httpHeaders.add("X-Okta-Test", "three")
+        httpHeaders.reset()
+        assertEquals httpHeaders.get("X-Okta-Test"), ["one", "three"]
+    }
+
+    @Test
+    void testNestedMarks() {
+
+        httpHeaders.add("X-Okta-Test", "one")
+        httpHeaders.mark()
+        httpHeaders.add("X-Okta-Test", "two")
+
+        httpHeaders.mark()
+        httpHeaders.add("X-Okta-Test", "three")
+        httpHeaders.set("Authorization", "SSWS token")
+        httpHeaders.reset()
+        assertEquals httpHeaders.get("X-Okta-Test"), ["one", "two"]
+        assertNull httpHeaders.get("Authorization")
+
+        httpHeaders.add("X-Okta-Test", "three")
+        httpHeaders.unmark()
+        httpHeaders.reset()
+        assertEquals httpHeaders.get("X-Okta-Test"), ["one"]
+        assertNull httpHeaders.get("Authorization")
+    }
+
+    @Test
+    void testFromNameValuePairs() {
+
+        String[][] pairs = [["Content-Type", "application/json"],
+                            ["X-Okta-Test", "one"],
+                            ["x-okta-test", "two"],
+                            ["Link", "<https://example.com/next>; rel=\"next\""]]
+        def headers = HttpHeaders.fromNameValuePairs(pairs.length, { pairs[it][0] }, { pairs[it][1] })
+
+        assertSame headers.getContentType(), MediaType.APPLICATION_JSON
+        assertEquals headers.get("X-OKTA-TEST"), ["one", "two"]
+        assertEquals headers.getFirst("x-okta-test"), "one"
+        assertTrue headers.containsKey("link")
+        assertFalse headers.containsKey("Accept")
+        assertEquals headers.size(), 3
+
+        def values = []
+        headers.forEachValue { name, value -> values.add(name + ":" + value) }
+        assertEquals values, ["Content-Type:application/json", "X-Okta-Test:one", "x-okta-test:two",
+                              "Link:<https://example.com/next>; rel=\"next\""]
+
+        // modifications copy the pairs, the source is never written to
+        headers.add("X-Okta-Test", "three")
+        headers.remove("Link")
+        assertEquals headers.get("x-okta-test"), ["one", "two", "three"]
+        assertNull headers.get("Link")
+        assertEquals pairs.length, 4
+
+        def copy = new HttpHeaders()
+        copy.putAll(headers)
+        assertEquals copy, headers
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http
+
+import org.testng.Assert
+import org.testng.annotations.Test
+
+import static org.testng.Assert.assertEquals
+import static org.testng.Assert.assertSame
+
+class MediaTypeTest {
+
+    @Test
+    void testParseReturnsCanonicalInstances() {
+        assertSame MediaType.parseMediaType("application/json"), MediaType.APPLICATION_JSON
+        assertSame MediaType.parseMediaType("Application/JSON"), MediaType.APPLICATION_JSON
+        assertSame MediaType.parseMediaType("application/json; charset=UTF-8"), MediaType.APPLICATION_JSON_UTF8
+        assertSame MimeTypeUtils.parseMimeType("text/plain"), MimeTypeUtils.TEXT_PLAIN
+
+        // the canonical instances survive the cache being cleared
+        (0..200).each { MediaType.parseMediaType("multipart/form-data;boundary=b${it}") }
+        assertSame MediaType.parseMediaType("application/json"), MediaType.APPLICATION_JSON
+    }
+
+    @Test
+    void testInvalidValuesAreNotCached() {
+        expect(InvalidMediaTypeException, { MediaType.parseMediaType(null) })
+        expect(InvalidMediaTypeException, { MediaType.parseMediaType("json") })
+        expect(InvalidMediaTypeException, { MediaType.parseMediaType("json") })
+        expect(InvalidMimeTypeException, { MimeTypeUtils.parseMimeType("") })
+    }
+
+    @Test
+    void testSingleParameter() {
+        def mediaType = MediaType.parseMediaType("text/html;Charset=utf-8")
+        assertEquals mediaType.getParameter("charset"), "utf-8"
+        assertEquals mediaType.getParameter("CHARSET"), "utf-8"
+        assertEquals mediaType.getParameters().size(), 1
+        assertEquals mediaType.toString(), "text/html;Charset=utf-8"
+        assertEquals mediaType, new MediaType("text", "html", [charset: "utf-8"])
+        assertEquals new MediaType("text", "html", [charset: "utf-8"]), mediaType
+        expect(UnsupportedOperationException, { mediaType.getParameters().put("q", "1") })
+    }
+
+    @Test
+    void testSerialization() {
+        def mediaType = MediaType.parseMediaType("multipart/form-data;boundary=abc;charset=utf-8")
+        def bytes = new ByteArrayOutputStream()
+        new ObjectOutputStream(bytes).withCloseable { it.writeObject(mediaType) }
+        def copy = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject()
+
+        assertEquals copy, mediaType
+        assertEquals copy.hashCode(), mediaType.hashCode()
+        assertEquals copy.toString(), mediaType.toString()
+    }
+
+    static <T extends Throwable> T expect(Class<T> catchMe, Closure closure) {
+        try {
+            closure.call()
+            Assert.fail("Expected ${catchMe.getName()} to be thrown.")
+        } catch(e) {
+            if (!e.class.isAssignableFrom(catchMe)) {
+                throw e
+            }
+            return e
+        }
+    }
+}
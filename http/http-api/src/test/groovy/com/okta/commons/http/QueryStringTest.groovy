@@ -16,10 +16,12 @@
  */
 package com.okta.commons.http
 
+import org.testng.Assert
 import org.testng.annotations.Test
 
 import static org.testng.Assert.assertEquals
 import static org.testng.Assert.assertNull
+import static org.testng.Assert.assertSame
 
 /**
  * @since 0.5.0
@@ -98,4 +100,145 @@ class QueryStringTest {
         def qs = new QueryString(query)
         assertEquals qs.toString(), "since=2017-11-30T21%3A15%3A16Z"
     }
+
+    @Test
+    void testMarkAndReset() {
+        def qs = QueryString.create("limit=20&filter=status")
+        qs.mark()
+
+        qs.put("after", "abc")
+        qs.put("limit", 200)
+        qs.remove("filter")
+        assertEquals qs.toString(), "after=abc&limit=200"
+
+        qs.reset()
+        assertEquals qs.toString(), "filter=status&limit=20"
+
+        qs.clear()
+        qs.reset()
+        assertEquals qs.toString(), "filter=status&limit=20"
+
+        qs.unmark()
+        qs.put("after", "abc")
+        qs.reset()
+        assertEquals qs.toString(), "after=abc&filter=status&limit=20"
+    }
+
+    @Test
+    void testNestedMarks() {
+        def qs = QueryString.create("limit=20")
+        qs.mark()
+        qs.put("after", "abc")
+
+        qs.mark()
+        qs.put("after", "def")
+        qs.add("filter", "a")
+        qs.add("filter", "b")
+        qs.reset()
+        assertEquals qs.toString(), "after=abc&limit=20"
+
+        qs.add("filter", "c")
+        qs.unmark()
+        qs.reset()
+        assertEquals qs.toString(), "limit=20"
+    }
+
+    @Test
+    void testEncodedFormIsCachedUntilModified() {
+        def qs = new QueryString([q: "a b*~", filter: "status eq \"ACTIVE\""])
+        def encoded = qs.toString()
+        assertEquals encoded, "filter=status+eq+%22ACTIVE%22&q=a+b*%7E"
+        assertSame qs.toString(), encoded
+        assertEquals qs.toString(true), "filter=status%20eq%20%22ACTIVE%22&q=a%20b%2A~"
+
+        qs.put("limit", 10)
+        assertEquals qs.toString(), "filter=status+eq+%22ACTIVE%22&limit=10&q=a+b*%7E"
+
+        qs.entrySet().find { it.key == "limit" }.setValue("20")
+        assertEquals qs.toString(), "filter=status+eq+%22ACTIVE%22&limit=20&q=a+b*%7E"
+
+        qs.remove("filter")
+        qs.computeIfPresent("q") { k, v -> "\u00e9" }
+        assertEquals qs.toString(), "limit=20&q=%C3%A9"
+    }
+
+    @Test
+    void testModificationsThroughViews() {
+        def qs = QueryString.create("after=abc&filter=status&limit=20&type=a&type=b")
+        qs.mark()
+
+        // views obtained before the encoded form is cached
+        def entries = qs.entrySet().iterator()
+        def type = qs.entrySet().find { it.key == "type" }
+        assertEquals qs.toString(), "after=abc&filter=status&limit=20&type=a&type=b"
+
+        entries.next()
+        entries.remove()
+        assertEquals qs.toString(), "filter=status&limit=20&type=a&type=b"
+
+        assertEquals type.setValue("c"), "b"
+        assertEquals qs.getAll("type"), ["c"]
+        assertEquals qs.toString(), "filter=status&limit=20&type=c"
+
+        qs.keySet().removeIf { it == "filter" }
+        assertEquals qs.toString(true), "limit=20&type=c"
+
+        qs.values().remove("20")
+        assertEquals qs.toString(), "type=c"
+        assertEquals qs.toString(true), "type=c"
+
+        qs.reset()
+        assertEquals qs.toString(), "after=abc&filter=status&limit=20&type=a&type=b"
+    }
+
+    @Test
+    void testNavigableViewsAreReadOnly() {
+        def qs = QueryString.create("after=abc&limit=20")
+        assertEquals qs.headMap("limit"), [after: "abc"]
+        assertEquals qs.descendingKeySet().first(), "limit"
+
+        expect(UnsupportedOperationException) { qs.headMap("limit").clear() }
+        expect(UnsupportedOperationException) { qs.tailMap("after", true).put("b", "c") }
+        expect(UnsupportedOperationException) { qs.subMap("a", "z").remove("after") }
+        expect(UnsupportedOperationException) { qs.descendingMap().pollFirstEntry() }
+        expect(UnsupportedOperationException) { qs.navigableKeySet().remove("after") }
+        expect(UnsupportedOperationException) { qs.descendingKeySet().iterator().with { next(); remove() } }
+        assertEquals qs.toString(), "after=abc&limit=20"
+    }
+
+    @Test
+    void testCreateWithRepeatedKeys() {
+        def qs = QueryString.create("type=a&type=b&limit=2&&type=c%2Bd&expand")
+        assertEquals qs.toString(), "expand=&limit=2&type=a&type=b&type=c%2Bd"
+        assertEquals qs.get("type"), "c+d"
+        assertEquals qs.getAll("type"), ["a", "b", "c+d"]
+        assertEquals qs.getAll("limit"), ["2"]
+        assertEquals qs.getAll("missing"), []
+
+        qs.put("type", "z")
+        assertEquals qs.getAll("type"), ["z"]
+        assertEquals qs.toString(), "expand=&limit=2&type=z"
+    }
+
+    @Test
+    void testDefaultRequestParsesHref() {
+        def request = new DefaultRequest(HttpMethod.GET, "https://example.com/api/v1/users?after=abc%3D&limit=200&q=a+b", new QueryString([limit: 5]))
+        assertEquals request.resourceUrl, URI.create("https://example.com/api/v1/users")
+        assertEquals request.queryString, [after: "abc=", limit: "5", q: "a b"]
+
+        request = new DefaultRequest(HttpMethod.GET, "https://example.com/api/v1/users?")
+        assertEquals request.queryString.toString(), ""
+    }
+
+    static <T extends Throwable> T expect(Class<T> catchMe, Closure closure) {
+        try {
+            closure.call()
+            Assert.fail("Expected ${catchMe.getName()} to be thrown.")
+        } catch(e) {
+            if (!e.class.isAssignableFrom(catchMe)) {
+                throw e
+            }
+            return e
+        }
+    }
 }
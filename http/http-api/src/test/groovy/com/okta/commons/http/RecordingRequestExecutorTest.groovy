@@ -0,0 +1,255 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http
+
+import org.testng.Assert
+import org.testng.annotations.BeforeMethod
+import org.testng.annotations.Test
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.atomic.AtomicInteger
+
+import static org.testng.Assert.assertEquals
+import static org.testng.Assert.assertFalse
+import static org.testng.Assert.assertNull
+import static org.testng.Assert.assertTrue
+
+class RecordingRequestExecutorTest {
+
+    private AtomicInteger calls
+
+    private RequestExecutor transport
+
+    @BeforeMethod
+    void setup() {
+        calls = new AtomicInteger()
+        transport = { Request request ->
+            int call = calls.incrementAndGet()
+            if (request.resourceUrl.path == "/fail") {
+                throw new HttpException("Connection reset", new SocketException("Connection reset"), true)
+            }
+            if (request.resourceUrl.path == "/slow") {
+                Thread.sleep(100)
+            }
+            byte[] body = "{\"call\":${call},\"secret\":\"s3cr3t\"}".getBytes(StandardCharsets.UTF_8)
+            def headers = new HttpHeaders()
+            headers.setContentType(MediaType.APPLICATION_JSON)
+            headers.add("Set-Cookie", "sid=abc")
+            headers.add("X-Rate-Limit-Remaining", "42")
+            return DefaultResponse.withHeaders(200, headers, new ByteArrayInputStream(body), body.length)
+        } as RequestExecutor
+    }
+
+    @Test
+    void testRecordAndReplay() {
+        Path file = tempFile()
+        new RecordingRequestExecutor(transport, file).withCloseable { recorder ->
+            def response = recorder.executeRequest(request(HttpMethod.GET, "/api/v1/users", [limit: "10"]))
+            // the caller still gets the body
+            assertEquals response.body.getText("UTF-8"), "{\"call\":1,\"secret\":\"s3cr3t\"}"
+        }
+
+        new ReplayingRequestExecutor(file).withCloseable { replayer ->
+            assertEquals replayer.size(), 1
+            def response = replayer.executeRequest(request(HttpMethod.GET, "/api/v1/users", [limit: "10"]))
+            assertEquals response.httpStatus, 200
+            assertEquals response.headers.getFirst("X-Rate-Limit-Remaining"), "42"
+            assertEquals response.headers.getContentType(), MediaType.APPLICATION_JSON
+            assertEquals response.body.getText("UTF-8"), "{\"call\":1,\"secret\":\"s3cr3t\"}"
+        }
+        assertEquals calls.get(), 1
+    }
+
+    @Test
+    void testRedaction() {
+        Path file = tempFile()
+        def redactor = { byte[] body -> new String(body, StandardCharsets.UTF_8).replace("s3cr3t", "***").getBytes(StandardCharsets.UTF_8) }
+        new RecordingRequestExecutor(transport, file, ["Authorization", "Set-Cookie"], redactor).withCloseable { recorder ->
+            def request = request(HttpMethod.POST, "/api/v1/users", [:])
+            request.headers.set("Authorization", "SSWS token")
+            def response = recorder.executeRequest(request)
+            assertEquals response.headers.getFirst("Set-Cookie"), "sid=abc"
+            assertTrue response.body.getText("UTF-8").contains("s3cr3t")
+        }
+
+        String recorded = new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1)
+        assertFalse recorded.contains("SSWS token")
+        assertFalse recorded.contains("sid=abc")
+        assertFalse recorded.contains("s3cr3t")
+
+        new ReplayingRequestExecutor(file).withCloseable { replayer ->
+            def response = replayer.executeRequest(request(HttpMethod.POST, "/api/v1/users", [:]))
+            assertEquals response.headers.getFirst("Set-Cookie"), RecordingRequestExecutor.REDACTED
+            assertEquals response.body.getText("UTF-8"), "{\"call\":1,\"secret\":\"***\"}"
+        }
+    }
+
+    @Test
+    void testRequestBodyIsResetForDelegate() {
+        Path file = tempFile()
+        String sent = null
+        RequestExecutor echo = { Request request ->
+            sent = request.body.getText("UTF-8")
+            return new DefaultResponse(204, MediaType.APPLICATION_JSON, null, 0)
+        } as RequestExecutor
+
+        new RecordingRequestExecutor(echo, file).withCloseable { recorder ->
+            byte[] body = "{\"profile\":{}}".getBytes(StandardCharsets.UTF_8)
+            def request = new DefaultRequest(HttpMethod.PUT, "https://example.com/api/v1/users/1", new QueryString(),
+                                             new HttpHeaders(), new ByteArrayInputStream(body), body.length)
+            assertNull recorder.executeRequest(request).body
+        }
+        assertEquals sent, "{\"profile\":{}}"
+        assertTrue new String(Files.readAllBytes(file), StandardCharsets.UTF_8).contains("{\"profile\":{}}")
+    }
+
+    @Test
+    void testContentLengthOfBufferedBody() {
+        Path file = tempFile()
+        byte[] body = "{\"chunked\":true}".getBytes(StandardCharsets.UTF_8)
+        RequestExecutor chunked = { Request request ->
+            return DefaultResponse.withHeaders(200, new HttpHeaders(), new ByteArrayInputStream(body), -1)
+        } as RequestExecutor
+
+        new RecordingRequestExecutor(chunked, file).withCloseable { recorder ->
+            // the body is in memory once recorded, so its length is known
+            def response = recorder.executeRequest(request(HttpMethod.GET, "/a", [:]))
+            assertEquals response.headers.getContentLength(), body.length as long
+            assertEquals response.body.getText("UTF-8"), "{\"chunked\":true}"
+        }
+    }
+
+    @Test
+    void testRepeatedRequestsCycle() {
+        Path file = tempFile()
+        new RecordingRequestExecutor(transport, file).withCloseable { recorder ->
+            3.times { recorder.executeRequest(request(HttpMethod.GET, "/api/v1/groups", [:])).body.close() }
+        }
+
+        new ReplayingRequestExecutor(file).withCloseable { replayer ->
+            def calls = (1..4).collect {
+                replayer.executeRequest(request(HttpMethod.GET, "/api/v1/groups", [:])).body.getText("UTF-8")
+            }
+            assertEquals calls.collect { (it =~ /"call":(\d)/)[0][1] }, ["1", "2", "3", "1"]
+        }
+    }
+
+    @Test
+    void testRecordingsAreAppended() {
+        Path file = tempFile()
+        new RecordingRequestExecutor(transport, file).withCloseable { it.executeRequest(request(HttpMethod.GET, "/a", [:])) }
+        new RecordingRequestExecutor(transport, file).withCloseable { it.executeRequest(request(HttpMethod.GET, "/b", [:])) }
+
+        new ReplayingRequestExecutor(file).withCloseable { replayer ->
+            assertEquals replayer.size(), 2
+            assertEquals replayer.executeRequest(request(HttpMethod.GET, "/b", [:])).httpStatus, 200
+        }
+    }
+
+    @Test
+    void testFailuresAreReplayed() {
+        Path file = tempFile()
+        new RecordingRequestExecutor(transport, file).withCloseable { recorder ->
+            expect(HttpException, { recorder.executeRequest(request(HttpMethod.GET, "/fail", [:])) })
+        }
+
+        new ReplayingRequestExecutor(file).withCloseable { replayer ->
+            def e = expect(HttpException, { replayer.executeRequest(request(HttpMethod.GET, "/fail", [:])) })
+            assertEquals e.message, "Connection reset"
+            assertTrue e.retryable
+        }
+    }
+
+    @Test
+    void testUnrecordedRequestFails() {
+        Path file = tempFile()
+        new RecordingRequestExecutor(transport, file).withCloseable { it.executeRequest(request(HttpMethod.GET, "/a", [limit: "1"])) }
+
+        new ReplayingRequestExecutor(file).withCloseable { replayer ->
+            def e = expect(HttpException, { replayer.executeRequest(request(HttpMethod.GET, "/a", [limit: "2"])) })
+            assertEquals e.message, "No recorded response for GET https://example.com/a?limit=2"
+            expect(HttpException, { replayer.executeRequest(request(HttpMethod.DELETE, "/a", [limit: "1"])) })
+        }
+    }
+
+    @Test
+    void testTimeScale() {
+        Path file = tempFile()
+        new RecordingRequestExecutor(transport, file).withCloseable { it.executeRequest(request(HttpMethod.GET, "/slow", [:])) }
+
+        assertTrue elapsedMillis(new ReplayingRequestExecutor(file, 1.0)) >= 100
+        assertTrue elapsedMillis(new ReplayingRequestExecutor(file, 0.5)) >= 50
+        assertTrue elapsedMillis(new ReplayingRequestExecutor(file)) < 50
+    }
+
+    @Test
+    void testTruncatedRecordIsIgnored() {
+        Path file = tempFile()
+        new RecordingRequestExecutor(transport, file).withCloseable { recorder ->
+            recorder.executeRequest(request(HttpMethod.GET, "/a", [:]))
+            recorder.executeRequest(request(HttpMethod.GET, "/b", [:]))
+        }
+        byte[] bytes = Files.readAllBytes(file)
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 10))
+
+        new ReplayingRequestExecutor(file).withCloseable { replayer ->
+            assertEquals replayer.size(), 1
+            assertEquals replayer.executeRequest(request(HttpMethod.GET, "/a", [:])).httpStatus, 200
+        }
+    }
+
+    @Test
+    void testNotARecording() {
+        Path file = tempFile()
+        Files.write(file, "not a recording".getBytes(StandardCharsets.UTF_8))
+
+        expect(IOException, { new ReplayingRequestExecutor(file) })
+        expect(IOException, { new RecordingRequestExecutor(transport, file) })
+    }
+
+    private static long elapsedMillis(ReplayingRequestExecutor replayer) {
+        replayer.withCloseable {
+            long start = System.nanoTime()
+            it.executeRequest(request(HttpMethod.GET, "/slow", [:]))
+            return (System.nanoTime() - start).intdiv(1_000_000L) as long
+        }
+    }
+
+    private static Path tempFile() {
+        Path file = Files.createTempFile("okta-recording", ".rec")
+        Files.delete(file)
+        file.toFile().deleteOnExit()
+        return file
+    }
+
+    private static Request request(HttpMethod method, String path, Map<String, String> query) {
+        return new DefaultRequest(method, "https://example.com${path}", new QueryString(query))
+    }
+
+    static <T extends Throwable> T expect(Class<T> catchMe, Closure closure) {
+        try {
+            closure.call()
+            Assert.fail("Expected ${catchMe.getName()} to be thrown.")
+        } catch(e) {
+            if (!e.class.isAssignableFrom(catchMe)) {
+                throw e
+            }
+            return e
+        }
+    }
+}
@@ -65,6 +65,28 @@ class RequestUtilsTest {
         ]
     }
 
+    @Test(dataProvider = "encodeUrlData")
+    void encodeUrlTest(String value, boolean path, boolean canonical, String expected) {
+        assertThat(RequestUtils.encodeUrl(value, path, canonical), is(expected))
+        assertThat(RequestUtils.encodeUrl(value, path, canonical, new StringBuilder("?")).toString(), is("?" + (expected ?: "")))
+    }
+
+    @DataProvider
+    Object[][] encodeUrlData() {
+        return [
+            [null, false, false, ""],
+            ["", false, true, ""],
+            ["simple-value_1.0", false, false, "simple-value_1.0"],
+            ["a b*~/+", false, false, "a+b*%7E%2F%2B"],
+            ["a b*~/+", false, true, "a%20b%2A~%2F%2B"],
+            ["a b*~/+", true, true, "a%20b%2A~/%2B"],
+            ["a b*~/+", true, false, "a+b*%7E%2F%2B"],
+            ["caf\u00e9 \u20ac", false, false, "caf%C3%A9+%E2%82%AC"],
+            ["\ud83d\ude00", false, false, "%F0%9F%98%80"],
+            ["\ud83d", false, false, "%3F"]
+        ]
+    }
+
     private Request mockRequest(String uri = "https://example.com/a-resource",
                                 HttpMethod method = HttpMethod.GET,
                                 HttpHeaders headers = mock(HttpHeaders),
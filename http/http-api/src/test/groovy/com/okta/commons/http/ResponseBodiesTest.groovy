@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http
+
+import org.testng.annotations.Test
+
+import static org.testng.Assert.assertEquals
+import static org.testng.Assert.assertFalse
+import static org.testng.Assert.assertTrue
+
+class ResponseBodiesTest {
+
+    @Test
+    void testSmallBodiesStayInMemory() {
+        byte[] content = bytes(1000)
+
+        def body = ResponseBodies.read(new ByteArrayInputStream(content), -1, null, 1000)
+        assertTrue body instanceof ByteArrayInputStream
+        assertEquals body.bytes, content
+
+        body = ResponseBodies.read(new ByteArrayInputStream(content), content.length, new ResponseBufferPool(), -1)
+        assertTrue body instanceof ByteArrayInputStream
+        assertEquals body.bytes, content
+    }
+
+    @Test
+    void testLargeBodiesAreSpilled() {
+        byte[] content = bytes(50_000)
+
+        // unknown length, the first 1000 bytes are read into memory before spilling
+        assertSpilled ResponseBodies.read(new ByteArrayInputStream(content), -1, null, 1000), content
+        assertSpilled ResponseBodies.read(new ByteArrayInputStream(content), -1, new ResponseBufferPool(), 1000), content
+        // known length, spilled directly
+        assertSpilled ResponseBodies.read(new ByteArrayInputStream(content), content.length, null, 1000), content
+        // one byte over the threshold
+        assertSpilled ResponseBodies.read(new ByteArrayInputStream(content), -1, null, content.length - 1), content
+    }
+
+    @Test
+    void testSpilledBodySupportsMarkAndSkip() {
+        byte[] content = bytes(5000)
+        def body = ResponseBodies.read(new ByteArrayInputStream(content), -1, null, 0)
+
+        assertEquals body.skip(1000), 1000L
+        body.mark(0)
+        assertEquals body.read(), content[1000] & 0xFF
+        body.reset()
+        assertEquals body.available(), 4000
+        assertEquals body.skip(10_000), 4000L
+        assertEquals body.read(), -1
+        body.close()
+        assertEquals body.available(), 0
+    }
+
+    private static void assertSpilled(InputStream body, byte[] content) {
+        assertFalse body instanceof ByteArrayInputStream
+        assertEquals body.available(), content.length
+        assertEquals body.bytes, content
+        body.close()
+    }
+
+    private static byte[] bytes(int length) {
+        byte[] bytes = new byte[length]
+        new Random(length).nextBytes(bytes)
+        return bytes
+    }
+}
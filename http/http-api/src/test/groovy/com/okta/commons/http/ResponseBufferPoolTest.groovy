@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http
+
+import org.testng.annotations.Test
+
+import static org.testng.Assert.assertEquals
+import static org.testng.Assert.assertNotSame
+import static org.testng.Assert.assertSame
+
+class ResponseBufferPoolTest {
+
+    @Test
+    void testReadKnownLength() {
+        def pool = new ResponseBufferPool()
+        byte[] content = bytes(1500)
+
+        def body = pool.read(new ByteArrayInputStream(content), content.length)
+        assertEquals body.available(), 1500
+        assertEquals body.bytes, content
+    }
+
+    @Test
+    void testReadUnknownLength() {
+        def pool = new ResponseBufferPool(16 * 1024, 2)
+        byte[] content = bytes(100_000)
+
+        // larger than the biggest pooled buffer, still read fully
+        assertEquals pool.read(new ByteArrayInputStream(content), -1).bytes, content
+        assertEquals pool.read(new ByteArrayInputStream(new byte[0]), -1).bytes, new byte[0]
+    }
+
+    @Test
+    void testReadExactPowerOfTwo() {
+        def pool = new ResponseBufferPool()
+        byte[] content = bytes(4096)
+
+        assertEquals pool.read(new ByteArrayInputStream(content), content.length).bytes, content
+        // wrong content length, more bytes than announced
+        assertEquals pool.read(new ByteArrayInputStream(content), 1024).bytes, content
+    }
+
+    @Test
+    void testBufferReturnedOnClose() {
+        def pool = new ResponseBufferPool()
+
+        byte[] buffer = pool.acquire(3000)
+        assertEquals buffer.length, 4096
+        pool.release(buffer)
+        assertSame pool.acquire(2049), buffer
+        assertNotSame pool.acquire(2049), buffer
+
+        def body = pool.read(new ByteArrayInputStream(bytes(3000)), 3000)
+        body.close()
+        body.close()
+        assertEquals body.read(), -1
+        assertEquals pool.acquire(4096).length, 4096
+    }
+
+    private static byte[] bytes(int length) {
+        byte[] bytes = new byte[length]
+        new Random(length).nextBytes(bytes)
+        return bytes
+    }
+}
@@ -122,6 +122,30 @@ class RetryRequestExecutorTest {
                                                 lessThan(6500)))
     }
 
+    @Test
+    void testRetrySendsOriginalQueryAndHeaders() {
+
+        def headers = new HttpHeaders()
+        headers.set("X-Okta-Test", "original")
+        def request = new DefaultRequest(HttpMethod.GET, "https://example.com/a-resource", QueryString.create("limit=20"), headers)
+
+        List<String> sent = []
+        def delegate = { Request attempt ->
+            sent.add("${attempt.queryString.toString()}|${attempt.headers.get("X-Okta-Test")}|${attempt.headers.getFirst("Authorization")}".toString())
+            // e.g. an authenticator or an interceptor modifying the request during the attempt
+            attempt.queryString.put("after", "abc")
+            attempt.queryString.put("limit", "200")
+            attempt.headers.add("X-Okta-Test", "modified")
+            attempt.headers.set("Authorization", "SSWS token")
+            return stubResponse("content", sent.size() == 1 ? 503 : 200)
+        } as RequestExecutor
+
+        def response = createRequestExecutor(mock(RequestAuthenticator), 15, 4, delegate).executeRequest(request)
+
+        assertThat response.httpStatus, is(200)
+        assertThat sent, contains("limit=20|[original]|null", "limit=20|[original]|null")
+    }
+
     @Test
     void test429DelayTooLong() {
 
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http
+
+import org.testng.annotations.Test
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
+
+import static org.testng.Assert.assertEquals
+import static org.testng.Assert.assertTrue
+
+class VirtualThreadsTest {
+
+    @Test
+    void testStart() {
+        def ran = new CompletableFuture<Thread>()
+        def thread = VirtualThreads.start("test-thread", { ran.complete(Thread.currentThread()) })
+
+        assertEquals ran.get(5, TimeUnit.SECONDS), thread
+        assertEquals thread.name, "test-thread"
+        assertTrue thread.daemon
+        assertEquals isVirtual(thread), VirtualThreads.supported
+    }
+
+    private static boolean isVirtual(Thread thread) {
+        def method = Thread.methods.find { it.name == "isVirtual" }
+        return method != null && method.invoke(thread)
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http.authc
+
+import com.okta.commons.http.DefaultRequest
+import com.okta.commons.http.DefaultResponse
+import com.okta.commons.http.HttpMethod
+import com.okta.commons.http.Request
+import com.okta.commons.http.RequestExecutor
+import com.okta.commons.http.Response
+import com.sun.net.httpserver.HttpServer
+import org.testng.annotations.BeforeMethod
+import org.testng.annotations.Test
+
+import java.nio.charset.StandardCharsets
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneId
+import java.time.ZoneOffset
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import static org.testng.Assert.assertEquals
+import static org.testng.Assert.assertTrue
+import static org.testng.Assert.fail
+
+class BearerTokenAuthenticatorTest {
+
+    private final Instant start = Instant.parse("2020-01-01T00:00:00Z")
+
+    private MutableClock clock
+
+    @BeforeMethod
+    void setup() {
+        clock = new MutableClock(start)
+    }
+
+    @Test
+    void testTokenIsCached() {
+        def fetches = new AtomicInteger()
+        def authenticator = authenticator({ new AccessToken("token-${fetches.incrementAndGet()}", start.plusSeconds(3600)) })
+
+        def request = request()
+        authenticator.authenticate(request)
+        authenticator.authenticate(request)
+        clock.now = start.plusSeconds(3000)
+
+        authenticator.authenticate(request)
+        assertEquals request.headers.getFirst("Authorization"), "Bearer token-1"
+        assertEquals fetches.get(), 1
+    }
+
+    @Test
+    void testRefreshInBackgroundBeforeExpiry() {
+        def fetches = new AtomicInteger()
+        List<Runnable> background = []
+        def authenticator = new BearerTokenAuthenticator({
+            new AccessToken("token-${fetches.incrementAndGet()}", clock.instant().plusSeconds(3600))
+        }, Duration.ofMinutes(5), { background.add(it) } as Executor, clock)
+
+        assertEquals authenticator.accessToken.value, "token-1"
+
+        // within the refresh window, the current token is still used while a single refresh is scheduled
+        clock.now = start.plusSeconds(3400)
+        assertEquals authenticator.accessToken.value, "token-1"
+        assertEquals authenticator.accessToken.value, "token-1"
+        assertEquals background.size(), 1
+
+        background[0].run()
+        assertEquals authenticator.accessToken.value, "token-2"
+        assertEquals fetches.get(), 2
+    }
+
+    @Test
+    void testRefreshWindowIsCappedToHalfTheTokenLifetime() {
+        def fetches = new AtomicInteger()
+        List<Runnable> background = []
+        // a window longer than the 10 minute lifetime of the tokens
+        def authenticator = new BearerTokenAuthenticator({
+            new AccessToken("token-${fetches.incrementAndGet()}", clock.instant().plusSeconds(600))
+        }, Duration.ofMinutes(15), { background.add(it) } as Executor, clock)
+
+        assertEquals authenticator.accessToken.value, "token-1"
+        clock.now = start.plusSeconds(299)
+        assertEquals authenticator.accessToken.value, "token-1"
+        assertTrue background.isEmpty()
+
+        clock.now = start.plusSeconds(300)
+        assertEquals authenticator.accessToken.value, "token-1"
+        assertEquals background.size(), 1
+        background[0].run()
+
+        // the new token is not refreshed again right away
+        assertEquals authenticator.accessToken.value, "token-2"
+        assertEquals authenticator.accessToken.value, "token-2"
+        assertEquals background.size(), 1
+        assertEquals fetches.get(), 2
+    }
+
+    @Test
+    void testFailedBackgroundRefreshIsDelayed() {
+        def fetches = new AtomicInteger()
+        List<Runnable> background = []
+        def authenticator = new BearerTokenAuthenticator({
+            if (fetches.incrementAndGet() > 1 && fetches.get() < 5) {
+                throw new IllegalStateException("token endpoint unavailable")
+            }
+            new AccessToken("token-${fetches.get()}", start.plusSeconds(3600))
+        }, Duration.ofMinutes(5), { background.add(it) } as Executor, clock)
+        authenticator.accessToken
+
+        clock.now = start.plusSeconds(3400)
+        assertEquals authenticator.accessToken.value, "token-1"
+        background.remove(0).run()
+
+        // retried 1s, then 2s and 4s after each failure, not on every request
+        [1, 2, 4].each { delay ->
+            clock.now = clock.now.plusSeconds(delay - 1)
+            assertEquals authenticator.accessToken.value, "token-1"
+            assertTrue background.isEmpty()
+
+            clock.now = clock.now.plusSeconds(1)
+            assertEquals authenticator.accessToken.value, "token-1"
+            assertEquals background.size(), 1
+            background.remove(0).run()
+        }
+        assertEquals authenticator.accessToken.value, "token-5"
+        assertEquals fetches.get(), 5
+    }
+
+    @Test
+    void testExpiredTokenIsRefreshedOnce() {
+        def fetches = new AtomicInteger()
+        def entered = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def authenticator = authenticator({
+            if (fetches.incrementAndGet() == 2) {
+                entered.countDown()
+                release.await(5, TimeUnit.SECONDS)
+            }
+            new AccessToken("token-${fetches.get()}", clock.instant().plusSeconds(3600))
+        })
+        authenticator.accessToken
+        clock.now = start.plusSeconds(4000)
+
+        def pool = Executors.newFixedThreadPool(8)
+        try {
+            def futures = (1..8).collect { pool.submit({ authenticator.accessToken.value } as Callable) }
+            entered.await(5, TimeUnit.SECONDS)
+            release.countDown()
+            futures.each { assertEquals it.get(5, TimeUnit.SECONDS), "token-2" }
+        } finally {
+            pool.shutdownNow()
+        }
+        assertEquals fetches.get(), 2
+    }
+
+    @Test
+    void testFailedFetch() {
+        def authenticator = authenticator({ throw new IllegalStateException("token endpoint unavailable") })
+        try {
+            authenticator.authenticate(request())
+            fail("Expected RequestAuthenticationException")
+        } catch (RequestAuthenticationException e) {
+            assertTrue e.message.contains("token endpoint unavailable")
+        }
+    }
+
+    @Test
+    void testUnauthorizedRetry() {
+        def fetches = new AtomicInteger()
+        def authenticator = authenticator({ new AccessToken("token-${fetches.incrementAndGet()}", start.plusSeconds(3600)) })
+
+        List<String> sent = []
+        RequestExecutor transport = { Request request ->
+            authenticator.authenticate(request)
+            String header = request.headers.getFirst("Authorization")
+            sent.add(header)
+            new DefaultResponse(header == "Bearer token-1" ? 401 : 200, null, null, 0)
+        } as RequestExecutor
+
+        Response response = authenticator.withUnauthorizedRetry(transport).executeRequest(request())
+        assertEquals response.httpStatus, 200
+        assertEquals sent, ["Bearer token-1", "Bearer token-2"]
+
+        // a request that was rejected with an old token does not cause another refresh
+        assertTrue authenticator.forceRefresh("Bearer token-1")
+        assertEquals fetches.get(), 2
+
+        // the server keeps rejecting, only one retry
+        transport = { Request request ->
+            authenticator.authenticate(request)
+            sent.add(request.headers.getFirst("Authorization"))
+            new DefaultResponse(401, null, null, 0)
+        } as RequestExecutor
+        sent.clear()
+        assertEquals authenticator.withUnauthorizedRetry(transport).executeRequest(request()).httpStatus, 401
+        assertEquals sent, ["Bearer token-2", "Bearer token-3"]
+    }
+
+    @Test
+    void testLocalTokenEndpoint() {
+        def server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0)
+        def requests = new AtomicInteger()
+        server.createContext("/oauth2/v1/token", { exchange ->
+            byte[] body = "local-token-${requests.incrementAndGet()}".getBytes(StandardCharsets.UTF_8)
+            exchange.sendResponseHeaders(200, body.length)
+            exchange.responseBody.withCloseable { it.write(body) }
+        })
+        server.start()
+        try {
+            def tokenUrl = new URL("http://127.0.0.1:${server.address.port}/oauth2/v1/token")
+            def authenticator = new BearerTokenAuthenticator({
+                new AccessToken(tokenUrl.text, Instant.now().plusSeconds(3600))
+            })
+            def request = request()
+            authenticator.authenticate(request)
+            authenticator.authenticate(request)
+
+            assertEquals request.headers.getFirst("Authorization"), "Bearer local-token-1"
+            assertEquals requests.get(), 1
+            assertTrue authenticator.forceRefresh("Bearer local-token-1")
+            assertEquals authenticator.accessToken.value, "local-token-2"
+        } finally {
+            server.stop(0)
+        }
+    }
+
+    private BearerTokenAuthenticator authenticator(AccessTokenSource source) {
+        return new BearerTokenAuthenticator(source, Duration.ofMinutes(1), { it.run() } as Executor, clock)
+    }
+
+    private static Request request() {
+        return new DefaultRequest(HttpMethod.GET, "https://okta.example.com/api/v1/users")
+    }
+
+    private static class MutableClock extends Clock {
+
+        Instant now
+
+        MutableClock(Instant now) {
+            this.now = now
+        }
+
+        @Override
+        ZoneId getZone() {
+            return ZoneOffset.UTC
+        }
+
+        @Override
+        Clock withZone(ZoneId zone) {
+            return this
+        }
+
+        @Override
+        Instant instant() {
+            return now
+        }
+    }
+}
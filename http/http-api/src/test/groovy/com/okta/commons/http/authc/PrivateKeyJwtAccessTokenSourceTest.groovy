@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http.authc
+
+import com.okta.commons.http.DefaultRequest
+import com.okta.commons.http.DefaultResponse
+import com.okta.commons.http.HttpHeaders
+import com.okta.commons.http.HttpMethod
+import com.okta.commons.http.MediaType
+import com.okta.commons.http.Request
+import com.okta.commons.http.RequestExecutor
+import org.testng.annotations.Test
+
+import java.nio.charset.StandardCharsets
+import java.security.KeyPair
+import java.security.KeyPairGenerator
+import java.security.spec.ECGenParameterSpec
+import java.time.Clock
+import java.time.Instant
+import java.time.ZoneOffset
+
+import static org.testng.Assert.assertEquals
+import static org.testng.Assert.assertTrue
+import static org.testng.Assert.fail
+
+class PrivateKeyJwtAccessTokenSourceTest {
+
+    private static final String TOKEN_URL = "https://example.okta.com/oauth2/v1/token"
+
+    private final Instant now = Instant.parse("2020-01-01T00:00:00Z")
+
+    @Test
+    void testClientCredentialsRequest() {
+        List<Request> requests = []
+        RequestExecutor transport = { Request request ->
+            requests.add(request)
+            response(200, '{"token_type":"Bearer","expires_in":3600,"access_token":"eyJ.a\\/b","scope":"okta.users.read okta.groups.read"}')
+        } as RequestExecutor
+
+        def token = tokenSource(transport, ["okta.users.read", "okta.groups.read"]).fetchAccessToken()
+        assertEquals token.value, "eyJ.a/b"
+        assertEquals token.expiresAt, now.plusSeconds(3600)
+        assertEquals token.authorizationHeader, "Bearer eyJ.a/b"
+
+        Request request = requests[0]
+        assertEquals request.method, HttpMethod.POST
+        assertEquals request.resourceUrl.toString(), TOKEN_URL
+        assertEquals request.headers.getContentType(), MediaType.APPLICATION_FORM_URLENCODED
+        assertEquals request.headers.getAccept(), [MediaType.APPLICATION_JSON]
+
+        Map<String, String> form = request.body.getText("UTF-8").split("&").collectEntries {
+            def pair = it.split("=", 2)
+            [(pair[0]): URLDecoder.decode(pair[1], "UTF-8")]
+        }
+        assertEquals form.grant_type, "client_credentials"
+        assertEquals form.scope, "okta.users.read okta.groups.read"
+        assertEquals form.client_assertion_type, PrivateKeyJwtAssertionSource.CLIENT_ASSERTION_TYPE
+        String claims = new String(Base64.urlDecoder.decode(form.client_assertion.split("\\.")[1]), StandardCharsets.UTF_8)
+        assertTrue claims.startsWith('{"iss":"client-id","sub":"client-id","aud":"' + TOKEN_URL + '"')
+    }
+
+    @Test
+    void testBearerTokenAuthenticator() {
+        int fetches = 0
+        RequestExecutor transport = { Request request ->
+            assertEquals request.headers.getFirst("Authorization"), null
+            response(200, "{\"access_token\":\"token-${++fetches}\",\"expires_in\":3600}")
+        } as RequestExecutor
+
+        def authenticator = new BearerTokenAuthenticator(tokenSource(transport, [], Clock.systemUTC()))
+        def request = new DefaultRequest(HttpMethod.GET, "https://example.okta.com/api/v1/users")
+        authenticator.authenticate(request)
+        authenticator.authenticate(request)
+
+        assertEquals request.headers.getFirst("Authorization"), "Bearer token-1"
+        assertEquals fetches, 1
+    }
+
+    @Test
+    void testErrorResponse() {
+        RequestExecutor transport = { Request request ->
+            response(401, '{"error":"invalid_client","error_description":"The client_assertion signature is invalid."}')
+        } as RequestExecutor
+
+        try {
+            tokenSource(transport, []).fetchAccessToken()
+            fail("Expected RequestAuthenticationException")
+        } catch (RequestAuthenticationException e) {
+            assertEquals e.message, "Token request failed with status 401: The client_assertion signature is invalid."
+        }
+    }
+
+    @Test
+    void testClose() {
+        KeyPair keyPair = KeyPairGenerator.getInstance("EC").with { initialize(new ECGenParameterSpec("secp256r1")); generateKeyPair() }
+        def assertionSource = new PrivateKeyJwtAssertionSource("client-id", TOKEN_URL, keyPair.private, null)
+        new PrivateKeyJwtAccessTokenSource({ null } as RequestExecutor, TOKEN_URL, assertionSource, []).close()
+
+        try {
+            assertionSource.getClientAssertion()
+            fail("Expected IllegalStateException")
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @Test
+    void testReadJsonMembers() {
+        def members = PrivateKeyJwtAccessTokenSource.readJsonMembers(
+                ' { "a" : "x\\"y\\u00e9\\n", "nested": {"b": ["}", {"c": 1}]}, "n": -1.5e3, "t": true, "z": null } ')
+        assertEquals members, [a: "x\"yé\n", n: "-1.5e3", t: "true", z: "null"]
+        assertEquals PrivateKeyJwtAccessTokenSource.readJsonMembers("not json"), [:]
+        assertEquals PrivateKeyJwtAccessTokenSource.readJsonMembers(""), [:]
+    }
+
+    private PrivateKeyJwtAccessTokenSource tokenSource(RequestExecutor transport, List<String> scopes) {
+        return tokenSource(transport, scopes, Clock.fixed(now, ZoneOffset.UTC))
+    }
+
+    private static PrivateKeyJwtAccessTokenSource tokenSource(RequestExecutor transport, List<String> scopes, Clock clock) {
+        KeyPair keyPair = KeyPairGenerator.getInstance("EC").with { initialize(new ECGenParameterSpec("secp256r1")); generateKeyPair() }
+        def assertionSource = new PrivateKeyJwtAssertionSource("client-id", TOKEN_URL, keyPair.private, null)
+        return new PrivateKeyJwtAccessTokenSource(transport, TOKEN_URL, assertionSource, scopes, clock)
+    }
+
+    private static DefaultResponse response(int status, String json) {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8)
+        def headers = new HttpHeaders()
+        headers.setContentType(MediaType.APPLICATION_JSON)
+        return DefaultResponse.withHeaders(status, headers, new ByteArrayInputStream(body), body.length)
+    }
+}
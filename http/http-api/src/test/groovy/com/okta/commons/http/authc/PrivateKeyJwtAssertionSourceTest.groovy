@@ -0,0 +1,242 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.http.authc
+
+import org.testng.annotations.BeforeMethod
+import org.testng.annotations.Test
+
+import java.nio.charset.StandardCharsets
+import java.security.KeyPair
+import java.security.KeyPairGenerator
+import java.security.Signature
+import java.security.spec.ECGenParameterSpec
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneId
+import java.time.ZoneOffset
+import java.util.concurrent.Callable
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+import static org.testng.Assert.assertEquals
+import static org.testng.Assert.assertNotEquals
+import static org.testng.Assert.assertTrue
+import static org.testng.Assert.fail
+
+class PrivateKeyJwtAssertionSourceTest {
+
+    private static final String AUDIENCE = "https://example.okta.com/oauth2/v1/token"
+
+    private final Instant start = Instant.parse("2020-01-01T00:00:00Z")
+
+    private MutableClock clock
+
+    private List<Runnable> pending
+
+    private Executor executor
+
+    @BeforeMethod
+    void setup() {
+        clock = new MutableClock(start)
+        pending = []
+        executor = { pending.add(it) } as Executor
+    }
+
+    @Test
+    void testRsaAssertion() {
+        KeyPair keyPair = KeyPairGenerator.getInstance("RSA").with { initialize(2048); generateKeyPair() }
+        def source = source(keyPair, true)
+
+        def parts = source.getClientAssertion().split("\\.")
+        assertEquals decode(parts[0]), '{"alg":"RS256","typ":"JWT","kid":"key-1"}'
+        assertTrue decode(parts[1]).matches('\\{"iss":"client-id","sub":"client-id","aud":"' + AUDIENCE +
+                '","iat":1577836800,"exp":1577837100,"jti":"[0-9a-f-]{36}"}')
+
+        def signature = Signature.getInstance("SHA256withRSA")
+        signature.initVerify(keyPair.public)
+        signature.update("${parts[0]}.${parts[1]}".getBytes(StandardCharsets.US_ASCII))
+        assertTrue signature.verify(Base64.urlDecoder.decode(parts[2]))
+    }
+
+    @Test
+    void testEcAssertion() {
+        KeyPair keyPair = KeyPairGenerator.getInstance("EC").with { initialize(new ECGenParameterSpec("secp256r1")); generateKeyPair() }
+        def source = source(keyPair, true)
+
+        // several signatures, so that the DER encoded R and S have varying lengths
+        10.times {
+            def parts = source.getClientAssertion().split("\\.")
+            assertTrue decode(parts[0]).startsWith('{"alg":"ES256",')
+
+            byte[] concatenated = Base64.urlDecoder.decode(parts[2])
+            assertEquals concatenated.length, 64
+
+            def signature = Signature.getInstance("SHA256withECDSA")
+            signature.initVerify(keyPair.public)
+            signature.update("${parts[0]}.${parts[1]}".getBytes(StandardCharsets.US_ASCII))
+            assertTrue signature.verify(toDer(concatenated))
+        }
+    }
+
+    @Test
+    void testSingleUseAssertionsAreSignedAhead() {
+        KeyPair keyPair = KeyPairGenerator.getInstance("EC").with { initialize(new ECGenParameterSpec("secp256r1")); generateKeyPair() }
+        def source = source(keyPair, true)
+
+        def first = source.getClientAssertion()
+        assertEquals pending.size(), 1
+        runPending()
+
+        def second = source.getClientAssertion()
+        assertNotEquals second, first
+        assertNotEquals claim(second, "jti"), claim(first, "jti")
+        runPending()
+
+        // a pre-signed assertion too close to its expiry is not handed out
+        clock.now = start.plusSeconds(290)
+        def third = source.getClientAssertion()
+        assertEquals claim(third, "iat"), String.valueOf(start.epochSecond + 290)
+    }
+
+    @Test
+    void testReusableAssertionIsCachedUntilCloseToExpiry() {
+        KeyPair keyPair = KeyPairGenerator.getInstance("EC").with { initialize(new ECGenParameterSpec("secp256r1")); generateKeyPair() }
+        def source = source(keyPair, false)
+
+        def first = source.getClientAssertion()
+        assertEquals source.getClientAssertion(), first
+        assertTrue pending.isEmpty()
+
+        // past half its lifetime, the replacement is signed in the background
+        clock.now = start.plusSeconds(200)
+        assertEquals source.getClientAssertion(), first
+        assertEquals pending.size(), 1
+        runPending()
+
+        def second = source.getClientAssertion()
+        assertNotEquals second, first
+        assertEquals claim(second, "iat"), String.valueOf(start.epochSecond + 200)
+    }
+
+    @Test
+    void testConcurrentSigning() {
+        KeyPair keyPair = KeyPairGenerator.getInstance("EC").with { initialize(new ECGenParameterSpec("secp256r1")); generateKeyPair() }
+        def source = source(keyPair, true)
+
+        def pool = Executors.newFixedThreadPool(8)
+        try {
+            def futures = (1..64).collect { pool.submit({ source.getClientAssertion() } as Callable<String>) }
+            futures.each { future ->
+                def parts = future.get(5, TimeUnit.SECONDS).split("\\.")
+                def signature = Signature.getInstance("SHA256withECDSA")
+                signature.initVerify(keyPair.public)
+                signature.update("${parts[0]}.${parts[1]}".getBytes(StandardCharsets.US_ASCII))
+                assertTrue signature.verify(toDer(Base64.urlDecoder.decode(parts[2])))
+            }
+        } finally {
+            pool.shutdownNow()
+        }
+    }
+
+    @Test
+    void testClose() {
+        KeyPair keyPair = KeyPairGenerator.getInstance("EC").with { initialize(new ECGenParameterSpec("secp256r1")); generateKeyPair() }
+        def source = source(keyPair, true)
+        source.getClientAssertion()
+        assertEquals pending.size(), 1
+
+        source.close()
+        // signing scheduled before closing is dropped
+        runPending()
+        try {
+            source.getClientAssertion()
+            fail("Expected IllegalStateException")
+        } catch (IllegalStateException e) {
+            assertEquals e.message, "PrivateKeyJwtAssertionSource is closed"
+        }
+    }
+
+    @Test
+    void testJsonEscaping() {
+        KeyPair keyPair = KeyPairGenerator.getInstance("EC").with { initialize(new ECGenParameterSpec("secp256r1")); generateKeyPair() }
+        def source = new PrivateKeyJwtAssertionSource("client\"\\\n", AUDIENCE, keyPair.private, null, Duration.ofMinutes(5), true, executor, clock)
+
+        def parts = source.getClientAssertion().split("\\.")
+        assertEquals decode(parts[0]), '{"alg":"ES256","typ":"JWT"}'
+        assertTrue decode(parts[1]).startsWith('{"iss":"client\\"\\\\\\u000a","sub":')
+    }
+
+    private PrivateKeyJwtAssertionSource source(KeyPair keyPair, boolean singleUse) {
+        return new PrivateKeyJwtAssertionSource("client-id", AUDIENCE, keyPair.private, "key-1", Duration.ofMinutes(5), singleUse, executor, clock)
+    }
+
+    private void runPending() {
+        def tasks = new ArrayList<>(pending)
+        pending.clear()
+        tasks.each { it.run() }
+    }
+
+    private static String decode(String encoded) {
+        return new String(Base64.urlDecoder.decode(encoded), StandardCharsets.UTF_8)
+    }
+
+    private static String claim(String assertion, String name) {
+        def matcher = decode(assertion.split("\\.")[1]) =~ /"${name}":"?([^",}]+)/
+        return matcher.find() ? matcher.group(1) : null
+    }
+
+    private static byte[] toDer(byte[] concatenated) {
+        int size = concatenated.length / 2
+        byte[] r = new BigInteger(1, Arrays.copyOfRange(concatenated, 0, size)).toByteArray()
+        byte[] s = new BigInteger(1, Arrays.copyOfRange(concatenated, size, size * 2)).toByteArray()
+        def out = new ByteArrayOutputStream()
+        out.write(0x30)
+        out.write(r.length + s.length + 4)
+        out.write(0x02)
+        out.write(r.length)
+        out.write(r)
+        out.write(0x02)
+        out.write(s.length)
+        out.write(s)
+        return out.toByteArray()
+    }
+
+    private static class MutableClock extends Clock {
+
+        Instant now
+
+        MutableClock(Instant now) {
+            this.now = now
+        }
+
+        @Override
+        ZoneId getZone() {
+            return ZoneOffset.UTC
+        }
+
+        @Override
+        Clock withZone(ZoneId zone) {
+            return this
+        }
+
+        @Override
+        Instant instant() {
+            return now
+        }
+    }
+}
@@ -19,13 +19,15 @@ package com.okta.commons.http.httpclient;
 import com.okta.commons.http.DefaultResponse;
 import com.okta.commons.http.HttpException;
 import com.okta.commons.http.HttpHeaders;
-import com.okta.commons.http.MediaType;
 import com.okta.commons.http.Request;
 import com.okta.commons.http.RequestExecutor;
 import com.okta.commons.http.Response;
+import com.okta.commons.http.ResponseBodies;
+import com.okta.commons.http.ResponseBufferPool;
 import com.okta.commons.http.authc.RequestAuthenticator;
 import com.okta.commons.http.config.HttpClientConfiguration;
 import com.okta.commons.http.config.Proxy;
+import com.okta.commons.lang.ApplicationInfo;
 import com.okta.commons.lang.Assert;
 import com.okta.commons.lang.Strings;
 import nl.altindag.ssl.SSLFactory;
@@ -90,6 +92,10 @@ public class HttpClientRequestExecutor implements RequestExecutor {
 
     private final RequestAuthenticator requestAuthenticator;
 
+    private final ResponseBufferPool responseBufferPool;
+
+    private final long responseBodySpillThreshold;
+
     private HttpClient httpClient;
 
     private HttpClientRequestFactory httpClientRequestFactory;
@@ -104,7 +110,12 @@ public class HttpClientRequestExecutor implements RequestExecutor {
 
         Assert.isTrue(connectionTimeout >= 0, "Timeout cannot be a negative number.");
 
+        // so that the default User-Agent is complete by the first request
+        ApplicationInfo.detectInBackground();
+
         this.requestAuthenticator = clientConfiguration.getRequestAuthenticator();
+        this.responseBufferPool = clientConfiguration.getResponseBufferPool();
+        this.responseBodySpillThreshold = clientConfiguration.getResponseBodySpillThreshold();
 
         parseRequestExecutorParams(clientConfiguration.getRequestExecutorParams());
 
@@ -214,7 +225,6 @@ public class HttpClientRequestExecutor implements RequestExecutor {
         int httpStatus = httpResponse.getStatusLine().getStatusCode();
 
         HttpHeaders headers = getHeaders(httpResponse);
-        MediaType mediaType = headers.getContentType();
 
         HttpEntity entity = getHttpEntity(httpResponse);
 
@@ -222,7 +232,10 @@ public class HttpClientRequestExecutor implements RequestExecutor {
         long contentLength;
 
         //ensure that the content has been fully acquired before closing the http stream
-        if (body != null) {
+        if (body != null && (responseBufferPool != null || responseBodySpillThreshold >= 0)) {
+            contentLength = entity.getContentLength();
+            body = ResponseBodies.read(body, contentLength, responseBufferPool, responseBodySpillThreshold);
+        } else if (body != null) {
             byte[] bytes = toBytes(entity);
             contentLength = entity.getContentLength();
 
@@ -235,10 +248,7 @@ public class HttpClientRequestExecutor implements RequestExecutor {
             contentLength = 0; // force 0 content length when there is no body
         }
 
-        Response response = new DefaultResponse(httpStatus, mediaType, body, contentLength);
-        response.getHeaders().putAll(headers);
-
-        return response;
+        return DefaultResponse.withHeaders(httpStatus, headers, body, contentLength);
     }
 
     private HttpEntity getHttpEntity(HttpResponse response) {
@@ -259,16 +269,16 @@ public class HttpClientRequestExecutor implements RequestExecutor {
 
     private HttpHeaders getHeaders(HttpResponse response) {
 
-        HttpHeaders headers = new HttpHeaders();
         Header[] httpHeaders = response.getAllHeaders();
 
-        if (httpHeaders != null) {
-            for (Header httpHeader : httpHeaders) {
-                headers.add(httpHeader.getName(), httpHeader.getValue());
-            }
+        if (httpHeaders == null) {
+            return new HttpHeaders();
         }
 
-        return headers;
+        // read the Header array in place, it is only copied if the headers are modified
+        return HttpHeaders.fromNameValuePairs(httpHeaders.length,
+                                              i -> httpHeaders[i].getName(),
+                                              i -> httpHeaders[i].getValue());
     }
 
     private int getRequestExecutorParam(String key, String warning, int defaultValue) {
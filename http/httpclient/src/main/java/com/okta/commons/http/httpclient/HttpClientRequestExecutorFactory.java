@@ -20,11 +20,15 @@ import com.okta.commons.http.RequestExecutor;
 import com.okta.commons.http.RequestExecutorFactory;
 import com.okta.commons.http.RetryRequestExecutor;
 import com.okta.commons.http.config.HttpClientConfiguration;
+import com.okta.commons.lang.ServicePriority;
 
 /**
+ * Selected over the OkHttp factory only if that one is not available, see {@link ServicePriority}.
+ *
  * @since 1.2.0
  */
 @AutoService(RequestExecutorFactory.class)
+@ServicePriority(100)
 public class HttpClientRequestExecutorFactory implements RequestExecutorFactory {
 
     @Override
@@ -17,11 +17,13 @@
 package com.okta.commons.http.httpclient;
 
 import com.okta.commons.http.HttpException;
+import com.okta.commons.http.HttpHeaders;
 import com.okta.commons.http.HttpMethod;
 import com.okta.commons.http.MediaType;
 import com.okta.commons.http.QueryString;
 import com.okta.commons.http.Request;
 import com.okta.commons.http.RequestUtils;
+import com.okta.commons.lang.ApplicationInfo;
 import com.okta.commons.lang.Assert;
 import com.okta.commons.lang.Strings;
 import org.apache.http.HttpEntity;
@@ -41,8 +43,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
-import java.util.List;
-import java.util.Map;
 
 /**
  * Responsible for creating Apache HttpClient 4 request objects.
@@ -159,10 +159,8 @@ class HttpClientRequestFactory {
         httpRequest.addHeader("Host", hostHeader);
         httpRequest.addHeader("Accept-Encoding", "gzip");
 
-        // Copy over any other headers already in our request
-        for (Map.Entry<String, List<String>> entry : request.getHeaders().entrySet()) {
-            String key = entry.getKey();
-            List<String> value = entry.getValue();
+        // Copy over any other headers already in our request, one header line per value
+        request.getHeaders().forEachValue((key, value) -> {
             /*
              * HttpClient4 fills in the Content-Length header and complains if
              * it's already present, so we skip it here. We also skip the Host
@@ -170,9 +168,11 @@ class HttpClientRequestFactory {
              * signing schemes.
              */
             if (!"Content-Length".equalsIgnoreCase(key) && !"Host".equalsIgnoreCase(key)) {
-                String delimited = Strings.collectionToCommaDelimitedString(value);
-                httpRequest.addHeader(key, delimited);
+                httpRequest.addHeader(key, value);
             }
+        });
+        if (!request.getHeaders().containsKey(HttpHeaders.USER_AGENT)) {
+            httpRequest.addHeader(HttpHeaders.USER_AGENT, ApplicationInfo.peekUserAgent());
         }
     }
 
@@ -20,6 +20,7 @@ import com.okta.commons.http.HttpMethod
 import com.okta.commons.http.MediaType
 import com.okta.commons.http.QueryString
 import com.okta.commons.http.Request
+import com.okta.commons.lang.ApplicationInfo
 import org.apache.http.client.config.RequestConfig
 import org.apache.http.client.methods.HttpPost
 import org.apache.http.client.methods.HttpRequestBase
@@ -69,6 +70,27 @@ class HttpClientRequestFactoryTest {
         assertThat((httpRequest as HttpPost).getEntity(), is(instanceOf(MultipartFormEntity)))
     }
 
+    @Test
+    void defaultUserAgentTest() {
+
+        // completes detection, the default User-Agent no longer changes
+        ApplicationInfo.getUserAgent()
+
+        String uri = "https://example.com/a-resource"
+        def httpClientRequestFactory = new HttpClientRequestFactory(RequestConfig.custom().build())
+        def request = mockRequest(uri, HttpMethod.GET, new HttpHeaders(), new QueryString())
+
+        HttpRequestBase httpRequest = httpClientRequestFactory.createHttpClientRequest(request, null)
+        assertThat(httpRequest.getHeaders("User-Agent")*.value, equalTo([ApplicationInfo.peekUserAgent()]))
+
+        HttpHeaders headers = new HttpHeaders()
+        headers.add("User-Agent", "okta-sdk-java/8.0.0")
+        request = mockRequest(uri, HttpMethod.GET, headers, new QueryString())
+
+        httpRequest = httpClientRequestFactory.createHttpClientRequest(request, null)
+        assertThat(httpRequest.getHeaders("User-Agent")*.value, equalTo(["okta-sdk-java/8.0.0"]))
+    }
+
     @DataProvider
     Object[] httpMethodDataProvider() {
         return [
@@ -25,12 +25,16 @@ import com.okta.commons.http.Request;
 import com.okta.commons.http.RequestExecutor;
 import com.okta.commons.http.RequestUtils;
 import com.okta.commons.http.Response;
+import com.okta.commons.http.ResponseBodies;
+import com.okta.commons.http.ResponseBufferPool;
 import com.okta.commons.http.authc.RequestAuthenticator;
 import com.okta.commons.http.config.HttpClientConfiguration;
 import com.okta.commons.http.config.Proxy;
+import com.okta.commons.lang.ApplicationInfo;
 import com.okta.commons.lang.Strings;
 import okhttp3.CookieJar;
 import okhttp3.Credentials;
+import okhttp3.Headers;
 import okhttp3.HttpUrl;
 import okhttp3.MultipartBody;
 import okhttp3.OkHttpClient;
@@ -61,12 +65,21 @@ public class OkHttpRequestExecutor implements RequestExecutor {
 
     private final RequestAuthenticator requestAuthenticator;
 
+    private final ResponseBufferPool responseBufferPool;
+
+    private final long responseBodySpillThreshold;
+
     public OkHttpRequestExecutor(HttpClientConfiguration httpClientConfiguration) {
         this(httpClientConfiguration, createOkHttpClient(httpClientConfiguration));
     }
 
     OkHttpRequestExecutor(HttpClientConfiguration httpClientConfiguration, OkHttpClient okHttpClient) {
+        // so that the default User-Agent is complete by the first request
+        ApplicationInfo.detectInBackground();
+
         this.requestAuthenticator = httpClientConfiguration.getRequestAuthenticator();
+        this.responseBufferPool = httpClientConfiguration.getResponseBufferPool();
+        this.responseBodySpillThreshold = httpClientConfiguration.getResponseBodySpillThreshold();
 
         if (httpClientConfiguration.getRequestExecutorParams().containsKey("debug")) {
             HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor();
@@ -137,13 +150,16 @@ public class OkHttpRequestExecutor implements RequestExecutor {
         HttpUrl.Builder urlBuilder = HttpUrl.get(request.getResourceUrl()).newBuilder();
 
         // query params
-        request.getQueryString().forEach(urlBuilder::addQueryParameter);
+        request.getQueryString().forEachParameter(urlBuilder::addQueryParameter);
 
         okhttp3.Request.Builder okRequestBuilder = new okhttp3.Request.Builder()
                              .url(urlBuilder.build());
 
         // headers
-        request.getHeaders().toSingleValueMap().forEach(okRequestBuilder::addHeader);
+        request.getHeaders().forEachValue(okRequestBuilder::addHeader);
+        if (!request.getHeaders().containsKey(HttpHeaders.USER_AGENT)) {
+            okRequestBuilder.header(HttpHeaders.USER_AGENT, ApplicationInfo.peekUserAgent());
+        }
 
         boolean isMultipartFormDataForFileUploading = false;
         String xContentType = RequestUtils.fetchHeaderValueAndRemoveIfPresent(request, "x-contentType");
@@ -203,10 +219,9 @@ public class OkHttpRequestExecutor implements RequestExecutor {
 
         int httpStatus = okResponse.code();
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.putAll(okResponse.headers().toMultimap());
-
-        MediaType mediaType = headers.getContentType();
+        // read okhttp's headers in place, they are only copied if modified
+        Headers okHeaders = okResponse.headers();
+        HttpHeaders headers = HttpHeaders.fromNameValuePairs(okHeaders.size(), okHeaders::name, okHeaders::value);
 
         ResponseBody body = okResponse.body();
         InputStream bodyInputStream = null;
@@ -215,15 +230,18 @@ public class OkHttpRequestExecutor implements RequestExecutor {
         //ensure that the content has been fully acquired before closing the http stream
         if (body != null) {
             contentLength = body.contentLength();
-            bodyInputStream = new ByteArrayInputStream(body.bytes());
+            if (responseBufferPool != null || responseBodySpillThreshold >= 0) {
+                try (InputStream in = body.byteStream()) {
+                    bodyInputStream = ResponseBodies.read(in, contentLength, responseBufferPool, responseBodySpillThreshold);
+                }
+            } else {
+                bodyInputStream = new ByteArrayInputStream(body.bytes());
+            }
         } else {
             contentLength = 0; // force 0 content length when there is no body
         }
 
-        Response response = new DefaultResponse(httpStatus, mediaType, bodyInputStream, contentLength);
-        response.getHeaders().putAll(headers);
-
-        return response;
+        return DefaultResponse.withHeaders(httpStatus, headers, bodyInputStream, contentLength);
     }
 
     private static class InputStreamRequestBody extends RequestBody {
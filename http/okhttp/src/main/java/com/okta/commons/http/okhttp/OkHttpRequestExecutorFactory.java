@@ -20,12 +20,16 @@ import com.okta.commons.http.RequestExecutor;
 import com.okta.commons.http.RequestExecutorFactory;
 import com.okta.commons.http.RetryRequestExecutor;
 import com.okta.commons.http.config.HttpClientConfiguration;
+import com.okta.commons.lang.ServicePriority;
 import okhttp3.OkHttpClient;
 
 /**
+ * The default {@link RequestExecutorFactory} when both the OkHttp and Apache HttpClient factories are available.
+ *
  * @since 1.2.0
  */
 @AutoService(RequestExecutorFactory.class)
+@ServicePriority(200)
 public class OkHttpRequestExecutorFactory implements RequestExecutorFactory {
 
     private final OkHttpClient client;
@@ -25,6 +25,7 @@ import com.okta.commons.http.authc.DisabledAuthenticator
 import com.okta.commons.http.authc.RequestAuthenticator
 import com.okta.commons.http.config.HttpClientConfiguration
 import com.okta.commons.http.config.Proxy
+import com.okta.commons.lang.ApplicationInfo
 import okhttp3.Interceptor
 import okhttp3.MediaType
 import okhttp3.OkHttpClient
@@ -273,6 +274,40 @@ class OkHttpRequestExecutorTest {
         verify(requestAuthenticator).authenticate(request)
     }
 
+    @Test
+    void testDefaultUserAgent() {
+
+        // completes detection, the default User-Agent no longer changes
+        ApplicationInfo.getUserAgent()
+
+        def userAgents = []
+        def interceptor = new Interceptor() {
+            @Override
+            okhttp3.Response intercept(Interceptor.Chain chain) throws IOException {
+                userAgents.add(chain.request().headers("User-Agent"))
+                return stubResponse()
+            }
+        }
+        def requestExecutor = createRequestExecutor(new OkHttpClient.Builder()
+                                                                    .addInterceptor(interceptor)
+                                                                    .build(),
+                                                    mock(RequestAuthenticator))
+
+        def request = mock(Request)
+        when(request.getHeaders()).thenReturn(new HttpHeaders())
+        when(request.getResourceUrl()).thenReturn(new URI("https://testDefaultUserAgent.example.com"))
+        when(request.getQueryString()).thenReturn(new QueryString())
+        when(request.getMethod()).thenReturn(HttpMethod.GET)
+        requestExecutor.executeRequest(request)
+
+        def headers = new HttpHeaders()
+        headers.add("User-Agent", "okta-sdk-java/8.0.0")
+        when(request.getHeaders()).thenReturn(headers)
+        requestExecutor.executeRequest(request)
+
+        assertThat userAgents, is([[ApplicationInfo.peekUserAgent()], ["okta-sdk-java/8.0.0"]])
+    }
+
     @Test
     void testInputStreamRequestBodyContentLength() {
         String content = "my-content"
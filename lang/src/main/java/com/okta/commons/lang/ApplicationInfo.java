@@ -25,6 +25,7 @@ import java.io.StringWriter;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -33,6 +34,10 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.list;
@@ -40,7 +45,9 @@ import static java.util.Collections.list;
 public final class ApplicationInfo {
 
     // lookup okta libs by projects with a versions prop
-    private static final String VERSION_FILE_LOCATION = "META-INF/okta/version.properties";
+    private static final String VERSION_FILE_LOCATION = VersionIndexGenerator.VERSION_FILE_LOCATION;
+    // or in the index generated at build time, if any
+    private static final String VERSION_INDEX_LOCATION = VersionIndexGenerator.INDEX_LOCATION;
 
     //Integration Runtimes
     private static final String INTEGRATION_RUNTIME_SPRING_ID = "spring";
@@ -86,13 +93,103 @@ public final class ApplicationInfo {
     private static final String UNKNOWN_VERSION = "unknown";
     private static final Logger log = LoggerFactory.getLogger(ApplicationInfo.class);
 
-    //Placeholder for the actual env info map
-    private static final Map<String, String> NAME_VERSION_MAP = createNameToVersionMap();
+    // detection probes classes across class loaders and scans the class path, it only runs on first use
+    private static final CompletableFuture<Detected> DETECTED = new CompletableFuture<>();
+    private static final AtomicBoolean DETECTION_STARTED = new AtomicBoolean();
+
+    // cheap to compute, served until detection completes
+    private static final String MINIMAL_USER_AGENT = userAgent(Arrays.asList(getJavaSDKRuntimeInfo(), getOSInfo()));
 
     private ApplicationInfo() {}
 
+    /**
+     * Returns the detected components and their versions, in User-Agent order.  Detection runs on the first call
+     * (or in the background after {@link #detectInBackground()}), the calling thread waits for it to complete.
+     *
+     * @return a new map of component names to versions
+     */
     public static Map<String, String> get() {
-        return NAME_VERSION_MAP;
+        return new LinkedHashMap<>(detected().nameVersionMap);
+    }
+
+    /**
+     * Returns the User-Agent string made of the detected components, e.g.
+     * {@code okta-sdk-java/8.0.0 spring-boot/2.7.0 java/1.8.0_292 Linux/5.4.0}, waiting for detection to complete.
+     *
+     * @return the User-Agent string
+     * @since 2.0.2
+     */
+    public static String getUserAgent() {
+        return detected().userAgent;
+    }
+
+    /**
+     * Returns the User-Agent string made of the detected components if detection completed, otherwise, without
+     * blocking, a minimal one made of the Java and OS versions.  Detection is started in the background if it was not
+     * started yet.
+     *
+     * @return the full User-Agent string, or a minimal one while detection is in progress
+     * @since 2.0.2
+     */
+    public static String peekUserAgent() {
+        Detected detected = DETECTED.getNow(null);
+        if (detected != null) {
+            return detected.userAgent;
+        }
+        detectInBackground();
+        return MINIMAL_USER_AGENT;
+    }
+
+    /**
+     * Starts detection on a background thread unless it was started already, e.g. during application startup so that
+     * the first request does not wait for it.
+     *
+     * @since 2.0.2
+     */
+    public static void detectInBackground() {
+        startDetection(runnable -> {
+            Thread thread = new Thread(runnable, "okta-application-info");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    private static Detected detected() {
+        startDetection(Runnable::run);
+        try {
+            return DETECTED.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : e;
+        }
+    }
+
+    private static void startDetection(Executor executor) {
+        if (DETECTION_STARTED.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                try {
+                    Map<String, String> nameVersionMap = createNameToVersionMap();
+                    DETECTED.complete(new Detected(nameVersionMap, userAgent(nameVersionMap)));
+                } catch (Throwable e) {
+                    DETECTED.completeExceptionally(e);
+                }
+            });
+        }
+    }
+
+    private static String userAgent(List<NameAndVersion> nameAndVersions) {
+        Map<String, String> nameVersionMap = new LinkedHashMap<>();
+        nameAndVersions.forEach(info -> nameVersionMap.put(info.name, info.version));
+        return userAgent(nameVersionMap);
+    }
+
+    private static String userAgent(Map<String, String> nameVersionMap) {
+        return nameVersionMap.entrySet().stream()
+                .map(entry -> entry.getKey() + "/" + entry.getValue())
+                .collect(Collectors.joining(" "));
     }
 
     private static Map<String, String> createNameToVersionMap() {
@@ -106,11 +203,11 @@ public final class ApplicationInfo {
         nameAndVersions.add(getJavaSDKRuntimeInfo());       // java
         nameAndVersions.add(getOSInfo());                   // Mac OS X
         nameAndVersions.add(getAndroidInfo());              // android
-        return nameAndVersions.stream()
+        return Collections.unmodifiableMap(nameAndVersions.stream()
                 .filter(Objects::nonNull)
                 .collect(LinkedHashMap::new, // keep order
                         (map, info) -> map.put(info.name, info.version),
-                        Map::putAll);
+                        Map::putAll));
     }
 
     private static NameAndVersion getSpringFrameworkInfo() {
@@ -334,9 +431,16 @@ public final class ApplicationInfo {
     }
 
     private static Set<NameAndVersion> oktaComponentsFromVersionMetadata() {
+        ClassLoader classLoader = ApplicationInfo.class.getClassLoader();
+        URL index = classLoader.getResource(VERSION_INDEX_LOCATION);
+        if (index != null) {
+            // a single resource lookup, rather than scanning the whole class path
+            return entriesFromOktaVersionMetadata(loadProps(index));
+        }
+
         Set<NameAndVersion> results = new HashSet<>();
         try {
-            list(ApplicationInfo.class.getClassLoader().getResources(VERSION_FILE_LOCATION)).stream()
+            list(classLoader.getResources(VERSION_FILE_LOCATION)).stream()
                     .map(ApplicationInfo::loadProps)
                     .forEach(properties -> results.addAll(entriesFromOktaVersionMetadata(properties)));
         } catch (IOException e) { //NOPMD
@@ -369,6 +473,17 @@ public final class ApplicationInfo {
         return null;
     }
 
+    private static final class Detected {
+
+        private final Map<String, String> nameVersionMap;
+        private final String userAgent;
+
+        private Detected(Map<String, String> nameVersionMap, String userAgent) {
+            this.nameVersionMap = nameVersionMap;
+            this.userAgent = userAgent;
+        }
+    }
+
     private static class NameAndVersion {
 
         private final String name;
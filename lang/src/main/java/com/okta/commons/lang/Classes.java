@@ -20,11 +20,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
-import java.util.Optional;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.ServiceConfigurationError;
 import java.util.ServiceLoader;
-import java.util.stream.StreamSupport;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @since 0.5.0
@@ -37,8 +44,58 @@ public class Classes {
     private static final Logger log = LoggerFactory.getLogger(Classes.class);
 
     /**
+     * Marks class names none of the class loaders could load.
      */
-    private static final ClassLoaderAccessor THREAD_CL_ACCESSOR = new ExceptionIgnoringAccessor() {
+    private static final Object MISS = new Object();
+
+    /**
+     * Lookup results by thread context class loader, then class name: a weak reference to the class, or {@link #MISS}.
+     * Class loaders and classes are only weakly referenced, so that undeployed applications can be unloaded.
+     */
+    private static final Map<LoaderKey, LoaderLookups> LOOKUP_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Keys of {@link #LOOKUP_CACHE} whose class loader was garbage collected.
+     */
+    private static final ReferenceQueue<ClassLoader> UNLOADED_CLASS_LOADERS = new ReferenceQueue<>();
+
+    /**
+     * Lookup results when there is no thread context class loader.
+     */
+    private static final Map<String, Object> NO_CONTEXT_LOOKUPS = new ConcurrentHashMap<>();
+
+    /**
+     * The lookups of the last thread context class loader, most applications only ever use one.
+     */
+    private static volatile LoaderLookups lastLookups;
+
+    /**
+     * Constructors resolved by {@code newInstance} and {@code instantiate}, by class then argument types or
+     * constructor.  Class values are released along with their class, so classes can still be unloaded.
+     */
+    private static final ClassValue<Map<Object, ConstructorFactory>> CONSTRUCTOR_FACTORIES =
+            new ClassValue<Map<Object, ConstructorFactory>>() {
+                @Override
+                protected Map<Object, ConstructorFactory> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    /**
+     * Key of the constructor used by {@link #newInstance(Class)}, which unlike other lookups is not necessarily public.
+     */
+    private static final Object DEFAULT_CONSTRUCTOR = new Object();
+
+    /**
+     * Marks the key of a constructor whose access checks were suppressed with {@code setAccessible(true)}.
+     * {@link Constructor#equals(Object)} ignores this flag, so such constructors are cached apart, otherwise the factory
+     * of an accessible constructor would be reused for a copy of the same constructor that is not.
+     */
+    private static final Object ACCESSIBLE = new Object();
+
+    /**
+     */
+    private static final ExceptionIgnoringAccessor THREAD_CL_ACCESSOR = new ExceptionIgnoringAccessor() {
         @Override
         protected ClassLoader doGetClassLoader() {
             return Thread.currentThread().getContextClassLoader();
@@ -70,6 +127,9 @@ public class Classes {
      * ClassLoader ({@code ClassLoader.getSystemClassLoader()}, in that order.  If any of them cannot locate
      * the specified class, an {@code UnknownClassException} is thrown (our RuntimeException equivalent of
      * the JRE's {@code ClassNotFoundException}.
+     * <p>
+     * Lookups, including failed ones, are cached per thread context ClassLoader: repeated lookups of the same name
+     * do not go through the ClassLoaders again, until {@link #clearLookupCache()} is called.
      *
      * @param fqcn the fully qualified class name to load
      * @param <T> type of class
@@ -78,6 +138,84 @@ public class Classes {
      */
     public static <T> Class<T> forName(String fqcn) throws UnknownClassException {
 
+        Class<T> clazz = lookup(fqcn);
+
+        if (clazz == null) {
+            String msg = "Unable to load class named [" + fqcn + "] from the thread context, current, or " +
+                    "system/application ClassLoaders.  All heuristics have been exhausted.  Class could not be found.";
+
+            if (fqcn != null && fqcn.startsWith("com.okta.sdk.impl")) {
+                msg += "  Have you remembered to include the okta-sdk-impl .jar in your runtime classpath?";
+            }
+
+            throw new UnknownClassException(msg);
+        }
+
+        return clazz;
+    }
+
+    /**
+     * Returns the class with the given name, or {@code null} if none of the class loaders can load it.  Results,
+     * including misses, are cached per thread context class loader.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Class<T> lookup(String fqcn) {
+        if (fqcn == null) {
+            return load(null);
+        }
+
+        Map<String, Object> cache = lookupCache();
+        Object cached = cache.get(fqcn);
+        if (cached == MISS) {
+            return null;
+        }
+        if (cached != null) {
+            Class<T> clazz = ((Reference<Class<T>>) cached).get();
+            if (clazz != null) {
+                return clazz;
+            }
+        }
+
+        Class<T> clazz = load(fqcn);
+        cache.put(fqcn, clazz != null ? new WeakReference<>(clazz) : MISS);
+        return clazz;
+    }
+
+    private static Map<String, Object> lookupCache() {
+        ClassLoader contextClassLoader = THREAD_CL_ACCESSOR.getClassLoader();
+        if (contextClassLoader == null) {
+            return NO_CONTEXT_LOOKUPS;
+        }
+        LoaderLookups lookups = lastLookups;
+        if (lookups != null && lookups.key.get() == contextClassLoader) {
+            return lookups.classes;
+        }
+
+        LoaderKey key = new LoaderKey(contextClassLoader);
+        lookups = LOOKUP_CACHE.get(key);
+        if (lookups == null) {
+            Reference<? extends ClassLoader> unloaded;
+            while ((unloaded = UNLOADED_CLASS_LOADERS.poll()) != null) {
+                LOOKUP_CACHE.remove(unloaded);
+            }
+            lookups = LOOKUP_CACHE.computeIfAbsent(key, LoaderLookups::new);
+        }
+        lastLookups = lookups;
+        return lookups.classes;
+    }
+
+    /**
+     * Drops the class lookups cached for the current thread context ClassLoader, including failed ones, e.g. after
+     * classes were added to it.  They are looked up through the ClassLoaders again on their next use.
+     *
+     * @since 2.0.2
+     */
+    public static void clearLookupCache() {
+        lookupCache().clear();
+    }
+
+    private static <T> Class<T> load(String fqcn) {
+
         Class<T> clazz = THREAD_CL_ACCESSOR.loadClass(fqcn);
 
         if (clazz == null) {
@@ -96,17 +234,6 @@ public class Classes {
             clazz = SYSTEM_CL_ACCESSOR.loadClass(fqcn);
         }
 
-        if (clazz == null) {
-            String msg = "Unable to load class named [" + fqcn + "] from the thread context, current, or " +
-                    "system/application ClassLoaders.  All heuristics have been exhausted.  Class could not be found.";
-
-            if (fqcn != null && fqcn.startsWith("com.okta.sdk.impl")) {
-                msg += "  Have you remembered to include the okta-sdk-impl .jar in your runtime classpath?";
-            }
-
-            throw new UnknownClassException(msg);
-        }
-
         return clazz;
     }
 
@@ -137,12 +264,7 @@ public class Classes {
     }
 
     public static boolean isAvailable(String fullyQualifiedClassName) {
-        try {
-            forName(fullyQualifiedClassName);
-            return true;
-        } catch (UnknownClassException e) {
-            return false;
-        }
+        return lookup(fullyQualifiedClassName) != null;
     }
 
     public static <T> T newInstance(String fqcn) {
@@ -160,20 +282,67 @@ public class Classes {
             String msg = "Class method parameter cannot be null.";
             throw new IllegalArgumentException(msg);
         }
-        try {
-            return clazz.newInstance();
-        } catch (Exception e) {
-            throw new InstantiationException("Unable to instantiate class [" + clazz.getName() + "]", e);
+        Map<Object, ConstructorFactory> factories = CONSTRUCTOR_FACTORIES.get(clazz);
+        ConstructorFactory factory = factories.get(DEFAULT_CONSTRUCTOR);
+        if (factory == null) {
+            Constructor<T> ctor;
+            try {
+                ctor = clazz.getDeclaredConstructor();
+            } catch (Exception e) {
+                throw new InstantiationException("Unable to instantiate class [" + clazz.getName() + "]", e);
+            }
+            factory = ConstructorFactory.of(ctor);
+            factories.put(DEFAULT_CONSTRUCTOR, factory);
         }
+        return factory.newInstance();
     }
 
     public static <T> T newInstance(Class<T> clazz, Object... args) {
-        Class[] argTypes = new Class[args.length];
+        Class<?>[] argTypes = new Class<?>[args.length];
         for (int i = 0; i < args.length; i++) {
             argTypes[i] = args[i].getClass();
         }
-        Constructor<T> ctor = getConstructor(clazz, argTypes);
-        return instantiate(ctor, args);
+        if (!isCacheableKey(clazz, argTypes)) {
+            // a key retaining classes that may outlive clazz's class value would keep their class loader around
+            return ConstructorFactory.of(getConstructor(clazz, argTypes)).newInstance(args);
+        }
+        Map<Object, ConstructorFactory> factories = CONSTRUCTOR_FACTORIES.get(clazz);
+        List<Class<?>> key = Arrays.asList(argTypes);
+        ConstructorFactory factory = factories.get(key);
+        if (factory == null) {
+            factory = ConstructorFactory.of(getConstructor(clazz, argTypes));
+            factories.put(key, factory);
+        }
+        return factory.newInstance(args);
+    }
+
+    /**
+     * Returns {@code true} if the given argument types may key a constructor in the class value of {@code clazz}:
+     * they are loaded by the bootstrap class loader, by {@code clazz}'s class loader or one of its ancestors, so
+     * referencing them does not prevent another class loader from being garbage collected.
+     */
+    private static boolean isCacheableKey(Class<?> clazz, Class<?>[] argTypes) {
+        ClassLoader classLoader = clazz.getClassLoader();
+        for (Class<?> argType : argTypes) {
+            ClassLoader argLoader = argType.getClassLoader();
+            if (argLoader != null && argLoader != classLoader && !isAncestor(argLoader, classLoader)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAncestor(ClassLoader ancestor, ClassLoader classLoader) {
+        try {
+            for (ClassLoader parent = classLoader; parent != null; parent = parent.getParent()) {
+                if (parent == ancestor) {
+                    return true;
+                }
+            }
+        } catch (SecurityException e) {
+            log.trace("Unable to read the parent of class loader [{}]", classLoader, e);
+        }
+        return false;
     }
 
     public static <T> Constructor<T> getConstructor(Class<T> clazz, Class... argTypes) {
@@ -185,29 +354,115 @@ public class Classes {
 
     }
 
+    @SuppressWarnings("deprecation") // isAccessible() is the only way to read the flag on Java 8
     public static <T> T instantiate(Constructor<T> ctor, Object... args) {
-        try {
-            return ctor.newInstance(args);
-        } catch (Exception e) {
-            String msg = "Unable to instantiate instance with constructor [" + ctor + "]";
-            throw new InstantiationException(msg, e);
+        Map<Object, ConstructorFactory> factories = CONSTRUCTOR_FACTORIES.get(ctor.getDeclaringClass());
+        Object key = ctor.isAccessible() ? Arrays.asList(ctor, ACCESSIBLE) : ctor;
+        ConstructorFactory factory = factories.get(key);
+        if (factory == null) {
+            factory = ConstructorFactory.of(ctor);
+            factories.put(key, factory);
         }
+        return factory.newInstance(args);
     }
 
     public static <T> T loadFromService(Class<T> clazz) {
         return loadFromService(clazz, "ServiceLoader failed to find implementation for class: " + clazz);
     }
 
+    /**
+     * Returns a new instance of the {@link ServiceLoader service provider} of {@code clazz} with the highest
+     * {@link ServicePriority priority}, providers are looked up through the {@link ServiceRegistry}.
+     *
+     * @param clazz the service interface or class
+     * @param errorMessage the message of the exception thrown if there is no provider
+     * @param <T> the service type
+     * @return the provider
+     * @throws IllegalStateException if there is no provider, or it cannot be loaded
+     */
     public static <T> T loadFromService(Class<T> clazz, String errorMessage) {
         try {
-            ServiceLoader<T> serviceLoader = ServiceLoader.load(clazz);
-            Optional<T> result = StreamSupport.stream(serviceLoader.spliterator(), false).findFirst();
-            return result.orElseThrow(() -> new IllegalStateException(errorMessage));
-        } catch(ServiceConfigurationError e) {
+            return ServiceRegistry.loadFirst(clazz).orElseThrow(() -> new IllegalStateException(errorMessage));
+        } catch(ServiceConfigurationError | InstantiationException e) {
             throw new IllegalStateException(errorMessage, e);
         }
     }
 
+    /**
+     * A constructor resolved once into a method handle taking its arguments as an {@code Object[]}, invoking it is
+     * about as fast as calling the constructor directly, unlike {@link Constructor#newInstance(Object...)}.
+     */
+    private static final class ConstructorFactory {
+
+        private final Constructor<?> ctor;
+        private final MethodHandle handle;
+
+        private ConstructorFactory(Constructor<?> ctor, MethodHandle handle) {
+            this.ctor = ctor;
+            this.handle = handle;
+        }
+
+        private static ConstructorFactory of(Constructor<?> ctor) {
+            try {
+                MethodHandle handle = MethodHandles.lookup().unreflectConstructor(ctor).asFixedArity();
+                handle = handle.asType(handle.type().changeReturnType(Object.class))
+                        .asSpreader(Object[].class, ctor.getParameterCount());
+                return new ConstructorFactory(ctor, handle);
+            } catch (IllegalAccessException e) {
+                throw new InstantiationException("Unable to instantiate instance with constructor [" + ctor + "]", e);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T newInstance(Object... args) {
+            try {
+                return (T) (Object) handle.invokeExact(args);
+            } catch (Throwable e) { // NOPMD - wraps whatever the constructor throws, as Constructor.newInstance does
+                throw new InstantiationException("Unable to instantiate instance with constructor [" + ctor + "]", e);
+            }
+        }
+    }
+
+    /**
+     * Weak key of {@link #LOOKUP_CACHE}, equal to keys of the same class loader (by identity) while it is reachable.
+     */
+    private static final class LoaderKey extends WeakReference<ClassLoader> {
+
+        private final int hash;
+
+        private LoaderKey(ClassLoader classLoader) {
+            super(classLoader, UNLOADED_CLASS_LOADERS);
+            this.hash = System.identityHashCode(classLoader);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof LoaderKey)) {
+                return false;
+            }
+            ClassLoader classLoader = get();
+            return classLoader != null && classLoader == ((LoaderKey) obj).get();
+        }
+    }
+
+    private static final class LoaderLookups {
+
+        private final LoaderKey key;
+        private final Map<String, Object> classes = new ConcurrentHashMap<>();
+
+        private LoaderLookups(LoaderKey key) {
+            this.key = key;
+        }
+    }
+
     /**
      */
     private interface ClassLoaderAccessor {
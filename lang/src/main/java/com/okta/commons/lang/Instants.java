@@ -17,10 +17,20 @@
 package com.okta.commons.lang;
 
 import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utility class to create UTC-based dates and perform time conversions from UTC to other {@link TimeZone timezones} and vice versa
@@ -31,6 +41,31 @@ public abstract class Instants {
 
     public static final TimeZone UTC_TIMEZONE = TimeZone.getTimeZone("UTC");
 
+    private static final int NANOS_PER_MILLI = 1_000_000;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    /**
+     * Wider than the largest offset change, so that a wall time is never more than one transition away from the
+     * offsets found this far before and after it.
+     */
+    private static final long MAX_TRANSITION_WINDOW = MILLIS_PER_DAY;
+
+    /**
+     * Years from which the Julian and the proleptic ISO calendars agree (the Gregorian calendar started in October 1582)
+     * and until which {@link LocalDate} can represent any date they roll over to.
+     */
+    private static final int FIRST_GREGORIAN_YEAR = 1583;
+
+    private static final int LAST_LOCAL_DATE_YEAR = Year.MAX_VALUE - 1;
+
+    private static final int OFFSET_TABLE_CACHE_SIZE = 64;
+
+    /**
+     * Offset tables by time zone id, see {@link #getOffset(long, TimeZone)}.
+     */
+    private static final Map<String, OffsetTable> OFFSET_TABLES = new ConcurrentHashMap<>();
+
     private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT = ThreadLocal.withInitial(() -> {
         SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
         df.setTimeZone(UTC_TIMEZONE);
@@ -78,7 +113,7 @@ public abstract class Instants {
      * @return the long representation of the instant converted to the specified {@code to} {@link TimeZone}
      */
     public static long convertDate(long time, TimeZone from, TimeZone to) {
-        return time + getTimeZoneOffset(time, from, to);
+        return time + getOffset(time, to) - getOffset(time, from);
     }
 
     /**
@@ -89,10 +124,8 @@ public abstract class Instants {
      * @return the UTC-based {@link Date}
      */
     public static Date of(int year) {
-        GregorianCalendar cal = new GregorianCalendar();
-        cal.set(Calendar.YEAR, year);
-        TimeZone fromTimeZone = cal.getTimeZone();
-        return new Date(convertDate(cal.getTimeInMillis(), fromTimeZone, UTC_TIMEZONE));
+        LocalDateTime now = LocalDateTime.now();
+        return toUtcDate(year, now.getMonthValue() - 1, now.getDayOfMonth(), now.getHour(), now.getMinute(), now.getSecond(), now.getNano() / NANOS_PER_MILLI);
     }
 
     /**
@@ -105,11 +138,8 @@ public abstract class Instants {
      */
     public static Date of(int year, int month) {
         Assert.isTrue(0 <= month && month <= 11, "month param must be a value from 0 (January) to 11 (December)");
-        GregorianCalendar cal = new GregorianCalendar();
-        cal.set(Calendar.YEAR, year);
-        cal.set(Calendar.MONTH, month);
-        TimeZone fromTimeZone = cal.getTimeZone();
-        return new Date(convertDate(cal.getTimeInMillis(), fromTimeZone, UTC_TIMEZONE));
+        LocalDateTime now = LocalDateTime.now();
+        return toUtcDate(year, month, now.getDayOfMonth(), now.getHour(), now.getMinute(), now.getSecond(), now.getNano() / NANOS_PER_MILLI);
     }
 
     /**
@@ -124,12 +154,8 @@ public abstract class Instants {
     public static Date of(int year, int month, int day) {
         Assert.isTrue(0 <= month && month <= 11, "month param must be a value from 0 (January) to 11 (December)");
         Assert.isTrue(1 <= day && day <= 31, "day param must be a value from 1 to 31");
-        GregorianCalendar cal = new GregorianCalendar();
-        cal.set(Calendar.YEAR, year);
-        cal.set(Calendar.MONTH, month);
-        cal.set(Calendar.DAY_OF_MONTH, day);
-        TimeZone fromTimeZone = cal.getTimeZone();
-        return new Date(convertDate(cal.getTimeInMillis(), fromTimeZone, UTC_TIMEZONE));
+        LocalDateTime now = LocalDateTime.now();
+        return toUtcDate(year, month, day, now.getHour(), now.getMinute(), now.getSecond(), now.getNano() / NANOS_PER_MILLI);
     }
 
     /**
@@ -146,13 +172,8 @@ public abstract class Instants {
         Assert.isTrue(0 <= month && month <= 11, "month param must be a value from 0 (January) to 11 (December)");
         Assert.isTrue(1 <= day && day <= 31, "day param must be a value from 1 to 31");
         Assert.isTrue(0 <= hour && hour <= 23, "hour param must be a value from 0 to 23");
-        GregorianCalendar cal = new GregorianCalendar();
-        cal.set(Calendar.YEAR, year);
-        cal.set(Calendar.MONTH, month);
-        cal.set(Calendar.DAY_OF_MONTH, day);
-        cal.set(Calendar.HOUR_OF_DAY, hour);
-        TimeZone fromTimeZone = cal.getTimeZone();
-        return new Date(convertDate(cal.getTimeInMillis(), fromTimeZone, UTC_TIMEZONE));
+        LocalDateTime now = LocalDateTime.now();
+        return toUtcDate(year, month, day, hour, now.getMinute(), now.getSecond(), now.getNano() / NANOS_PER_MILLI);
     }
 
     /**
@@ -171,14 +192,8 @@ public abstract class Instants {
         Assert.isTrue(1 <= day && day <= 31, "day param must be a value from 1 to 31");
         Assert.isTrue(0 <= hour && hour <= 23, "hour param must be a value from 0 to 23");
         Assert.isTrue(0 <= minute && minute <= 59, "minute param must be a value from 0 to 59");
-        GregorianCalendar cal = new GregorianCalendar();
-        cal.set(Calendar.YEAR, year);
-        cal.set(Calendar.MONTH, month);
-        cal.set(Calendar.DAY_OF_MONTH, day);
-        cal.set(Calendar.HOUR_OF_DAY, hour);
-        cal.set(Calendar.MINUTE, minute);
-        TimeZone fromTimeZone = cal.getTimeZone();
-        return new Date(convertDate(cal.getTimeInMillis(), fromTimeZone, UTC_TIMEZONE));
+        LocalDateTime now = LocalDateTime.now();
+        return toUtcDate(year, month, day, hour, minute, now.getSecond(), now.getNano() / NANOS_PER_MILLI);
     }
 
     /**
@@ -199,15 +214,8 @@ public abstract class Instants {
         Assert.isTrue(0 <= hour && hour <= 23, "hour param must be a value from 1 to 23");
         Assert.isTrue(0 <= minute && minute <= 59, "minute param must be a value from 0 to 59");
         Assert.isTrue(0 <= second && second <= 59, "second param must be a value from 0 to 59");
-        GregorianCalendar cal = new GregorianCalendar();
-        cal.set(Calendar.YEAR, year);
-        cal.set(Calendar.MONTH, month);
-        cal.set(Calendar.DAY_OF_MONTH, day);
-        cal.set(Calendar.HOUR_OF_DAY, hour);
-        cal.set(Calendar.MINUTE, minute);
-        cal.set(Calendar.SECOND, second);
-        TimeZone fromTimeZone = cal.getTimeZone();
-        return new Date(convertDate(cal.getTimeInMillis(), fromTimeZone, UTC_TIMEZONE));
+        LocalDateTime now = LocalDateTime.now();
+        return toUtcDate(year, month, day, hour, minute, second, now.getNano() / NANOS_PER_MILLI);
     }
 
     /**
@@ -229,6 +237,43 @@ public abstract class Instants {
         Assert.isTrue(0 <= hour && hour <= 23, "hour param must be a value from 1 to 23");
         Assert.isTrue(0 <= minute && minute <= 59, "minute param must be a value from 0 to 59");
         Assert.isTrue(0 <= second && second <= 59, "second param must be a value from 0 to 59");
+        return toUtcDate(year, month, day, hour, minute, second, millisecond);
+    }
+
+    /**
+     * Resolves the given wall time in the default time zone like a lenient {@link GregorianCalendar} would:
+     * out of range days and milliseconds roll over, times in a gap are moved forward by the length of the gap and
+     * times in an overlap use the later instant.  Years before the Gregorian calendar (Julian dates) or beyond what
+     * {@link LocalDate} supports go through a {@code GregorianCalendar}.
+     */
+    private static Date toUtcDate(int year, int month, int day, int hour, int minute, int second, int millisecond) {
+        if (year < FIRST_GREGORIAN_YEAR || year > LAST_LOCAL_DATE_YEAR) {
+            return toUtcDateWithCalendar(year, month, day, hour, minute, second, millisecond);
+        }
+        long wallTime = LocalDate.of(year, 1, 1).plusMonths(month).plusDays(day - 1L).toEpochDay() * MILLIS_PER_DAY
+                + ((hour * 60L + minute) * 60 + second) * 1000 + millisecond;
+        TimeZone timeZone = TimeZone.getDefault();
+
+        int offsetBefore = getOffset(wallTime - MAX_TRANSITION_WINDOW, timeZone);
+        int offsetAfter = getOffset(wallTime + MAX_TRANSITION_WINDOW, timeZone);
+        long before = wallTime - offsetBefore;
+        long after = wallTime - offsetAfter;
+        boolean beforeValid = getOffset(before, timeZone) == offsetBefore;
+        boolean afterValid = getOffset(after, timeZone) == offsetAfter;
+
+        long time;
+        if (beforeValid && afterValid) {
+            time = Math.max(before, after);
+        } else if (afterValid) {
+            time = after;
+        } else {
+            // valid with the earlier offset only, or in a gap
+            time = before;
+        }
+        return new Date(convertDate(time, timeZone, UTC_TIMEZONE));
+    }
+
+    private static Date toUtcDateWithCalendar(int year, int month, int day, int hour, int minute, int second, int millisecond) {
         GregorianCalendar cal = new GregorianCalendar();
         cal.set(Calendar.YEAR, year);
         cal.set(Calendar.MONTH, month);
@@ -237,29 +282,112 @@ public abstract class Instants {
         cal.set(Calendar.MINUTE, minute);
         cal.set(Calendar.SECOND, second);
         cal.set(Calendar.MILLISECOND, millisecond);
-        TimeZone fromTimeZone = cal.getTimeZone();
-        return new Date(convertDate(cal.getTimeInMillis(), fromTimeZone, UTC_TIMEZONE));
+        return new Date(convertDate(cal.getTimeInMillis(), cal.getTimeZone(), UTC_TIMEZONE));
     }
 
-    private static long getTimeZoneOffset(long time, TimeZone from, TimeZone to) {
-        int fromOffset = from.getOffset(time);
-        int toOffset = to.getOffset(time);
-        int diff;
+    /**
+     * Returns {@code timeZone.getOffset(time)}, looked up in a table of the zone's offset transitions so that bulk
+     * conversions neither lock nor allocate.
+     */
+    private static int getOffset(long time, TimeZone timeZone) {
+        OffsetTable table = OFFSET_TABLES.get(timeZone.getID());
+        if (table == null) {
+            table = OffsetTable.of(timeZone);
+            if (OFFSET_TABLES.size() >= OFFSET_TABLE_CACHE_SIZE) {
+                OFFSET_TABLES.clear();
+            }
+            OFFSET_TABLES.put(timeZone.getID(), table);
+        }
+        return table.getOffset(time, timeZone);
+    }
+
+    /**
+     * The offsets of a time zone between 1900 and 2038, as the instants (in milliseconds) at which the offset changes
+     * and the offset from each of these instants on.  Offsets are read from the {@link TimeZone} itself, the zone's
+     * {@link ZoneRules} only provide the transition instants.  Times outside of the table, and zones whose rules
+     * differ from the zone the table was built from (e.g. a modified {@code TimeZone} instance), are delegated to
+     * {@link TimeZone#getOffset(long)}.
+     * <p>
+     * Lookups go through buckets of about 25 days, each holding the index of the last transition before it starts, so
+     * that finding an offset takes a bucket read and rarely more than one comparison.
+     */
+    private static final class OffsetTable {
+
+        private static final Instant START = Instant.parse("1900-01-01T00:00:00Z");
+
+        // TimeZone falls back to a simpler rule after 2037, which can disagree with java.time's transitions
+        private static final Instant END = Instant.parse("2038-01-01T00:00:00Z");
 
-        if (fromOffset >= 0) {
-            if (toOffset > 0) {
-                toOffset = -1 * toOffset;
-            } else {
-                toOffset = Math.abs(toOffset);
+        private static final long START_MILLIS = START.toEpochMilli();
+
+        private static final long END_MILLIS = END.toEpochMilli();
+
+        private static final int BUCKET_SHIFT = 31;
+
+        private static final OffsetTable UNSUPPORTED = new OffsetTable(null, new long[0], new int[0]);
+
+        private final TimeZone timeZone;
+
+        private final long[] transitions;
+
+        private final int[] offsets;
+
+        private final int[] buckets;
+
+        private OffsetTable(TimeZone timeZone, long[] transitions, int[] offsets) {
+            this.timeZone = timeZone;
+            this.transitions = transitions;
+            this.offsets = offsets;
+            this.buckets = new int[(int) ((END_MILLIS - START_MILLIS) >>> BUCKET_SHIFT) + 1];
+
+            int index = 0;
+            for (int bucket = 0; bucket < buckets.length && transitions.length > 0; bucket++) {
+                long bucketStart = START_MILLIS + ((long) bucket << BUCKET_SHIFT);
+                while (index + 1 < transitions.length && transitions[index + 1] <= bucketStart) {
+                    index++;
+                }
+                buckets[bucket] = index;
             }
-            diff = (fromOffset + toOffset) * -1;
-        } else {
-            if (toOffset <= 0) {
-                toOffset = -1 * Math.abs(toOffset);
+        }
+
+        static OffsetTable of(TimeZone timeZone) {
+            ZoneRules rules;
+            try {
+                rules = timeZone.toZoneId().getRules();
+            } catch (DateTimeException e) {
+                // custom zone id, not known to java.time
+                return UNSUPPORTED;
+            }
+
+            long[] transitions = new long[16];
+            int[] offsets = new int[16];
+            transitions[0] = START_MILLIS;
+            offsets[0] = timeZone.getOffset(START_MILLIS);
+            int size = 1;
+
+            ZoneOffsetTransition transition = rules.nextTransition(START);
+            while (transition != null && transition.getInstant().isBefore(END)) {
+                if (size == transitions.length) {
+                    transitions = Arrays.copyOf(transitions, size * 2);
+                    offsets = Arrays.copyOf(offsets, size * 2);
+                }
+                transitions[size] = transition.getInstant().toEpochMilli();
+                offsets[size] = timeZone.getOffset(transitions[size]);
+                size++;
+                transition = rules.nextTransition(transition.getInstant());
             }
-            diff = (Math.abs(fromOffset) + toOffset);
+            return new OffsetTable((TimeZone) timeZone.clone(), Arrays.copyOf(transitions, size), Arrays.copyOf(offsets, size));
         }
-        return diff;
-    }
 
+        int getOffset(long time, TimeZone zone) {
+            if (this.timeZone == null || time < START_MILLIS || time >= END_MILLIS || !this.timeZone.hasSameRules(zone)) {
+                return zone.getOffset(time);
+            }
+            int index = buckets[(int) ((time - START_MILLIS) >>> BUCKET_SHIFT)];
+            while (index + 1 < transitions.length && transitions[index + 1] <= time) {
+                index++;
+            }
+            return offsets[index];
+        }
+    }
 }
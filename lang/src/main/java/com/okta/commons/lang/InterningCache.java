@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.lang;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of values parsed from strings, keyed by the raw string.
+ * <p>
+ * Parsed values are interned: equal values are returned as the same (canonical) instance, even when parsed from
+ * different strings or by different caches {@link #withParser(Function) sharing} the interned values. Values are
+ * cached until the cache is full, at which point it is cleared. {@code null} values and values that fail to parse
+ * are never cached.
+ *
+ * @param <T> the type of values held in this cache
+ * @since 2.0.2
+ */
+final class InterningCache<T> {
+
+    private final int maxSize;
+
+    private final Function<String, T> parser;
+
+    private final Map<String, T> cache;
+
+    private final Map<T, T> interned;
+
+    InterningCache(int maxSize, Function<String, T> parser) {
+        this(maxSize, parser, new ConcurrentHashMap<>(maxSize));
+    }
+
+    private InterningCache(int maxSize, Function<String, T> parser, Map<T, T> interned) {
+        this.maxSize = maxSize;
+        this.parser = parser;
+        this.cache = new ConcurrentHashMap<>(maxSize);
+        this.interned = interned;
+    }
+
+    /**
+     * Returns a cache using the given parser, that shares this cache's interned values.
+     *
+     * @param otherParser the parser of the new cache
+     * @return a new cache
+     */
+    InterningCache<T> withParser(Function<String, T> otherParser) {
+        return new InterningCache<>(maxSize, otherParser, interned);
+    }
+
+    T get(String value) {
+        if (value == null) {
+            return parser.apply(null);
+        }
+
+        T result = cache.get(value);
+        if (result == null) {
+            result = parser.apply(value);
+            if (result == null) {
+                return null;
+            }
+            result = intern(result);
+            if (cache.size() >= maxSize) {
+                cache.clear();
+            }
+            cache.put(value, result);
+        }
+        return result;
+    }
+
+    private T intern(T value) {
+        T known = interned.get(value);
+        if (known != null) {
+            return known;
+        }
+        if (interned.size() >= maxSize) {
+            interned.clear();
+        }
+        known = interned.putIfAbsent(value, value);
+        return known != null ? known : value;
+    }
+}
@@ -28,6 +28,14 @@ import java.util.Locale;
  */
 public final class Locales {
 
+    private static final int CACHE_SIZE = 256;
+
+    /**
+     * Locales parsed by {@link #toLocale(String)}, shared with {@link Strings#parseLocaleString(String)} so that both
+     * return the same instances.
+     */
+    static final InterningCache<Locale> CACHE = new InterningCache<>(CACHE_SIZE, Locales::createLocale);
+
     private Locales() {}
 
     /**
@@ -55,6 +63,8 @@ public final class Locales {
      * The length must be correct.
      * </p>
      *
+     * <p>Parsed locales are cached, repeated calls with the same string return the same instance.</p>
+     *
      * @param str the locale String to convert, null returns null
      * @return a Locale, null if null input
      * @throws IllegalArgumentException if the string is an invalid format
@@ -64,6 +74,10 @@ public final class Locales {
         if (str == null) {
             return null;
         }
+        return CACHE.get(str);
+    }
+
+    private static Locale createLocale(final String str) {
         if (str.isEmpty()) { // LANG-941 - JDK 8 introduced an empty locale where all fields are blank
             return new Locale("", "");
         }
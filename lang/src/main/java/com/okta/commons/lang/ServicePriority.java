@@ -0,0 +1,51 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.lang;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Orders service providers loaded by {@link ServiceRegistry}: providers with a higher value are selected first,
+ * providers without this annotation have a priority of {@link #DEFAULT}.  E.g. to select a custom
+ * {@code RequestExecutorFactory} over the ones shipped by Okta:
+ * <pre>
+ * &#64;ServicePriority(1000)
+ * public class MyRequestExecutorFactory implements RequestExecutorFactory { ... }
+ * </pre>
+ *
+ * @since 2.0.2
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ServicePriority {
+
+    /**
+     * The priority of providers without a {@code ServicePriority} annotation.
+     */
+    int DEFAULT = 0;
+
+    /**
+     * The priority of the provider, higher values are selected first.
+     *
+     * @return the priority
+     */
+    int value();
+}
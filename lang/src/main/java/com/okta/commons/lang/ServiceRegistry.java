@@ -0,0 +1,190 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.lang;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the {@link ServiceLoader service providers} visible to the thread context class loader.
+ * <p>
+ * Unlike iterating a new {@code ServiceLoader}, {@code META-INF/services} is only scanned the first time a service is
+ * looked up for a given class loader (or when {@link #warmUp(Class[]) warming up}), later lookups only instantiate the
+ * providers.  Providers are ordered by {@link ServicePriority} (highest first), then by class name, so the selected
+ * provider does not depend on the order of the class path.
+ * <p>
+ * Each lookup returns new provider instances.  Class loaders and provider classes are only weakly referenced, so
+ * undeployed applications can be unloaded.
+ * <p>
+ * A provider that fails to load (a {@link ServiceConfigurationError}, e.g. a jar built against an incompatible
+ * version) is logged and skipped, so that it does not hide the other providers of its service.
+ *
+ * @since 2.0.2
+ */
+public final class ServiceRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceRegistry.class);
+
+    private static final Comparator<Class<?>> PRIORITY_ORDER =
+            Comparator.<Class<?>>comparingInt(ServiceRegistry::priority).reversed().thenComparing(Class::getName);
+
+    /**
+     * Provider classes in priority order, by thread context class loader then service name.
+     */
+    private static final Map<ClassLoader, Map<String, List<Reference<Class<?>>>>> PROVIDERS = new WeakHashMap<>();
+
+    private ServiceRegistry() {}
+
+    /**
+     * Returns new instances of all the providers of the given service, in priority order.
+     *
+     * @param service the service interface or class
+     * @param <T> the service type
+     * @return the providers, empty if there are none
+     * @throws InstantiationException if a provider cannot be instantiated
+     */
+    public static <T> List<T> loadAll(Class<T> service) {
+        List<T> scanned = new ArrayList<>();
+        List<Class<? extends T>> providerClasses = providerClasses(service, scanned);
+        if (!scanned.isEmpty()) {
+            return scanned;
+        }
+        List<T> providers = new ArrayList<>(providerClasses.size());
+        for (Class<? extends T> providerClass : providerClasses) {
+            providers.add(Classes.newInstance(providerClass));
+        }
+        return providers;
+    }
+
+    /**
+     * Returns a new instance of the provider of the given service with the highest priority.
+     *
+     * @param service the service interface or class
+     * @param <T> the service type
+     * @return the provider, or an empty optional if there are none
+     * @throws InstantiationException if the provider cannot be instantiated
+     */
+    public static <T> Optional<T> loadFirst(Class<T> service) {
+        List<T> scanned = new ArrayList<>();
+        List<Class<? extends T>> providerClasses = providerClasses(service, scanned);
+        if (!scanned.isEmpty()) {
+            return Optional.of(scanned.get(0));
+        }
+        return providerClasses.isEmpty()
+                ? Optional.empty()
+                : Optional.of(Classes.newInstance(providerClasses.get(0)));
+    }
+
+    /**
+     * Scans the providers of the given services ahead of their first lookup, e.g. during application startup.
+     *
+     * @param services the service interfaces or classes
+     */
+    public static void warmUp(Class<?>... services) {
+        for (Class<?> service : services) {
+            providerClasses(service, new ArrayList<>());
+        }
+    }
+
+    /**
+     * Drops the providers found for the current thread context class loader, they are scanned again on their next
+     * lookup.
+     */
+    public static void reload() {
+        synchronized (PROVIDERS) {
+            PROVIDERS.remove(Thread.currentThread().getContextClassLoader());
+        }
+    }
+
+    /**
+     * Returns the provider classes of the given service, in priority order.  When the class path is scanned, which
+     * instantiates the providers, these instances are added to {@code scanned} in the same order.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> List<Class<? extends T>> providerClasses(Class<T> service, List<T> scanned) {
+        Assert.notNull(service, "service cannot be null");
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        Map<String, List<Reference<Class<?>>>> providers;
+        synchronized (PROVIDERS) {
+            providers = PROVIDERS.computeIfAbsent(classLoader, key -> new ConcurrentHashMap<>());
+        }
+
+        List<Reference<Class<?>>> cached = providers.get(service.getName());
+        if (cached != null) {
+            List<Class<? extends T>> providerClasses = new ArrayList<>(cached.size());
+            for (Reference<Class<?>> reference : cached) {
+                Class<?> providerClass = reference.get();
+                // a different service class with the same name, or a provider that was unloaded
+                if (providerClass == null || !service.isAssignableFrom(providerClass)) {
+                    providerClasses = null;
+                    break;
+                }
+                providerClasses.add((Class<? extends T>) providerClass);
+            }
+            if (providerClasses != null) {
+                return providerClasses;
+            }
+        }
+
+        scan(service, classLoader, scanned);
+        List<Class<? extends T>> providerClasses = new ArrayList<>(scanned.size());
+        scanned.forEach(provider -> providerClasses.add((Class<? extends T>) provider.getClass()));
+        List<Reference<Class<?>>> references = new ArrayList<>(providerClasses.size());
+        providerClasses.forEach(providerClass -> references.add(new WeakReference<>(providerClass)));
+        providers.put(service.getName(), references);
+        return providerClasses;
+    }
+
+    private static <T> void scan(Class<T> service, ClassLoader classLoader, List<T> providers) {
+        Iterator<T> iterator = ServiceLoader.load(service, classLoader).iterator();
+        while (true) {
+            try {
+                if (!iterator.hasNext()) {
+                    break;
+                }
+            } catch (ServiceConfigurationError e) {
+                // the provider configuration file itself cannot be read, there is nothing left to iterate
+                log.warn("Unable to look up providers of {}: {}", service.getName(), e.getMessage(), e);
+                break;
+            }
+            try {
+                providers.add(iterator.next());
+            } catch (ServiceConfigurationError e) {
+                // ServiceLoader carries on with the next provider
+                log.warn("Skipping provider of {} that failed to load: {}", service.getName(), e.getMessage(), e);
+            }
+        }
+        providers.sort(Comparator.comparing(Object::getClass, PRIORITY_ORDER));
+    }
+
+    private static int priority(Class<?> providerClass) {
+        ServicePriority priority = providerClass.getAnnotation(ServicePriority.class);
+        return priority != null ? priority.value() : ServicePriority.DEFAULT;
+    }
+}
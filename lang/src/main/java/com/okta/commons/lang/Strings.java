@@ -18,6 +18,8 @@
 package com.okta.commons.lang;
 
 import java.io.ByteArrayOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -71,6 +73,13 @@ public abstract class Strings {
 
     private static final char EXTENSION_SEPARATOR = '.';
 
+    private static final int TIME_ZONE_CACHE_SIZE = 128;
+
+    private static final InterningCache<Locale> LOCALES = Locales.CACHE.withParser(Strings::createLocale);
+
+    private static final InterningCache<TimeZone> TIME_ZONES =
+            new InterningCache<>(TIME_ZONE_CACHE_SIZE, Strings::createTimeZone);
+
 
     //---------------------------------------------------------------------
     // General convenience methods for working with Strings
@@ -790,10 +799,15 @@ public abstract class Strings {
      * @param localeString the locale {@code String}, following {@code Locale's}
      * {@code toString()} format ("en", "en_UK", etc);
      * also accepts spaces as separators, as an alternative to underscores
-     * @return a corresponding {@code Locale} instance
+     * @return a corresponding {@code Locale} instance, the same instance for repeated calls with the same
+     * {@code localeString}
      * @throws IllegalArgumentException in case of an invalid locale specification
      */
     public static Locale parseLocaleString(String localeString) {
+        return LOCALES.get(localeString);
+    }
+
+    private static Locale createLocale(String localeString) {
         String[] parts = tokenizeToStringArray(localeString, "_ ", false, false);
         String language = (parts.length > 0 ? parts[0] : "");
         String country = (parts.length > 1 ? parts[1] : "");
@@ -839,10 +853,14 @@ public abstract class Strings {
      * Parse the given {@code timeZoneString} value into a {@link TimeZone}.
      * @param timeZoneString the time zone {@code String}, following {@link TimeZone#getTimeZone(String)}
      * but throwing {@link IllegalArgumentException} in case of an invalid time zone specification
-     * @return a corresponding {@link TimeZone} instance
+     * @return a corresponding {@link TimeZone} instance, a copy of a cached instance as time zones are mutable
      * @throws IllegalArgumentException in case of an invalid time zone specification
      */
     public static TimeZone parseTimeZoneString(String timeZoneString) {
+        return (TimeZone) TIME_ZONES.get(timeZoneString).clone();
+    }
+
+    private static TimeZone createTimeZone(String timeZoneString) {
         TimeZone timeZone = TimeZone.getTimeZone(timeZoneString);
         if ("GMT".equals(timeZone.getID()) && !timeZoneString.startsWith("GMT")) {
             // We don't want that GMT fallback...
@@ -1079,8 +1097,8 @@ public abstract class Strings {
     }
 
     /**
-     * Tokenize the given {@code String} into a {@code String} array via a
-     * {@link StringTokenizer}.
+     * Tokenize the given {@code String} into a {@code String} array, like a
+     * {@link StringTokenizer} would.
      * <p>Trims tokens and omits empty tokens.
      * <p>The given {@code delimiters} string can consist of any number of
      * delimiter characters. Each of those characters can be used to separate
@@ -1099,8 +1117,8 @@ public abstract class Strings {
     }
 
     /**
-     * Tokenize the given {@code String} into a {@code String} array via a
-     * {@link StringTokenizer}.
+     * Tokenize the given {@code String} into a {@code String} array, like a
+     * {@link StringTokenizer} would.
      * <p>The given {@code delimiters} string can consist of any number of
      * delimiter characters. Each of those characters can be used to separate
      * tokens. A delimiter is always a single character; for multi-character
@@ -1125,18 +1143,62 @@ public abstract class Strings {
             return null;
         }
 
-        StringTokenizer st = new StringTokenizer(str, delimiters);
         List<String> tokens = new ArrayList<>();
-        while (st.hasMoreTokens()) {
-            String token = st.nextToken();
+        forEachToken(str, delimiters, trimTokens, ignoreEmptyTokens,
+            (source, start, end) -> tokens.add(str.substring(start, end)));
+        return toStringArray(tokens);
+    }
+
+    /**
+     * Tokenize the given {@code CharSequence} like {@link #tokenizeToStringArray(String, String, boolean, boolean)},
+     * passing the bounds of each token to {@code consumer} rather than collecting them, so that no intermediate
+     * strings or arrays are allocated.
+     * <p>E.g. to parse a comma separated header value:
+     * <pre class="code">
+     * Strings.forEachToken(value, ",", true, true, (source, start, end) -&gt; parse(source, start, end));
+     * </pre>
+     * @param str the {@code CharSequence} to tokenize, may be {@code null}
+     * @param delimiters the delimiter characters, assembled as a {@code String}
+     * (each of the characters is individually considered as a delimiter)
+     * @param trimTokens trim the tokens, as {@link String#trim()} would
+     * @param ignoreEmptyTokens omit tokens that are empty after trimming
+     * @param consumer receives the bounds of each token, in order
+     * @see #tokenizeToStringArray(String, String, boolean, boolean)
+     * @since 2.0.2
+     */
+    public static void forEachToken(CharSequence str, String delimiters, boolean trimTokens, boolean ignoreEmptyTokens,
+                                    TokenConsumer consumer) {
+        if (str == null) {
+            return;
+        }
+
+        int length = str.length();
+        int index = 0;
+        while (index < length) {
+            // like StringTokenizer, consecutive delimiters never produce empty tokens
+            while (index < length && delimiters.indexOf(str.charAt(index)) >= 0) {
+                index++;
+            }
+            if (index == length) {
+                break;
+            }
+            int start = index;
+            while (index < length && delimiters.indexOf(str.charAt(index)) < 0) {
+                index++;
+            }
+            int end = index;
             if (trimTokens) {
-                token = token.trim();
+                while (start < end && str.charAt(start) <= ' ') {
+                    start++;
+                }
+                while (end > start && str.charAt(end - 1) <= ' ') {
+                    end--;
+                }
             }
-            if (!ignoreEmptyTokens || token.length() > 0) {
-                tokens.add(token);
+            if (!ignoreEmptyTokens || end > start) {
+                consumer.accept(str, start, end);
             }
         }
-        return toStringArray(tokens);
     }
 
     /**
@@ -1180,24 +1242,61 @@ public abstract class Strings {
         }
 
         List<String> result = new ArrayList<>();
-        if ("".equals(delimiter)) {
-            for (int i = 0; i < str.length(); i++) {
-                result.add(deleteAny(str.substring(i, i + 1), charsToDelete));
+        forEachDelimited(str, delimiter,
+            (source, start, end) -> result.add(deleteAny(str.substring(start, end), charsToDelete)));
+        return toStringArray(result);
+    }
+
+    /**
+     * Split the given delimited list like {@link #delimitedListToStringArray(String, String)}, passing the bounds of
+     * each element to {@code consumer} rather than collecting them, so that no intermediate strings or arrays are
+     * allocated.  Unlike {@link #forEachToken}, empty elements between consecutive delimiters are passed on.
+     * @param str the delimited list, may be {@code null}
+     * @param delimiter the delimiter between elements (this is a single delimiter,
+     * rather than a bunch individual delimiter characters), {@code null} for a single element,
+     * or an empty {@code String} for one element per character
+     * @param consumer receives the bounds of each element, in order
+     * @see #delimitedListToStringArray(String, String)
+     * @since 2.0.2
+     */
+    public static void forEachDelimited(CharSequence str, String delimiter, TokenConsumer consumer) {
+        if (str == null) {
+            return;
+        }
+        int length = str.length();
+        if (delimiter == null) {
+            consumer.accept(str, 0, length);
+        }
+        else if (delimiter.isEmpty()) {
+            for (int i = 0; i < length; i++) {
+                consumer.accept(str, i, i + 1);
             }
         }
         else {
             int pos = 0;
             int delPos;
-            while ((delPos = str.indexOf(delimiter, pos)) != -1) {
-                result.add(deleteAny(str.substring(pos, delPos), charsToDelete));
+            while ((delPos = indexOf(str, delimiter, pos)) != -1) {
+                consumer.accept(str, pos, delPos);
                 pos = delPos + delimiter.length();
             }
-            if (str.length() > 0 && pos <= str.length()) {
-                // Add rest of String, but not in case of empty input.
-                result.add(deleteAny(str.substring(pos), charsToDelete));
+            if (length > 0 && pos <= length) {
+                // Add rest of the sequence, but not in case of empty input.
+                consumer.accept(str, pos, length);
             }
         }
-        return toStringArray(result);
+    }
+
+    private static int indexOf(CharSequence str, String substring, int fromIndex) {
+        if (str instanceof String) {
+            return ((String) str).indexOf(substring, fromIndex);
+        }
+        int last = str.length() - substring.length();
+        for (int i = fromIndex; i <= last; i++) {
+            if (substringMatch(str, i, substring)) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     /**
@@ -1220,8 +1319,7 @@ public abstract class Strings {
      */
     public static Set<String> commaDelimitedListToSet(String str) {
         Set<String> set = new LinkedHashSet<>();
-        String[] tokens = commaDelimitedListToStringArray(str);
-        Collections.addAll(set, tokens);
+        forEachDelimited(str, ",", (source, start, end) -> set.add(str.substring(start, end)));
         return set;
     }
 
@@ -1361,4 +1459,140 @@ public abstract class Strings {
         return getBytes(string, StandardCharsets.UTF_8);
     }
 
+    /**
+     * Returns the number of bytes {@code str} takes once encoded as UTF-8, without encoding it.  Unpaired surrogates
+     * count as one byte, as they are encoded as {@code '?'} (like {@link String#getBytes(Charset)} does).
+     *
+     * @param str the character sequence
+     * @return the length of the UTF-8 encoding of {@code str}
+     * @since 2.0.2
+     */
+    public static int utf8Length(CharSequence str) {
+        int length = str.length();
+        int bytes = length;
+        int i = 0;
+        // ASCII fast path, one byte per char
+        while (i < length && str.charAt(i) < 0x80) {
+            i++;
+        }
+        for (; i < length; i++) {
+            char c = str.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(str.charAt(i + 1))) {
+                // 4 bytes for the 2 chars
+                bytes += 2;
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Encodes {@code str} as UTF-8 into {@code target}, starting at its position, without allocating.  Unpaired
+     * surrogates are encoded as {@code '?'}, like {@link String#getBytes(Charset)} does.  Use
+     * {@link #utf8Length(CharSequence)} to size the buffer.
+     *
+     * @param str the character sequence to encode
+     * @param target the buffer to write to, its position is advanced past the encoded bytes
+     * @return the number of bytes written
+     * @throws BufferOverflowException if {@code target} is too small, its position is then left unchanged
+     * @since 2.0.2
+     */
+    @SuppressWarnings("PMD.UselessParentheses")
+    public static int encodeUtf8(CharSequence str, ByteBuffer target) {
+        int length = str.length();
+        int start = target.position();
+        int i = 0;
+        if (target.hasArray()) {
+            // ASCII fast path, straight into the backing array
+            byte[] array = target.array();
+            int offset = target.arrayOffset() + start;
+            int limit = Math.min(length, target.remaining());
+            while (i < limit && str.charAt(i) < 0x80) {
+                array[offset + i] = (byte) str.charAt(i);
+                i++;
+            }
+            target.position(start + i);
+        }
+
+        try {
+            for (; i < length; i++) {
+                char c = str.charAt(i);
+                if (c < 0x80) {
+                    target.put((byte) c);
+                } else if (c < 0x800) {
+                    target.put((byte) (0xC0 | (c >> 6)));
+                    target.put((byte) (0x80 | (c & 0x3F)));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(str.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, str.charAt(++i));
+                    target.put((byte) (0xF0 | (codePoint >> 18)));
+                    target.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    target.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    target.put((byte) (0x80 | (codePoint & 0x3F)));
+                } else if (Character.isSurrogate(c)) {
+                    // unpaired surrogates are replaced with '?', as String.getBytes() does
+                    target.put((byte) '?');
+                } else {
+                    target.put((byte) (0xE0 | (c >> 12)));
+                    target.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                    target.put((byte) (0x80 | (c & 0x3F)));
+                }
+            }
+        } catch (BufferOverflowException e) {
+            target.position(start);
+            throw e;
+        }
+        return target.position() - start;
+    }
+
+    /**
+     * Decodes the remaining bytes of {@code source} as UTF-8, malformed input is replaced like
+     * {@link String#String(byte[], Charset)} does.  Heap buffers are decoded in place, without copying them first.
+     *
+     * @param source the buffer to decode, its position is advanced to its limit
+     * @return the decoded string
+     * @since 2.0.2
+     */
+    public static String decodeUtf8(ByteBuffer source) {
+        int length = source.remaining();
+        String decoded;
+        if (source.hasArray()) {
+            decoded = new String(source.array(), source.arrayOffset() + source.position(), length, StandardCharsets.UTF_8);
+        } else {
+            int position = source.position();
+            char[] ascii = new char[length];
+            int i = 0;
+            // ASCII fast path, one char per byte
+            while (i < length && source.get(position + i) >= 0) {
+                ascii[i] = (char) source.get(position + i);
+                i++;
+            }
+            // otherwise the JDK's cached per-thread decoder is used
+            decoded = i == length ? new String(ascii) : StandardCharsets.UTF_8.decode(source.duplicate()).toString();
+        }
+        source.position(source.limit());
+        return decoded;
+    }
+
+    /**
+     * Receives the bounds of the tokens found by {@link #forEachToken} and {@link #forEachDelimited}.
+     * @since 2.0.2
+     */
+    @FunctionalInterface
+    public interface TokenConsumer {
+
+        /**
+         * Accepts the token from {@code start} (inclusive) to {@code end} (exclusive) of {@code source}.
+         * @param source the tokenized sequence
+         * @param start the index of the first character of the token
+         * @param end the index after the last character of the token
+         */
+        void accept(CharSequence source, int start, int end);
+    }
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.lang;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Generates, at build time, the index of Okta component versions {@link ApplicationInfo} reads instead of scanning
+ * the class path for every {@code META-INF/okta/version.properties} resource at runtime.  The index merges all of
+ * these resources into a single {@value #INDEX_LOCATION} resource, run it from the application's build once its
+ * dependencies are resolved, e.g. with Maven:
+ * <pre>
+ * &lt;plugin&gt;
+ *     &lt;groupId&gt;org.codehaus.mojo&lt;/groupId&gt;
+ *     &lt;artifactId&gt;exec-maven-plugin&lt;/artifactId&gt;
+ *     &lt;executions&gt;
+ *         &lt;execution&gt;
+ *             &lt;id&gt;okta-version-index&lt;/id&gt;
+ *             &lt;phase&gt;prepare-package&lt;/phase&gt;
+ *             &lt;goals&gt;&lt;goal&gt;java&lt;/goal&gt;&lt;/goals&gt;
+ *             &lt;configuration&gt;
+ *                 &lt;mainClass&gt;com.okta.commons.lang.VersionIndexGenerator&lt;/mainClass&gt;
+ *                 &lt;arguments&gt;&lt;argument&gt;${project.build.outputDirectory}&lt;/argument&gt;&lt;/arguments&gt;
+ *                 &lt;classpathScope&gt;runtime&lt;/classpathScope&gt;
+ *             &lt;/configuration&gt;
+ *         &lt;/execution&gt;
+ *     &lt;/executions&gt;
+ * &lt;/plugin&gt;
+ * </pre>
+ * The index must be regenerated whenever Okta dependencies change, a stale index reports stale versions.
+ *
+ * @since 2.0.2
+ */
+public final class VersionIndexGenerator {
+
+    /**
+     * The location of the version metadata each Okta component ships.
+     */
+    public static final String VERSION_FILE_LOCATION = "META-INF/okta/version.properties";
+
+    /**
+     * The location of the generated index.
+     */
+    public static final String INDEX_LOCATION = "META-INF/okta/version-index.properties";
+
+    private VersionIndexGenerator() {}
+
+    /**
+     * Writes the index of the components on the class path under the given directory.
+     *
+     * @param args the output directory, e.g. {@code target/classes}
+     * @throws IOException if the metadata cannot be read or the index cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        Assert.isTrue(args.length == 1, "Usage: VersionIndexGenerator <output directory>");
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = VersionIndexGenerator.class.getClassLoader();
+        }
+        write(scan(classLoader), Paths.get(args[0]));
+    }
+
+    /**
+     * Merges the version metadata of all components visible to the given class loader.
+     *
+     * @param classLoader the class loader to scan
+     * @return the component names and versions, sorted by name
+     * @throws IOException if the metadata cannot be read
+     */
+    static Map<String, String> scan(ClassLoader classLoader) throws IOException {
+        Map<String, String> versions = new TreeMap<>();
+        Enumeration<URL> resources = classLoader.getResources(VERSION_FILE_LOCATION);
+        while (resources.hasMoreElements()) {
+            Properties properties = new Properties();
+            try (InputStream in = resources.nextElement().openStream()) {
+                properties.load(in);
+            }
+            properties.stringPropertyNames().forEach(name -> versions.put(name, properties.getProperty(name)));
+        }
+        return versions;
+    }
+
+    /**
+     * Writes the given versions to the index under {@code outputDirectory}.
+     *
+     * @param versions the component names and versions
+     * @param outputDirectory the root of the class path resources
+     * @return the index file
+     * @throws IOException if the index cannot be written
+     */
+    static Path write(Map<String, String> versions, Path outputDirectory) throws IOException {
+        Path index = outputDirectory.resolve(INDEX_LOCATION);
+        Files.createDirectories(index.getParent());
+        Properties properties = new Properties();
+        properties.putAll(versions);
+        try (OutputStream out = Files.newOutputStream(index)) {
+            properties.store(out, "Generated by " + VersionIndexGenerator.class.getName() + ", do not edit");
+        }
+        return index;
+    }
+}
@@ -20,8 +20,13 @@ import org.testng.annotations.Test
 
 import static org.hamcrest.MatcherAssert.assertThat
 import static org.hamcrest.Matchers.allOf
+import static org.hamcrest.Matchers.anyOf
+import static org.hamcrest.Matchers.containsString
+import static org.hamcrest.Matchers.endsWith
 import static org.hamcrest.Matchers.hasEntry
 import static org.hamcrest.Matchers.is
+import static org.hamcrest.Matchers.not
+import static org.hamcrest.Matchers.sameInstance
 
 class ApplicationInfoTest {
 
@@ -35,6 +40,36 @@ class ApplicationInfoTest {
         )
     }
 
+    @Test
+    void testUserAgent() {
+        String userAgent = ApplicationInfo.getUserAgent()
+        assertThat userAgent, allOf(
+                containsString("okta-test-lib1/1.2.3"),
+                containsString("okta-test-lib2/v3.2.1"),
+                endsWith("java/${System.getProperty("java.version")} ${System.getProperty("os.name")}/${System.getProperty("os.version")}")
+        )
+        // precomputed once detection completed
+        assertThat ApplicationInfo.peekUserAgent(), sameInstance(userAgent)
+    }
+
+    @Test
+    void testPeekUserAgentDoesNotBlock() {
+        ApplicationInfo.detectInBackground()
+        // either the minimal User-Agent or the full one, depending on whether detection completed
+        assertThat ApplicationInfo.peekUserAgent(), containsString("java/${System.getProperty("java.version")}")
+        assertThat ApplicationInfo.peekUserAgent(), anyOf(
+                is("java/${System.getProperty("java.version")} ${System.getProperty("os.name")}/${System.getProperty("os.version")}".toString()),
+                is(ApplicationInfo.getUserAgent()))
+    }
+
+    @Test
+    void testMapIsACopy() {
+        def info = ApplicationInfo.get()
+        info.put("foo", "1.0")
+        assertThat ApplicationInfo.get().containsKey("foo"), is(false)
+        assertThat ApplicationInfo.getUserAgent(), not(containsString("foo/1.0"))
+    }
+
     @Test
     void quickTest() {
         // groovy will access private methods and fields
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.lang
+
+import groovy.transform.CompileStatic
+import org.testng.annotations.Test
+
+import java.lang.ref.WeakReference
+import java.lang.reflect.InvocationHandler
+import java.lang.reflect.Proxy
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+import static org.testng.Assert.assertEquals
+import static org.testng.Assert.assertFalse
+import static org.testng.Assert.assertNull
+import static org.testng.Assert.assertSame
+import static org.testng.Assert.assertTrue
+import static org.testng.Assert.fail
+
+class ClassesTest {
+
+    @Test
+    void testForName() {
+        assertSame Classes.forName("java.lang.String"), String
+        assertTrue Classes.isAvailable("java.lang.String")
+    }
+
+    @Test
+    void testUnknownClass() {
+        assertFalse Classes.isAvailable("com.okta.sdk.impl.DoesNotExist")
+        try {
+            Classes.forName("com.okta.sdk.impl.DoesNotExist")
+            fail("Should have thrown")
+        } catch (UnknownClassException e) {
+            assertTrue e.message.contains("okta-sdk-impl")
+        }
+    }
+
+    @Test
+    void testLookupsAreCached() {
+        def classLoader = new CountingClassLoader()
+        withContextClassLoader(classLoader) {
+            3.times {
+                assertFalse Classes.isAvailable("com.example.Missing")
+                assertSame Classes.forName("com.example.Aliased"), String
+            }
+        }
+        assertEquals classLoader.loads["com.example.Missing"], 1
+        assertEquals classLoader.loads["com.example.Aliased"], 1
+    }
+
+    @Test
+    void testClearLookupCache() {
+        def classLoader = new CountingClassLoader()
+        withContextClassLoader(classLoader) {
+            assertFalse Classes.isAvailable("com.example.Missing")
+            assertFalse Classes.isAvailable("com.example.Missing")
+            Classes.clearLookupCache()
+            assertFalse Classes.isAvailable("com.example.Missing")
+        }
+        assertEquals classLoader.loads["com.example.Missing"], 2
+    }
+
+    @Test
+    void testCacheIsSharedAcrossThreads() {
+        def classLoader = new CountingClassLoader()
+        def pool = Executors.newFixedThreadPool(4)
+        try {
+            def futures = (1..4).collect {
+                pool.submit({
+                    withContextClassLoader(classLoader) {
+                        100.times { assertSame Classes.forName("com.example.Aliased"), String }
+                    }
+                } as Runnable)
+            }
+            futures*.get(10, TimeUnit.SECONDS)
+        } finally {
+            pool.shutdownNow()
+        }
+        // concurrent first lookups may each go through the class loader, later ones are cached
+        assertTrue classLoader.loads["com.example.Aliased"] <= 4
+    }
+
+    @Test
+    void testCacheIsPerContextClassLoader() {
+        withContextClassLoader(new CountingClassLoader()) {
+            assertTrue Classes.isAvailable("com.example.Aliased")
+        }
+        withContextClassLoader(new URLClassLoader(new URL[0], getClass().getClassLoader())) {
+            assertFalse Classes.isAvailable("com.example.Aliased")
+        }
+    }
+
+    @Test
+    void testContextClassLoaderIsNotRetained() {
+        def reference = new WeakReference<ClassLoader>(new CountingClassLoader())
+        withContextClassLoader(reference.get()) {
+            assertTrue Classes.isAvailable("com.example.Aliased")
+        }
+
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc()
+            Thread.sleep(10)
+        }
+        assertNull reference.get()
+    }
+
+    @Test
+    void testNewInstance() {
+        assertEquals Classes.newInstance(ArrayList).size(), 0
+        assertEquals Classes.newInstance("java.lang.StringBuilder", "okta").toString(), "okta"
+        assertEquals Classes.newInstance(Integer, "42"), 42
+        assertEquals Classes.instantiate(Classes.getConstructor(Locale, String, String), "en", "US"), Locale.US
+    }
+
+    @Test
+    void testConstructorsAreResolvedOnce() {
+        Classes.newInstance(StringBuilder, "a")
+        Classes.newInstance(StringBuilder, "b")
+        Classes.newInstance(StringBuilder)
+
+        // one for (String) and one for the default constructor
+        assertEquals Classes.CONSTRUCTOR_FACTORIES.get(StringBuilder).size(), 2
+    }
+
+    @Test
+    void testConstructorKeysDoNotRetainOtherClassLoaders() {
+        def childLoader = new URLClassLoader(new URL[0], getClass().getClassLoader())
+        Class<?> childClass = Proxy.getProxyClass(childLoader, Runnable)
+
+        assertTrue Classes.isCacheableKey(StringBuilder, [String] as Class[])
+        assertTrue Classes.isCacheableKey(ClassesTest, [String, ClassesTest] as Class[])
+        assertTrue Classes.isCacheableKey(childClass, [ClassesTest, InvocationHandler] as Class[])
+        assertFalse Classes.isCacheableKey(ClassesTest, [String, childClass] as Class[])
+        assertFalse Classes.isCacheableKey(StringBuilder, [childClass] as Class[])
+    }
+
+    @Test
+    void testConstructorExceptionIsWrapped() {
+        try {
+            Classes.newInstance(Integer, "not a number")
+            fail("Should have thrown")
+        } catch (InstantiationException e) {
+            assertTrue e.cause instanceof NumberFormatException
+        }
+    }
+
+    @Test
+    void testConstructorErrorIsWrapped() {
+        try {
+            Classes.newInstance(FailingConstructor)
+            fail("Should have thrown")
+        } catch (InstantiationException e) {
+            assertTrue e.cause instanceof AssertionError
+        }
+    }
+
+    @Test
+    void testAccessibleConstructorIsNotReusedWithoutAccessCheck() {
+        def accessible = PrivateConstructor.getDeclaredConstructor()
+        accessible.setAccessible(true)
+        assertTrue Classes.instantiate(accessible) instanceof PrivateConstructor
+
+        try {
+            Classes.instantiate(PrivateConstructor.getDeclaredConstructor())
+            fail("Should have thrown")
+        } catch (InstantiationException e) {
+            assertTrue e.cause instanceof IllegalAccessException
+        }
+    }
+
+    @Test
+    void testMissingConstructor() {
+        try {
+            Classes.newInstance(Integer)
+            fail("Should have thrown")
+        } catch (InstantiationException e) {
+            assertTrue e.cause instanceof NoSuchMethodException
+        }
+        try {
+            Classes.newInstance(StringBuilder, new Object())
+            fail("Should have thrown")
+        } catch (IllegalStateException e) {
+            assertTrue e.cause instanceof NoSuchMethodException
+        }
+    }
+
+    private static void withContextClassLoader(ClassLoader classLoader, Closure closure) {
+        Thread thread = Thread.currentThread()
+        ClassLoader original = thread.getContextClassLoader()
+        thread.setContextClassLoader(classLoader)
+        try {
+            closure.call()
+        } finally {
+            thread.setContextClassLoader(original)
+        }
+    }
+
+    static class FailingConstructor {
+        FailingConstructor() {
+            throw new AssertionError("constructor failed")
+        }
+    }
+
+    static class PrivateConstructor {
+        private PrivateConstructor() {}
+    }
+
+    /**
+     * Loads {@code com.example.Aliased} as {@code String}, counting the lookups of {@code com.example} classes.
+     */
+    @CompileStatic // dynamic dispatch would load classes through this class loader while loading a class
+    private static class CountingClassLoader extends ClassLoader {
+
+        final Map<String, Integer> loads = new ConcurrentHashMap<>()
+
+        CountingClassLoader() {
+            super(ClassesTest.getClassLoader())
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.startsWith("com.example.")) {
+                loads.merge(name, 1, Integer::sum)
+                if (name == "com.example.Aliased") {
+                    return String
+                }
+                throw new ClassNotFoundException(name)
+            }
+            return super.loadClass(name, resolve)
+        }
+    }
+}
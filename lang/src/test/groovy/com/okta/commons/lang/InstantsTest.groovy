@@ -34,7 +34,10 @@ package com.okta.commons.lang
 import org.hamcrest.Matchers
 import org.testng.annotations.Test
 
+import java.time.Year
+
 import static org.hamcrest.Matchers.is
+import static com.okta.commons.lang.Instants.UTC_TIMEZONE
 import static org.testng.Assert.assertEquals
 import static org.testng.Assert.fail
 import static org.hamcrest.MatcherAssert.assertThat
@@ -248,4 +251,83 @@ class InstantsTest {
 
         assert beforeTest <= returned.getTime() && returned.getTime() <= afterTest
     }
+
+    @Test
+    void testConvertDateMatchesTimeZoneOffsets() {
+        Random random = new Random(42)
+        long from = -2208988800000L // 1900-01-01
+        long to = 4102444800000L    // 2100-01-01
+        for (String id : TimeZone.getAvailableIDs()) {
+            TimeZone timeZone = TimeZone.getTimeZone(id)
+            for (int i = 0; i < 50; i++) {
+                long time = from + (long) (random.nextDouble() * (to - from))
+                assertEquals(Instants.convertDateToLocalTime(time, timeZone), time + timeZone.getOffset(time), id)
+                assertEquals(Instants.convertDateToUTC(time, timeZone), time - timeZone.getOffset(time), id)
+            }
+        }
+
+        // around a transition
+        TimeZone newYork = TimeZone.getTimeZone("America/New_York")
+        long transition = 1699164000000L // 2023-11-05T06:00:00Z, EDT to EST
+        for (long time : [transition - 1, transition, transition + 1]) {
+            assertEquals(Instants.convertDate(time, newYork, UTC_TIMEZONE), time - newYork.getOffset(time))
+        }
+    }
+
+    @Test
+    void testConvertDateWithModifiedAndCustomTimeZones() {
+        long time = 1700000000000L
+        TimeZone modified = TimeZone.getTimeZone("America/New_York")
+        Instants.convertDateToLocalTime(time, modified)
+        modified.setRawOffset(3600000)
+        assertEquals(Instants.convertDateToLocalTime(time, modified), time + 3600000)
+        assertEquals(Instants.convertDateToLocalTime(time, TimeZone.getTimeZone("America/New_York")), time - 5 * 3600000)
+
+        assertEquals(Instants.convertDateToLocalTime(time, new SimpleTimeZone(5400000, "Custom/Zone")), time + 5400000)
+        assertEquals(Instants.convertDateToLocalTime(time, new SimpleTimeZone(-3600000, "America/New_York")), time - 3600000)
+    }
+
+    @Test
+    void testOfResolvesLikeCalendar() {
+        TimeZone defaultTimeZone = TimeZone.getDefault()
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"))
+            assertEquals(Instants.of(2023, 1, 30, 12, 0, 0, 0).getTime(), calendarOf(2023, 1, 30, 12, 0, 0, 0)) // rolls over to March 2nd
+            assertEquals(Instants.of(2023, 0, 1, 0, 0, 0, -1).getTime(), calendarOf(2023, 0, 1, 0, 0, 0, -1))
+            assertEquals(Instants.of(2023, 2, 12, 2, 30, 0, 0).getTime(), calendarOf(2023, 2, 12, 2, 30, 0, 0)) // gap
+            assertEquals(Instants.of(2023, 10, 5, 1, 30, 0, 0).getTime(), calendarOf(2023, 10, 5, 1, 30, 0, 0)) // overlap
+            assertEquals(Instants.of(1850, 5, 1, 12, 0, 0, 0).getTime(), calendarOf(1850, 5, 1, 12, 0, 0, 0))
+
+            TimeZone.setDefault(TimeZone.getTimeZone("Pacific/Apia"))
+            assertEquals(Instants.of(2011, 11, 30, 12, 0, 0, 0).getTime(), calendarOf(2011, 11, 30, 12, 0, 0, 0)) // skipped day
+        } finally {
+            TimeZone.setDefault(defaultTimeZone)
+        }
+    }
+
+    @Test
+    void testOfJulianAndDistantYearsResolveLikeCalendar() {
+        TimeZone defaultTimeZone = TimeZone.getDefault()
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("Europe/Paris"))
+            // Julian calendar, 10 days apart from the proleptic ISO calendar
+            assertEquals(Instants.of(1500, 2, 1, 12, 0, 0, 0).getTime(), calendarOf(1500, 2, 1, 12, 0, 0, 0))
+            assertEquals(Instants.of(1582, 9, 4, 12, 0, 0, 0).getTime(), calendarOf(1582, 9, 4, 12, 0, 0, 0))
+            assertEquals(Instants.of(1583, 0, 1, 0, 0, 0, -1).getTime(), calendarOf(1583, 0, 1, 0, 0, 0, -1))
+            assertEquals(Instants.of(-44, 2, 15, 12, 0, 0, 0).getTime(), calendarOf(-44, 2, 15, 12, 0, 0, 0))
+
+            // beyond java.time.LocalDate
+            assertEquals(Instants.of(Year.MAX_VALUE, 11, 31, 12, 0, 0, 0).getTime(), calendarOf(Year.MAX_VALUE, 11, 31, 12, 0, 0, 0))
+            assertEquals(Instants.of(Integer.MAX_VALUE, 0, 1, 0, 0, 0, 0).getTime(), calendarOf(Integer.MAX_VALUE, 0, 1, 0, 0, 0, 0))
+        } finally {
+            TimeZone.setDefault(defaultTimeZone)
+        }
+    }
+
+    private static long calendarOf(int year, int month, int day, int hour, int minute, int second, int millisecond) {
+        GregorianCalendar cal = new GregorianCalendar()
+        cal.set(year, month, day, hour, minute, second)
+        cal.set(Calendar.MILLISECOND, millisecond)
+        return cal.getTimeInMillis() - cal.getTimeZone().getOffset(cal.getTimeInMillis())
+    }
 }
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.lang
+
+import org.testng.annotations.Test
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.atomic.AtomicInteger
+
+import static org.testng.Assert.assertEquals
+import static org.testng.Assert.assertFalse
+import static org.testng.Assert.assertNotSame
+import static org.testng.Assert.assertTrue
+import static org.testng.Assert.fail
+
+class ServiceRegistryTest {
+
+    @Test
+    void testProvidersAreOrderedByPriorityThenName() {
+        withProviders(Greeter, [Hello, Hi, Hey]) {
+            assertEquals ServiceRegistry.loadAll(Greeter)*.getClass(), [Hey, Hello, Hi]
+            assertEquals ServiceRegistry.loadFirst(Greeter).get().getClass(), Hey
+            assertEquals Classes.loadFromService(Greeter).getClass(), Hey
+        }
+    }
+
+    @Test
+    void testProvidersAreScannedOnce() {
+        withProviders(Greeter, [Hello, Hey]) {
+            ServiceRegistry.warmUp(Greeter)
+            int instances = Hey.INSTANCES.get()
+
+            def first = ServiceRegistry.loadFirst(Greeter).get()
+            def second = ServiceRegistry.loadFirst(Greeter).get()
+
+            // new instances, without instantiating every provider again
+            assertNotSame first, second
+            assertEquals Hey.INSTANCES.get(), instances + 2
+        }
+    }
+
+    @Test
+    void testFirstLookupInstantiatesProvidersOnce() {
+        withProviders(Greeter, [Hey]) {
+            int instances = Hey.INSTANCES.get()
+            ServiceRegistry.loadFirst(Greeter).get()
+            assertEquals Hey.INSTANCES.get(), instances + 1
+        }
+    }
+
+    @Test
+    void testProvidersThatFailToLoadAreSkipped() {
+        Path root = Files.createTempDirectory("okta-services")
+        Path file = root.resolve("META-INF/services/${Greeter.name}")
+        Files.createDirectories(file.getParent())
+        Files.write(file, [Broken.name, "com.example.MissingGreeter", Hello.name, Hey.name].join("\n").getBytes(StandardCharsets.UTF_8))
+
+        withContextClassLoader(new URLClassLoader([root.toUri().toURL()] as URL[], ServiceRegistryTest.getClassLoader())) {
+            assertEquals ServiceRegistry.loadAll(Greeter)*.getClass(), [Hey, Hello]
+            assertEquals ServiceRegistry.loadFirst(Greeter).get().getClass(), Hey
+            assertEquals Classes.loadFromService(Greeter).getClass(), Hey
+        }
+    }
+
+    @Test
+    void testProvidersArePerContextClassLoader() {
+        withProviders(Greeter, [Hello]) {
+            assertEquals ServiceRegistry.loadFirst(Greeter).get().getClass(), Hello
+        }
+        withProviders(Greeter, [Hi]) {
+            assertEquals ServiceRegistry.loadFirst(Greeter).get().getClass(), Hi
+        }
+    }
+
+    @Test
+    void testReload() {
+        Path root = Files.createTempDirectory("okta-services")
+        def classLoader = new URLClassLoader([root.toUri().toURL()] as URL[], getClass().getClassLoader())
+        withContextClassLoader(classLoader) {
+            writeProviders(root, Greeter, [Hello])
+            assertEquals ServiceRegistry.loadFirst(Greeter).get().getClass(), Hello
+
+            writeProviders(root, Greeter, [Hello, Hey])
+            assertEquals ServiceRegistry.loadFirst(Greeter).get().getClass(), Hello
+
+            ServiceRegistry.reload()
+            assertEquals ServiceRegistry.loadFirst(Greeter).get().getClass(), Hey
+        }
+    }
+
+    @Test
+    void testNoProvider() {
+        withProviders(Greeter, []) {
+            assertFalse ServiceRegistry.loadFirst(Greeter).isPresent()
+            assertTrue ServiceRegistry.loadAll(Greeter).isEmpty()
+            try {
+                Classes.loadFromService(Greeter, "no greeter")
+                fail("Should have thrown")
+            } catch (IllegalStateException e) {
+                assertEquals e.message, "no greeter"
+            }
+        }
+    }
+
+    private static void withProviders(Class<?> service, List<Class<?>> providers, Closure closure) {
+        Path root = Files.createTempDirectory("okta-services")
+        writeProviders(root, service, providers)
+        withContextClassLoader(new URLClassLoader([root.toUri().toURL()] as URL[], ServiceRegistryTest.getClassLoader()), closure)
+    }
+
+    private static void writeProviders(Path root, Class<?> service, List<Class<?>> providers) {
+        Path file = root.resolve("META-INF/services/${service.name}")
+        Files.createDirectories(file.getParent())
+        Files.write(file, providers*.name.join("\n").getBytes(StandardCharsets.UTF_8))
+    }
+
+    private static void withContextClassLoader(ClassLoader classLoader, Closure closure) {
+        Thread thread = Thread.currentThread()
+        ClassLoader original = thread.getContextClassLoader()
+        thread.setContextClassLoader(classLoader)
+        try {
+            closure.call()
+        } finally {
+            thread.setContextClassLoader(original)
+        }
+    }
+
+    static interface Greeter {}
+
+    static class Hello implements Greeter {}
+
+    static class Hi implements Greeter {}
+
+    @ServicePriority(100)
+    static class Broken implements Greeter {
+        Broken() {
+            throw new IllegalStateException("broken provider")
+        }
+    }
+
+    @ServicePriority(10)
+    static class Hey implements Greeter {
+        static final AtomicInteger INSTANCES = new AtomicInteger()
+
+        Hey() {
+            INSTANCES.incrementAndGet()
+        }
+    }
+}
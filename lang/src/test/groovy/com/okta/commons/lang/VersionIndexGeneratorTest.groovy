@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.lang
+
+import org.testng.annotations.Test
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+
+import static org.testng.Assert.assertEquals
+import static org.testng.Assert.assertTrue
+
+class VersionIndexGeneratorTest {
+
+    @Test
+    void testScanMergesVersionMetadata() {
+        Path other = Files.createTempDirectory("okta-component")
+        writeVersionProperties(other, "okta-test-lib3=3.0.0\n")
+
+        def classLoader = new URLClassLoader([other.toUri().toURL()] as URL[], getClass().getClassLoader())
+
+        assertEquals VersionIndexGenerator.scan(classLoader), [
+                "okta-test-lib1": "1.2.3",
+                "okta-test-lib2": "v3.2.1",
+                "okta-test-lib3": "3.0.0"]
+    }
+
+    @Test
+    void testGeneratedIndexIsReadBack() {
+        Path output = Files.createTempDirectory("okta-index")
+        VersionIndexGenerator.main([output.toString()] as String[])
+
+        Path index = output.resolve(VersionIndexGenerator.INDEX_LOCATION)
+        assertTrue Files.exists(index)
+
+        def properties = new Properties()
+        Files.newInputStream(index).withCloseable { properties.load(it) }
+        assertEquals properties, ["okta-test-lib1": "1.2.3", "okta-test-lib2": "v3.2.1"]
+    }
+
+    private static void writeVersionProperties(Path root, String content) {
+        Path file = root.resolve(VersionIndexGenerator.VERSION_FILE_LOCATION)
+        Files.createDirectories(file.getParent())
+        Files.write(file, content.getBytes(StandardCharsets.ISO_8859_1))
+    }
+}
@@ -27,6 +27,7 @@ import java.util.Locale;
 import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertSame;
 import static org.testng.AssertJUnit.assertTrue;
 import static org.testng.AssertJUnit.fail;
 
@@ -299,4 +300,23 @@ public class LocalesTest {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Test toLocale() returns the same instance for the same string.
+     */
+    @Test
+    public void testToLocaleReturnsCanonicalInstances() {
+        final Locale locale = Locales.toLocale("fr_CA");
+        assertSame(locale, Locales.toLocale("fr_CA"));
+        assertSame(locale, Locales.toLocale(new String("fr_CA".toCharArray())));
+        assertEquals(new Locale("fr", "CA"), locale);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                Locales.toLocale("fr-CA");
+                fail("Should fail as the separator must be an underscore");
+            } catch (final IllegalArgumentException iae) {
+                // expected, failures are not cached
+            }
+        }
+    }
+}
@@ -18,9 +18,15 @@ package com.okta.commons.lang;
 
 import org.testng.annotations.Test;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
 import java.util.Properties;
+import java.util.TimeZone;
 
 import static org.testng.AssertJUnit.assertArrayEquals;
 import static org.testng.AssertJUnit.assertEquals;
@@ -569,6 +575,141 @@ public class StringsTest {
         assertEquals("a,b", sa[0]);
     }
 
+    private static final String[] UTF8_SAMPLES = {
+        "", "okta", "caf\u00e9", "\u65e5\u672c\u8a9e", "emoji \ud83d\ude00!", "lone \ud83d high", "lone \ude00 low", "end \ud83d"
+    };
+
+    @Test
+    public void testUtf8Length() {
+        for (String sample : UTF8_SAMPLES) {
+            assertEquals(sample, sample.getBytes(StandardCharsets.UTF_8).length, Strings.utf8Length(sample));
+        }
+    }
+
+    @Test
+    public void testEncodeUtf8() {
+        for (String sample : UTF8_SAMPLES) {
+            byte[] expected = sample.getBytes(StandardCharsets.UTF_8);
+            for (ByteBuffer buffer : new ByteBuffer[] {ByteBuffer.allocate(64), ByteBuffer.allocateDirect(64)}) {
+                buffer.position(3);
+                assertEquals(sample, expected.length, Strings.encodeUtf8(sample, buffer));
+                assertEquals(sample, 3 + expected.length, buffer.position());
+
+                byte[] actual = new byte[expected.length];
+                buffer.position(3);
+                buffer.get(actual);
+                assertArrayEquals(toObjects(expected), toObjects(actual));
+            }
+        }
+    }
+
+    @Test
+    public void testEncodeUtf8Overflow() {
+        for (ByteBuffer buffer : new ByteBuffer[] {ByteBuffer.allocate(8), ByteBuffer.allocateDirect(8)}) {
+            buffer.position(2);
+            try {
+                Strings.encodeUtf8("caf\u00e9 latte", buffer);
+                fail("Should have thrown");
+            } catch (BufferOverflowException e) {
+                assertEquals(2, buffer.position());
+            }
+        }
+    }
+
+    @Test
+    public void testDecodeUtf8() {
+        for (String sample : UTF8_SAMPLES) {
+            byte[] bytes = sample.getBytes(StandardCharsets.UTF_8);
+
+            ByteBuffer heap = ByteBuffer.allocate(bytes.length + 4);
+            heap.position(2);
+            heap.put(bytes);
+            heap.flip().position(2);
+            assertEquals(new String(bytes, StandardCharsets.UTF_8), Strings.decodeUtf8(heap));
+            assertFalse(heap.hasRemaining());
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+            direct.put(bytes).flip();
+            assertEquals(new String(bytes, StandardCharsets.UTF_8), Strings.decodeUtf8(direct));
+            assertFalse(direct.hasRemaining());
+        }
+    }
+
+    @Test
+    public void testDecodeUtf8MalformedInput() {
+        byte[] malformed = {'o', 'k', (byte) 0xC3, 't', 'a'};
+        ByteBuffer direct = ByteBuffer.allocateDirect(malformed.length);
+        direct.put(malformed).flip();
+        assertEquals(new String(malformed, StandardCharsets.UTF_8), Strings.decodeUtf8(direct));
+        assertEquals(new String(malformed, StandardCharsets.UTF_8), Strings.decodeUtf8(ByteBuffer.wrap(malformed)));
+    }
+
+    private static Byte[] toObjects(byte[] bytes) {
+        Byte[] objects = new Byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            objects[i] = bytes[i];
+        }
+        return objects;
+    }
+
+    @Test
+    public void testForEachToken() {
+        List<String> tokens = new ArrayList<>();
+        Strings.forEachToken(" a,b , ,,c ", ",", true, true,
+            (source, start, end) -> tokens.add(source.subSequence(start, end).toString()));
+        assertEquals(Arrays.asList("a", "b", "c"), tokens);
+    }
+
+    @Test
+    public void testForEachTokenWithNotIgnoreEmptyTokensAndNotTrimTokens() {
+        List<String> trimmed = new ArrayList<>();
+        Strings.forEachToken("a,b , ,,c", ",", true, false,
+            (source, start, end) -> trimmed.add(source.subSequence(start, end).toString()));
+        // consecutive delimiters never produce a token, like StringTokenizer
+        assertEquals(Arrays.asList("a", "b", "", "c"), trimmed);
+
+        List<String> untrimmed = new ArrayList<>();
+        Strings.forEachToken("a;b ,c", ",;", false, true,
+            (source, start, end) -> untrimmed.add(source.subSequence(start, end).toString()));
+        assertEquals(Arrays.asList("a", "b ", "c"), untrimmed);
+    }
+
+    @Test
+    public void testForEachTokenOffsets() {
+        StringBuilder source = new StringBuilder("text/html, application/json");
+        List<Integer> bounds = new ArrayList<>();
+        Strings.forEachToken(source, ",", true, true, (str, start, end) -> {
+            assertSame(source, str);
+            bounds.add(start);
+            bounds.add(end);
+        });
+        assertEquals(Arrays.asList(0, 9, 11, 27), bounds);
+    }
+
+    @Test
+    public void testForEachTokenWithNull() {
+        Strings.forEachToken(null, ",", true, true, (source, start, end) -> fail("no token expected"));
+    }
+
+    @Test
+    public void testForEachDelimited() {
+        List<String> elements = new ArrayList<>();
+        Strings.forEachDelimited(new StringBuilder("a::b::::c"), "::",
+            (source, start, end) -> elements.add(source.subSequence(start, end).toString()));
+        assertEquals(Arrays.asList("a", "b", "", "c"), elements);
+    }
+
+    @Test
+    public void testForEachDelimitedMatchesDelimitedListToStringArray() {
+        String[] inputs = {"", "a", "a,b", ",a,", "a,,b", ",", "a,b,"};
+        for (String input : inputs) {
+            List<String> elements = new ArrayList<>();
+            Strings.forEachDelimited(input, ",",
+                (source, start, end) -> elements.add(source.subSequence(start, end).toString()));
+            assertEquals(input, Arrays.asList(Strings.delimitedListToStringArray(input, ",")), elements);
+        }
+    }
+
     @Test
     public void testCommaDelimitedListToStringArrayMatchWords() {
         // Could read these from files
@@ -739,4 +880,37 @@ public class StringsTest {
         assertEquals("sr_#LATN", Strings.parseLocaleString("sr_#LATN").toString());
     }
 
+    @Test
+    public void testParseLocaleStringReturnsCanonicalInstances() {
+        Locale locale = Strings.parseLocaleString("en_GB");
+        assertSame(locale, Strings.parseLocaleString("en_GB"));
+        assertSame(locale, Strings.parseLocaleString("en GB"));
+        assertSame(locale, Locales.toLocale("en_GB"));
+    }
+
+    @Test
+    public void testParseTimeZoneString() {
+        TimeZone timeZone = Strings.parseTimeZoneString("America/Los_Angeles");
+        assertEquals(TimeZone.getTimeZone("America/Los_Angeles"), timeZone);
+
+        // time zones are mutable, every call must return its own copy
+        timeZone.setRawOffset(0);
+        TimeZone other = Strings.parseTimeZoneString("America/Los_Angeles");
+        assertEquals(TimeZone.getTimeZone("America/Los_Angeles"), other);
+        assertFalse(timeZone == other);
+    }
+
+    @Test
+    public void testParseTimeZoneStringWithInvalidTimeZone() {
+        for (int i = 0; i < 2; i++) {
+            try {
+                Strings.parseTimeZoneString("Not/A_Zone");
+                fail("Should have thrown IllegalArgumentException");
+            }
+            catch (IllegalArgumentException ex) {
+                // expected, failures are not cached
+            }
+        }
+    }
+
 }
\ No newline at end of file
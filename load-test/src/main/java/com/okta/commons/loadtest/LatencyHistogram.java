@@ -0,0 +1,147 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.loadtest;
+
+import java.io.PrintStream;
+
+/**
+ * Log-linear histogram of latencies in microseconds, exact below 64 microseconds, within about 3% above.  Not thread safe, each
+ * load thread records into its own histogram, merged once the run is over.
+ */
+final class LatencyHistogram {
+
+    private static final int LINEAR_BUCKETS = 64;
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // values up to 2^63 - 1: exponents 6 to 62
+    private final long[] counts = new long[LINEAR_BUCKETS + (63 - 6) * SUB_BUCKETS];
+
+    private long totalCount;
+
+    private long max;
+
+    void record(long micros) {
+        long value = Math.max(micros, 0);
+        counts[index(value)]++;
+        totalCount++;
+        max = Math.max(max, value);
+    }
+
+    void merge(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        max = Math.max(max, other.max);
+    }
+
+    long getTotalCount() {
+        return totalCount;
+    }
+
+    long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the value at the given percentile, the highest value of its bucket.
+     *
+     * @param percentile a percentile between 0 and 100
+     * @return the value at the given percentile, in microseconds
+     */
+    long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Prints the distribution with one row per power of two.
+     */
+    void print(PrintStream out) {
+        long previous = 0;
+        long cumulative = 0;
+        for (long bound = 64; previous <= max && bound > 0; previous = bound, bound <<= 1) {
+            long count = 0;
+            for (int i = index(previous); i < counts.length && lowestValue(i) < bound; i++) {
+                count += counts[i];
+            }
+            if (count == 0) {
+                continue;
+            }
+            cumulative += count;
+            int bar = (int) Math.round(50.0 * count / totalCount);
+            out.printf("  %10s - %-10s %9d %7.3f%%  %s%n", format(previous), format(bound), count,
+                       100.0 * cumulative / totalCount, repeat('#', bar));
+        }
+    }
+
+    static String format(long micros) {
+        if (micros < 1000) {
+            return micros + "us";
+        }
+        if (micros < 1_000_000) {
+            return String.format("%.1fms", micros / 1000.0);
+        }
+        return String.format("%.2fs", micros / 1_000_000.0);
+    }
+
+    static int index(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - 6) * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowestValue(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 6;
+        int subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+        return (1L << exponent) + ((long) subBucket << (exponent - SUB_BUCKET_BITS));
+    }
+
+    static long highestValue(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 6;
+        return lowestValue(index) + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder sb = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
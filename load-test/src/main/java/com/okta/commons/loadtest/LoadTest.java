@@ -0,0 +1,242 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.loadtest;
+
+import com.okta.commons.http.DefaultRequest;
+import com.okta.commons.http.HttpException;
+import com.okta.commons.http.HttpMethod;
+import com.okta.commons.http.RequestExecutor;
+import com.okta.commons.http.Response;
+import com.okta.commons.http.RetryRequestExecutor;
+import com.okta.commons.http.authc.DisabledAuthenticator;
+import com.okta.commons.http.config.HttpClientConfiguration;
+import com.okta.commons.http.httpclient.HttpClientRequestExecutor;
+import com.okta.commons.http.okhttp.OkHttpRequestExecutor;
+import com.okta.commons.testsupport.OktaStandInServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives the OkHttp and Apache HTTP Client request executors, each wrapped in a {@link RetryRequestExecutor}, against
+ * a local {@link OktaStandInServer} and prints their throughput and latency distribution.
+ * <p>
+ * Options, all optional:
+ * <pre>
+ * --executors=okhttp,httpclient   executors to run, in order
+ * --concurrency=32                number of threads issuing requests
+ * --requests=20000                measured requests per executor
+ * --warmup=2000                   unmeasured requests per executor, run first
+ * --payload=1024                  response body size in bytes
+ * --latency=0                     server side delay per request in milliseconds
+ * --retries=4                     RetryRequestExecutor max attempts
+ * --param.&lt;name&gt;=&lt;value&gt;        request executor parameter, e.g. --param.maxConnectionsPerRoute=64
+ * </pre>
+ */
+public final class LoadTest {
+
+    private final Map<String, String> options;
+
+    private final Map<String, String> requestExecutorParams = new HashMap<>();
+
+    private final PrintStream out;
+
+    LoadTest(String[] args, PrintStream out) {
+        this.out = out;
+        this.options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            String name = separator < 0 ? arg.substring(2) : arg.substring(2, separator);
+            String value = separator < 0 ? "true" : arg.substring(separator + 1);
+            if (name.startsWith("param.")) {
+                requestExecutorParams.put(name.substring("param.".length()), value);
+            } else {
+                options.put(name, value);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadTest(args, System.out).run();
+    }
+
+    void run() throws IOException, InterruptedException {
+        List<String> executors = Arrays.asList(option("executors", "okhttp,httpclient").split(","));
+        int concurrency = intOption("concurrency", 32);
+        int requests = intOption("requests", 20_000);
+        int warmup = intOption("warmup", 2_000);
+        int payload = intOption("payload", 1024);
+        int latency = intOption("latency", 0);
+
+        try (OktaStandInServer server = new OktaStandInServer()
+                .defaultRateLimit(Integer.MAX_VALUE)
+                .latency(Duration.ofMillis(latency))
+                .responseBody(payload(payload))
+                .start()) {
+            for (String name : executors) {
+                RequestExecutor executor = createExecutor(name.trim(), server.getBaseUrl());
+                String url = server.getBaseUrl() + "/api/v1/users";
+
+                run(executor, url, concurrency, warmup);
+                long start = System.nanoTime();
+                Result result = run(executor, url, concurrency, requests);
+                long elapsedNanos = System.nanoTime() - start;
+
+                report(name.trim(), result, elapsedNanos, concurrency, payload, latency);
+            }
+        }
+    }
+
+    private RequestExecutor createExecutor(String name, String baseUrl) {
+        HttpClientConfiguration configuration = new HttpClientConfiguration();
+        configuration.setBaseUrl(baseUrl);
+        configuration.setConnectionTimeout(30);
+        configuration.setRequestAuthenticator(new DisabledAuthenticator());
+        configuration.setRetryMaxAttempts(intOption("retries", 4));
+        configuration.setRequestExecutorParams(requestExecutorParams);
+
+        switch (name) {
+            case "okhttp":
+                return new RetryRequestExecutor(configuration, new OkHttpRequestExecutor(configuration));
+            case "httpclient":
+                return new RetryRequestExecutor(configuration, new HttpClientRequestExecutor(configuration));
+            default:
+                throw new IllegalArgumentException("Unknown executor: " + name + ", expected okhttp or httpclient");
+        }
+    }
+
+    private static Result run(RequestExecutor executor, String url, int concurrency, int requests) throws InterruptedException {
+        AtomicInteger remaining = new AtomicInteger(requests);
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(concurrency);
+        List<Future<LatencyHistogram>> histograms = new ArrayList<>(concurrency);
+
+        try {
+            for (int i = 0; i < concurrency; i++) {
+                histograms.add(threads.submit(() -> {
+                    LatencyHistogram histogram = new LatencyHistogram();
+                    start.await();
+                    while (remaining.getAndDecrement() > 0) {
+                        long requestStart = System.nanoTime();
+                        if (!execute(executor, url)) {
+                            errors.incrementAndGet();
+                        }
+                        histogram.record((System.nanoTime() - requestStart) / 1000);
+                    }
+                    return histogram;
+                }));
+            }
+            start.countDown();
+
+            LatencyHistogram total = new LatencyHistogram();
+            for (Future<LatencyHistogram> histogram : histograms) {
+                try {
+                    total.merge(histogram.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Load thread failed", e.getCause());
+                }
+            }
+            return new Result(total, errors.get());
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    private static boolean execute(RequestExecutor executor, String url) {
+        try {
+            Response response = executor.executeRequest(new DefaultRequest(HttpMethod.GET, url));
+            try (InputStream body = response.getBody()) {
+                if (body != null) {
+                    byte[] buffer = new byte[8192];
+                    while (body.read(buffer) != -1) { } // NOPMD
+                }
+            }
+            return !response.isError();
+        } catch (HttpException | IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * A JSON document of exactly {@code size} bytes (at least 12).
+     */
+    private static String payload(int size) {
+        String prefix = "{\"data\":\"";
+        String suffix = "\"}";
+        StringBuilder payload = new StringBuilder(prefix);
+        for (int i = Math.max(size, prefix.length() + suffix.length() + 1) - prefix.length() - suffix.length(); i > 0; i--) {
+            payload.append('x');
+        }
+        return payload.append(suffix).toString();
+    }
+
+    private void report(String name, Result result, long elapsedNanos, int concurrency, int payload, int latency) {
+        LatencyHistogram histogram = result.histogram;
+        double seconds = elapsedNanos / 1e9;
+
+        out.printf("== %s: %d requests, %d threads, %d byte payload, %dms server latency%n",
+                   name, histogram.getTotalCount(), concurrency, payload, latency);
+        out.printf("throughput: %.1f req/s, errors: %d, elapsed: %.2fs%n",
+                   histogram.getTotalCount() / seconds, result.errors, seconds);
+        out.printf("latency: p50=%s p90=%s p99=%s p99.9=%s max=%s%n",
+                   LatencyHistogram.format(histogram.getValueAtPercentile(50)),
+                   LatencyHistogram.format(histogram.getValueAtPercentile(90)),
+                   LatencyHistogram.format(histogram.getValueAtPercentile(99)),
+                   LatencyHistogram.format(histogram.getValueAtPercentile(99.9)),
+                   LatencyHistogram.format(histogram.getMax()));
+        histogram.print(out);
+        out.println();
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private int intOption(String name, int defaultValue) {
+        String value = options.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private static final class Result {
+
+        private final LatencyHistogram histogram;
+
+        private final long errors;
+
+        private Result(LatencyHistogram histogram, long errors) {
+            this.histogram = histogram;
+            this.errors = errors;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.loadtest
+
+import org.testng.annotations.Test
+
+import static org.testng.Assert.assertEquals
+import static org.testng.Assert.assertTrue
+
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketBoundaries() {
+        [0L, 1L, 63L, 64L, 65L, 127L, 128L, 1000L, 123_456L, 10_000_000_000L, Long.MAX_VALUE].each { value ->
+            int index = LatencyHistogram.index(value)
+            assertTrue LatencyHistogram.lowestValue(index) <= value, "lowest of ${value}"
+            assertTrue LatencyHistogram.highestValue(index) >= value, "highest of ${value}"
+            // within about 3%
+            assertTrue LatencyHistogram.highestValue(index) - LatencyHistogram.lowestValue(index) <= value.intdiv(32), "width of ${value}"
+        }
+    }
+
+    @Test
+    void testPercentiles() {
+        def histogram = new LatencyHistogram()
+        (1..1000).each { histogram.record(it) }
+
+        assertEquals histogram.totalCount, 1000L
+        assertEquals histogram.max, 1000L
+        assertApproximately histogram.getValueAtPercentile(50), 500
+        assertApproximately histogram.getValueAtPercentile(99), 990
+        assertEquals histogram.getValueAtPercentile(100), 1000L
+        assertEquals histogram.getValueAtPercentile(0), 1L
+    }
+
+    @Test
+    void testMerge() {
+        def first = new LatencyHistogram()
+        def second = new LatencyHistogram()
+        (1..10).each { first.record(it) }
+        second.record(5000)
+
+        first.merge(second)
+
+        assertEquals first.totalCount, 11L
+        assertEquals first.max, 5000L
+        assertEquals first.getValueAtPercentile(100), 5000L
+        assertEquals first.getValueAtPercentile(50), 6L
+    }
+
+    @Test
+    void testPrint() {
+        def histogram = new LatencyHistogram()
+        (1..100).each { histogram.record(it * 100) }
+
+        def out = new ByteArrayOutputStream()
+        histogram.print(new PrintStream(out, true, "UTF-8"))
+        def lines = out.toString("UTF-8").readLines()
+
+        assertTrue lines.last().contains("100.000%")
+        assertEquals lines.sum { it.trim().split(/\s+/)[3] as long }, 100L
+    }
+
+    private static void assertApproximately(long actual, long expected) {
+        assertTrue Math.abs(actual - expected) <= expected.intdiv(32), "${actual} is not about ${expected}"
+    }
+}
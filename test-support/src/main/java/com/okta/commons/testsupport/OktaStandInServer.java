@@ -0,0 +1,432 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.testsupport;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local HTTP server standing in for an Okta org, emulating its rate limiting so that retry and throttling behaviour
+ * can be tested without a live org.
+ * <p>
+ * Every request is counted against the rate limit bucket of its endpoint: the longest path prefix registered with
+ * {@link #rateLimit(String, int)}, or the request path itself with the {@link #defaultRateLimit(int) default limit}.
+ * Buckets are reset at the start of each {@link #window(Duration) window} (a minute by default, aligned on the epoch
+ * like Okta's).  Responses carry {@code X-Rate-Limit-Limit}, {@code X-Rate-Limit-Remaining},
+ * {@code X-Rate-Limit-Reset}, {@code Date} and {@code X-Okta-Request-Id} headers, requests over the limit get a
+ * {@code 429} with Okta's {@code E0000047} error body.
+ * <p>
+ * {@code 503} and {@code 504} responses can be injected, either for the next requests
+ * ({@link #failNext(int, int)}) or at random ({@link #serviceUnavailableRate(double)},
+ * {@link #gatewayTimeoutRate(double)}).  Injected failures do not count against the rate limit.
+ * <pre>
+ * try (OktaStandInServer server = new OktaStandInServer()
+ *         .rateLimit("/api/v1/users", 2)
+ *         .window(Duration.ofSeconds(1))
+ *         .start()) {
+ *     String baseUrl = server.getBaseUrl();
+ *     ...
+ * }
+ * </pre>
+ *
+ * @since 2.0.2
+ */
+public class OktaStandInServer implements AutoCloseable {
+
+    /**
+     * Requests per window allowed for endpoints without a registered limit.
+     */
+    public static final int DEFAULT_RATE_LIMIT = 600;
+
+    private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    private final Map<String, Integer> rateLimits = new ConcurrentHashMap<>();
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private final Queue<Integer> injectedStatuses = new ConcurrentLinkedQueue<>();
+
+    private final Map<Integer, AtomicLong> responseCounts = new ConcurrentHashMap<>();
+
+    private volatile int defaultRateLimit = DEFAULT_RATE_LIMIT;
+
+    private volatile long windowMillis = TimeUnit.MINUTES.toMillis(1);
+
+    private volatile double serviceUnavailableRate;
+
+    private volatile double gatewayTimeoutRate;
+
+    private volatile long latencyMillis;
+
+    private volatile byte[] responseBody = "{}".getBytes(StandardCharsets.UTF_8);
+
+    private volatile Random random = new Random();
+
+    private HttpServer server;
+
+    private ExecutorService executor;
+
+    private boolean setNoDelay;
+
+    /**
+     * Limits requests to paths starting with {@code pathPrefix} to {@code limit} per window, all of them sharing one
+     * bucket.
+     *
+     * @param pathPrefix the endpoint path, e.g. {@code /api/v1/users}
+     * @param limit the number of requests allowed per window
+     * @return this server
+     */
+    public OktaStandInServer rateLimit(String pathPrefix, int limit) {
+        rateLimits.put(pathPrefix, limit);
+        return this;
+    }
+
+    /**
+     * Sets the number of requests allowed per window to each path without a registered limit.
+     *
+     * @param limit the number of requests allowed per window
+     * @return this server
+     */
+    public OktaStandInServer defaultRateLimit(int limit) {
+        this.defaultRateLimit = limit;
+        return this;
+    }
+
+    /**
+     * Sets the rate limit window, shorter windows keep tests fast.
+     *
+     * @param window the rate limit window, at least a second
+     * @return this server
+     */
+    public OktaStandInServer window(Duration window) {
+        if (window.toMillis() < 1000) {
+            throw new IllegalArgumentException("window must be at least a second, X-Rate-Limit-Reset is in seconds");
+        }
+        this.windowMillis = window.toMillis();
+        return this;
+    }
+
+    /**
+     * Answers the next {@code count} requests with the given status, e.g. {@code 503} or {@code 504}.
+     *
+     * @param status the status to respond with
+     * @param count the number of requests to fail
+     * @return this server
+     */
+    public OktaStandInServer failNext(int status, int count) {
+        for (int i = 0; i < count; i++) {
+            injectedStatuses.add(status);
+        }
+        return this;
+    }
+
+    /**
+     * Answers the given fraction of requests with a {@code 503}.
+     *
+     * @param rate a fraction between 0 and 1
+     * @return this server
+     */
+    public OktaStandInServer serviceUnavailableRate(double rate) {
+        this.serviceUnavailableRate = rate;
+        return this;
+    }
+
+    /**
+     * Answers the given fraction of requests with a {@code 504}.
+     *
+     * @param rate a fraction between 0 and 1
+     * @return this server
+     */
+    public OktaStandInServer gatewayTimeoutRate(double rate) {
+        this.gatewayTimeoutRate = rate;
+        return this;
+    }
+
+    /**
+     * Seeds the random failure injection and request ids, for reproducible runs.
+     *
+     * @param seed the seed
+     * @return this server
+     */
+    public OktaStandInServer seed(long seed) {
+        this.random = new Random(seed);
+        return this;
+    }
+
+    /**
+     * Delays every response by the given latency.
+     *
+     * @param latency the delay
+     * @return this server
+     */
+    public OktaStandInServer latency(Duration latency) {
+        this.latencyMillis = latency.toMillis();
+        return this;
+    }
+
+    /**
+     * Sets the JSON body of successful responses, {@code {}} by default.
+     *
+     * @param body the response body
+     * @return this server
+     */
+    public OktaStandInServer responseBody(String body) {
+        this.responseBody = body.getBytes(StandardCharsets.UTF_8);
+        return this;
+    }
+
+    /**
+     * Starts the server on a free loopback port.
+     * <p>
+     * Unless already set, the JVM-wide {@code sun.net.httpserver.nodelay} system property is set to {@code true} until
+     * the server is {@link #close() closed}, so that the JDK server sends small responses without waiting for delayed
+     * ACKs.  The JDK reads it only once, before the first server of the JVM starts.
+     *
+     * @return this server
+     * @throws UncheckedIOException if the server cannot be started
+     */
+    public OktaStandInServer start() {
+        if (server != null) {
+            throw new IllegalStateException("Server already started");
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "okta-stand-in-server-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        enableNoDelay();
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        } catch (IOException e) {
+            executor.shutdownNow();
+            throw new UncheckedIOException("Unable to start the stand-in server", e);
+        }
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        return this;
+    }
+
+    /**
+     * Returns the URL of the started server, e.g. {@code http://127.0.0.1:54321}.
+     *
+     * @return the base URL of the server
+     */
+    public String getBaseUrl() {
+        if (server == null) {
+            throw new IllegalStateException("Server not started");
+        }
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * Returns the number of responses sent with the given status.
+     *
+     * @param status the HTTP status
+     * @return the number of responses with that status
+     */
+    public long getResponseCount(int status) {
+        AtomicLong count = responseCounts.get(status);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * Returns the number of requests answered.
+     *
+     * @return the number of requests answered
+     */
+    public long getRequestCount() {
+        return responseCounts.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    /**
+     * Empties all rate limit buckets, response counts and pending {@link #failNext(int, int) injected failures}.
+     */
+    public void reset() {
+        buckets.clear();
+        responseCounts.clear();
+        injectedStatuses.clear();
+    }
+
+    /**
+     * Stops the server and restores the {@code sun.net.httpserver.nodelay} system property set by {@link #start()}.
+     */
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+        restoreNoDelay();
+    }
+
+    /**
+     * The JDK server writes headers and body separately, without {@code TCP_NODELAY} responses stall on delayed ACKs.
+     */
+    private void enableNoDelay() {
+        synchronized (OktaStandInServer.class) {
+            if (System.getProperty(NODELAY_PROPERTY) == null) {
+                System.setProperty(NODELAY_PROPERTY, "true");
+                setNoDelay = true;
+            }
+        }
+    }
+
+    private void restoreNoDelay() {
+        synchronized (OktaStandInServer.class) {
+            if (setNoDelay) {
+                System.clearProperty(NODELAY_PROPERTY);
+                setNoDelay = false;
+            }
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            // drain request bodies so the connection can be reused
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) { } // NOPMD
+        }
+
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // the JDK server adds the Date header itself
+        long now = System.currentTimeMillis();
+        Headers headers = exchange.getResponseHeaders();
+        headers.add("Content-Type", "application/json");
+        String requestId = requestId();
+        headers.add("X-Okta-Request-Id", requestId);
+
+        Integer injected = injectedStatus();
+        if (injected != null) {
+            respond(exchange, injected, error("E0000009", "Injected " + injected + " failure", requestId));
+            return;
+        }
+
+        String path = exchange.getRequestURI().getPath();
+        String endpoint = endpoint(path);
+        int limit = endpoint != null ? rateLimits.get(endpoint) : defaultRateLimit;
+        Bucket bucket = buckets.computeIfAbsent(endpoint != null ? endpoint : path, key -> new Bucket());
+
+        long window = windowMillis;
+        long remaining = bucket.take(now, limit, window);
+        long windowEnd = (now / window + 1) * window;
+        headers.add("X-Rate-Limit-Limit", Integer.toString(limit));
+        headers.add("X-Rate-Limit-Remaining", Long.toString(Math.max(remaining, 0)));
+        headers.add("X-Rate-Limit-Reset", Long.toString((windowEnd + 999) / 1000));
+
+        if (remaining < 0) {
+            respond(exchange, 429, error("E0000047", "API call exceeded rate limit due to too many requests.", requestId));
+        } else {
+            respond(exchange, 200, responseBody);
+        }
+    }
+
+    private Integer injectedStatus() {
+        Integer injected = injectedStatuses.poll();
+        if (injected == null) {
+            double draw = random.nextDouble();
+            if (draw < serviceUnavailableRate) {
+                injected = 503;
+            } else if (draw < serviceUnavailableRate + gatewayTimeoutRate) {
+                injected = 504;
+            }
+        }
+        return injected;
+    }
+
+    private String endpoint(String path) {
+        String endpoint = null;
+        for (String prefix : rateLimits.keySet()) {
+            if (path.startsWith(prefix) && (endpoint == null || prefix.length() > endpoint.length())) {
+                endpoint = prefix;
+            }
+        }
+        return endpoint;
+    }
+
+    private String requestId() {
+        byte[] bytes = new byte[18];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static byte[] error(String code, String summary, String requestId) {
+        return ("{\"errorCode\":\"" + code + "\",\"errorSummary\":\"" + summary + "\",\"errorLink\":\"" + code
+                + "\",\"errorId\":\"" + requestId + "\",\"errorCauses\":[]}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        responseCounts.computeIfAbsent(status, key -> new AtomicLong()).incrementAndGet();
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Requests counted in the current window of one endpoint.
+     */
+    private static final class Bucket {
+
+        private long windowStart = -1;
+
+        private long used;
+
+        /**
+         * Counts a request, returning the requests left in the window, negative if over the limit.
+         */
+        synchronized long take(long now, int limit, long windowMillis) {
+            long start = now / windowMillis * windowMillis;
+            if (start != windowStart) {
+                windowStart = start;
+                used = 0;
+            }
+            used++;
+            return limit - used;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2018-Present Okta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.okta.commons.testsupport
+
+import com.okta.commons.http.DefaultRequest
+import com.okta.commons.http.HttpMethod
+import com.okta.commons.http.RetryRequestExecutor
+import com.okta.commons.http.authc.DisabledAuthenticator
+import com.okta.commons.http.config.HttpClientConfiguration
+import com.okta.commons.http.httpclient.HttpClientRequestExecutor
+import org.testng.annotations.Test
+
+import java.time.Duration
+
+import static org.testng.Assert.assertEquals
+import static org.testng.Assert.assertNotNull
+import static org.testng.Assert.assertNull
+import static org.testng.Assert.assertTrue
+
+class OktaStandInServerTest {
+
+    @Test
+    void testRateLimitHeadersAndThrottling() {
+        new OktaStandInServer().rateLimit("/api/v1/users", 2).window(Duration.ofSeconds(2)).start().withCloseable { server ->
+            awaitWindowStart(2000)
+            long windowEnd = (System.currentTimeMillis().intdiv(2000) + 1) * 2
+
+            def first = get(server, "/api/v1/users")
+            assertEquals first.status, 200
+            assertEquals first.headers["X-Rate-Limit-Limit"], "2"
+            assertEquals first.headers["X-Rate-Limit-Remaining"], "1"
+            assertEquals first.headers["X-Rate-Limit-Reset"], String.valueOf(windowEnd)
+            assertNotNull first.headers["Date"]
+            assertNotNull first.headers["X-Okta-Request-Id"]
+
+            // endpoints share a bucket by prefix
+            assertEquals get(server, "/api/v1/users/00u1").headers["X-Rate-Limit-Remaining"], "0"
+
+            def throttled = get(server, "/api/v1/users")
+            assertEquals throttled.status, 429
+            assertEquals throttled.headers["X-Rate-Limit-Remaining"], "0"
+            assertTrue throttled.body.contains("\"errorCode\":\"E0000047\"")
+
+            // other endpoints are not affected
+            def groups = get(server, "/api/v1/groups")
+            assertEquals groups.status, 200
+            assertEquals groups.headers["X-Rate-Limit-Limit"], String.valueOf(OktaStandInServer.DEFAULT_RATE_LIMIT)
+
+            // next window
+            Thread.sleep(windowEnd * 1000 - System.currentTimeMillis() + 10)
+            assertEquals get(server, "/api/v1/users").status, 200
+
+            assertEquals server.getResponseCount(200), 4L
+            assertEquals server.getResponseCount(429), 1L
+            assertEquals server.requestCount, 5L
+        }
+    }
+
+    @Test
+    void testInjectedFailures() {
+        new OktaStandInServer().rateLimit("/api/v1/users", 1).failNext(503, 1).failNext(504, 1).start().withCloseable { server ->
+            assertEquals get(server, "/api/v1/users").status, 503
+            assertEquals get(server, "/api/v1/users").status, 504
+            // failures do not count against the rate limit
+            assertEquals get(server, "/api/v1/users").status, 200
+        }
+    }
+
+    @Test
+    void testRandomFailures() {
+        new OktaStandInServer().seed(42).serviceUnavailableRate(0.25).gatewayTimeoutRate(0.25).start().withCloseable { server ->
+            100.times { get(server, "/api/v1/users") }
+
+            assertTrue server.getResponseCount(503) > 10
+            assertTrue server.getResponseCount(504) > 10
+            assertTrue server.getResponseCount(200) > 25
+        }
+    }
+
+    @Test
+    void testRetryRequestExecutorWaitsForReset() {
+        new OktaStandInServer().rateLimit("/api/v1/users", 1).window(Duration.ofSeconds(2)).start().withCloseable { server ->
+            def configuration = new HttpClientConfiguration()
+            configuration.setBaseUrl(server.baseUrl)
+            configuration.setRequestAuthenticator(new DisabledAuthenticator())
+            configuration.setRetryMaxAttempts(3)
+            def executor = new RetryRequestExecutor(configuration, new HttpClientRequestExecutor(configuration))
+            executor.executeRequest(new DefaultRequest(HttpMethod.GET, "${server.baseUrl}/api/v1/groups"))
+            awaitWindowStart(2000)
+
+            2.times {
+                def response = executor.executeRequest(new DefaultRequest(HttpMethod.GET, "${server.baseUrl}/api/v1/users"))
+                assertEquals response.httpStatus, 200
+            }
+            assertEquals server.getResponseCount(429), 1L
+        }
+    }
+
+    @Test
+    void testNoDelayPropertyIsRestoredOnClose() {
+        String property = "sun.net.httpserver.nodelay"
+        String previous = System.getProperty(property)
+        try {
+            System.clearProperty(property)
+            def server = new OktaStandInServer().start()
+            assertEquals System.getProperty(property), "true"
+            server.close()
+            assertNull System.getProperty(property)
+
+            // a value set by the caller is left alone
+            System.setProperty(property, "false")
+            new OktaStandInServer().start().close()
+            assertEquals System.getProperty(property), "false"
+        } finally {
+            if (previous != null) {
+                System.setProperty(property, previous)
+            } else {
+                System.clearProperty(property)
+            }
+        }
+    }
+
+    private static void awaitWindowStart(long window) {
+        // avoid crossing a window boundary half way through the test
+        long intoWindow = System.currentTimeMillis() % window
+        if (intoWindow > window / 2) {
+            Thread.sleep(window - intoWindow + 10)
+        }
+    }
+
+    private static Map get(OktaStandInServer server, String path) {
+        HttpURLConnection connection = (HttpURLConnection) new URL(server.baseUrl + path).openConnection()
+        int status = connection.responseCode
+        String body = (status < 400 ? connection.inputStream : connection.errorStream).getText("UTF-8")
+        // header names are case insensitive, the JDK server changes their case
+        def headers = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER)
+        connection.headerFields.each { name, values -> if (name != null) headers[name] = values[0] }
+        return [status: status, headers: headers, body: body]
+    }
+}